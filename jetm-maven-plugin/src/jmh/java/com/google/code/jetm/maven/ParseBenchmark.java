@@ -0,0 +1,65 @@
+package com.google.code.jetm.maven;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.code.jetm.maven.util.AggregateVisitor;
+import com.google.code.jetm.maven.util.StaxAggregateReader;
+import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Benchmarks of reading the XML timing files of a {@link TimingDataset}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+    /**
+     * Unbind every timing file with the {@link XmlAggregateBinder} of the reporting utilities.
+     * 
+     * @param dataset
+     *            The {@link TimingDataset} to be read.
+     * @param blackhole
+     *            The {@link Blackhole} that consumes the parsed aggregates.
+     */
+    @Benchmark
+    public void unbind(TimingDataset dataset, Blackhole blackhole) {
+        final XmlAggregateBinder binder = new XmlAggregateBinder();
+        for (String xml : dataset.getXml())
+            blackhole.consume(binder.unbind(new StringReader(xml)));
+    }
+
+    /**
+     * Stream every timing file through the {@link StaxAggregateReader} used by the plugin.
+     * 
+     * @param dataset
+     *            The {@link TimingDataset} to be read.
+     * @param blackhole
+     *            The {@link Blackhole} that consumes the parsed aggregates.
+     * @throws IOException
+     *             If any of the files cannot be read.
+     */
+    @Benchmark
+    public void stream(TimingDataset dataset, final Blackhole blackhole) throws IOException {
+        final StaxAggregateReader reader = new StaxAggregateReader();
+        final AggregateVisitor visitor = new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+                blackhole.consume(aggregate);
+            }
+        };
+        for (String xml : dataset.getXml())
+            reader.read(new StringReader(xml), visitor);
+    }
+}
@@ -0,0 +1,60 @@
+package com.google.code.jetm.maven;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.doxia.module.xhtml.XhtmlSinkFactory;
+import org.apache.maven.doxia.sink.Sink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.code.jetm.maven.data.TimeUnit;
+import com.google.code.jetm.maven.util.SummaryTableRenderer;
+import com.google.code.jetm.maven.util.SummaryTextFormatter;
+
+/**
+ * Benchmarks of rendering the summaries of a {@link TimingDataset} as the tables of the timing report and of the timing summary.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MILLISECONDS)
+public class RenderBenchmark {
+    /**
+     * Render the summaries as the table of the timing report, to an XHTML sink whose output is discarded.
+     * 
+     * @param dataset
+     *            The {@link TimingDataset} whose summaries are to be rendered.
+     * @throws IOException
+     *             If the sink cannot be created.
+     */
+    @Benchmark
+    public void reportTable(TimingDataset dataset) throws IOException {
+        final Sink sink = new XhtmlSinkFactory().createSink(new NullOutputStream());
+        try {
+            new SummaryTableRenderer(TimeUnit.MILLISECONDS).render(sink, dataset.getSummaries());
+        } finally {
+            sink.close();
+        }
+    }
+
+    /**
+     * Render the summaries as the plain-text table of the timing summary.
+     * 
+     * @param dataset
+     *            The {@link TimingDataset} whose summaries are to be rendered.
+     * @return A {@link List} of the lines of the table.
+     */
+    @Benchmark
+    public List<String> summaryText(TimingDataset dataset) {
+        return new SummaryTextFormatter(TimeUnit.MILLISECONDS).format(dataset.getSummaries());
+    }
+}
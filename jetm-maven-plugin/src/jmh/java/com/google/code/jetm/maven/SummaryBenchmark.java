@@ -0,0 +1,59 @@
+package com.google.code.jetm.maven;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import com.google.code.jetm.maven.data.AggregateSummarizer;
+import com.google.code.jetm.maven.data.AggregateSummary;
+import com.google.code.jetm.maven.util.AggregateComparator;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Benchmarks of summarizing and sorting the aggregates of a {@link TimingDataset}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SummaryBenchmark {
+    /**
+     * Summarize, by name, the contents of every timing file, as the report does while the files are read.
+     * 
+     * @param dataset
+     *            The {@link TimingDataset} to be summarized.
+     * @return A {@link List} of {@link AggregateSummary} objects representing the summaries.
+     */
+    @Benchmark
+    public List<AggregateSummary> summarize(TimingDataset dataset) {
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        for (Collection<Aggregate> aggregates : dataset.getContents())
+            for (Aggregate aggregate : aggregates)
+                summarizer.visit(aggregate);
+        return summarizer.getSummaries();
+    }
+
+    /**
+     * Sort the summaries with an {@link AggregateComparator}, as the report does before printing them.
+     * 
+     * @param dataset
+     *            The {@link TimingDataset} whose summaries are to be sorted.
+     * @return A sorted {@link List} of {@link Aggregate} objects.
+     */
+    @Benchmark
+    public List<Aggregate> sort(TimingDataset dataset) {
+        final List<Aggregate> sorted = new ArrayList<Aggregate>(dataset.getSummaries());
+        Collections.sort(sorted, new AggregateComparator());
+        return sorted;
+    }
+}
@@ -0,0 +1,97 @@
+package com.google.code.jetm.maven;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.code.jetm.maven.data.AggregateSummarizer;
+import com.google.code.jetm.maven.data.AggregateSummary;
+import com.google.code.jetm.maven.util.TimingGenerator;
+import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A synthetic set of timing files shared by the benchmarks, generated by a {@link TimingGenerator}. Every file holds one aggregate per measurement name, with times drawn from a fixed seed so that
+ * every run measures the same data. The files are held in memory as XML, so that the benchmarks measure the plugin rather than the disk.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+@State(Scope.Benchmark)
+public class TimingDataset {
+    /**
+     * The number of timing files.
+     */
+    @Param({ "10", "100", "1000" })
+    public int files;
+
+    /**
+     * The number of measurement names in each timing file.
+     */
+    @Param({ "10", "100" })
+    public int names;
+
+    private final List<String> xml = new ArrayList<String>();
+    private final List<Collection<Aggregate>> contents = new ArrayList<Collection<Aggregate>>();
+    private List<AggregateSummary> summaries;
+
+    /**
+     * Generate the timing files.
+     */
+    @Setup
+    public void setUp() {
+        final TimingGenerator generator = new TimingGenerator();
+        generator.setNamesPerFile(names);
+        generator.setNameCardinality(names);
+        generator.setSeed(files * 31L + names);
+
+        final XmlAggregateBinder binder = new XmlAggregateBinder();
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        for (int file = 0; file < files; file++) {
+            final List<Aggregate> aggregates = generator.generate(file);
+            for (Aggregate aggregate : aggregates)
+                summarizer.visit(aggregate);
+
+            final StringWriter writer = new StringWriter();
+            binder.bind(aggregates, writer);
+            xml.add(writer.toString());
+            contents.add(aggregates);
+        }
+        summaries = summarizer.getSummaries();
+    }
+
+    /**
+     * Get the XML of each timing file.
+     * 
+     * @return A {@link List} of the contents of each timing file, as XML.
+     */
+    public List<String> getXml() {
+        return xml;
+    }
+
+    /**
+     * Get the parsed contents of each timing file.
+     * 
+     * @return A {@link List} of {@link Collection} objects representing the aggregates of each timing file.
+     */
+    public List<Collection<Aggregate>> getContents() {
+        return contents;
+    }
+
+    /**
+     * Get the summaries of all of the timing files.
+     * 
+     * @return A {@link List} of {@link AggregateSummary} objects representing the summaries, by name, of every timing file.
+     */
+    public List<AggregateSummary> getSummaries() {
+        return summaries;
+    }
+}
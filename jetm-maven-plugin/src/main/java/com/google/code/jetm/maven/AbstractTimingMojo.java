@@ -0,0 +1,210 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+
+import com.google.code.jetm.maven.data.AggregateSummary;
+import com.google.code.jetm.maven.util.AggregateExport;
+import com.google.code.jetm.maven.util.ExportFormat;
+
+/**
+ * The base of every goal that reads the timing files of a project. It declares the parameters by which the timing files are found, read, cached and exported, so that every goal reads them in the
+ * same way.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public abstract class AbstractTimingMojo extends AbstractMojo {
+    /**
+     * The directories containing the timing report files, in either the XML (*.xml) or the binary (*.jetm) format. Files may also be compressed with gzip (e.g., *.xml.gz) or zlib (e.g., *.xml.zz). If not set, then a default of "${project.build.directory}/jetm" will be used instead.
+     * 
+     * @parameter
+     */
+    private File[] timings;
+
+    /**
+     * The encoding by which the XML files will be read. If not specified, this defaults to platform encoding.
+     * 
+     * @parameter default-value="${project.build.sourceEncoding}"
+     * @required
+     */
+    private String inputEncoding;
+
+    /**
+     * The maximum number of timing files to be read at the same time. If not specified, this defaults to the number of processors available to the JVM.
+     * 
+     * @parameter expression="${jetm.loaderThreads}"
+     */
+    private Integer loaderThreads;
+
+    /**
+     * The patterns of the timing files, relative to each timing directory, that are to be read (e.g., <code>**&#47;*Test.xml</code>). If not specified, every timing file found is read.
+     * 
+     * @parameter
+     */
+    private String[] includes;
+
+    /**
+     * The patterns of the files and directories, relative to each timing directory, that are not to be read. Directories that match one of these patterns are not searched at all.
+     * 
+     * @parameter
+     */
+    private String[] excludes;
+
+    /**
+     * The maximum number of directory levels within each timing directory that are searched for timing files; 1 searches only the timing directory itself. If not specified, there is no limit.
+     * 
+     * @parameter expression="${jetm.maxDepth}"
+     */
+    private Integer maxDepth;
+
+    /**
+     * Whether or not the parsed contents of each timing file are to be cached on disk, so that files that have not changed since the last run are not parsed again.
+     * 
+     * @parameter expression="${jetm.parseCache}" default-value="true"
+     */
+    private boolean parseCache;
+
+    /**
+     * The directory in which the parsed contents of the timing files are cached.
+     * 
+     * @parameter default-value="${project.build.directory}/jetm-cache"
+     * @required
+     */
+    private File parseCacheDirectory;
+
+    /**
+     * Whether or not a digest of each timing file's contents is to be used, in addition to its size and last-modified time, to determine whether its cached contents are still valid.
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean parseCacheHashContents;
+
+    /**
+     * Whether or not the parsed contents of each timing file are to be kept in memory, so that later builds run by the same long-lived Maven process (e.g., a build daemon) do not read
+     * timing files that have not changed since. The memory is shared by every build within the process.
+     * 
+     * @parameter expression="${jetm.residentCache}" default-value="false"
+     */
+    private boolean residentCache;
+
+    /**
+     * The maximum number of measurements, including nested ones, to be kept in memory when <code>residentCache</code> is enabled; the least recently used timing files are evicted beyond it. As the cache is shared by every module of the build, it is bounded by the largest size configured by any of them.
+     * 
+     * @parameter expression="${jetm.residentCacheSize}" default-value="1000000"
+     */
+    private Integer residentCacheSize;
+
+    /**
+     * The machine-readable formats, separated by commas, in which the summaries and the contents of each timing file are also to be exported (e.g., <code>JSON,CSV</code>). Supported values are:
+     * <ul>
+     * <li>JSON: a single JSON document, with the measurements nested within another measurement listed as its children</li>
+     * <li>CSV: comma-separated values, one row per measurement</li>
+     * </ul>
+     * Times are exported in milliseconds. The exports are written as the timing files are read, so they take no more memory than the goal itself. If not set, nothing is exported.
+     * 
+     * @parameter expression="${jetm.exportFormats}"
+     */
+    private String exportFormats;
+
+    /**
+     * The directory to which the exports are written, named after the goal that wrote them (e.g., <code>jetm-summary.json</code> and <code>jetm-timing-report.csv</code>).
+     * 
+     * @parameter expression="${jetm.exportDirectory}" default-value="${project.build.directory}/jetm-export"
+     * @required
+     */
+    private File exportDirectory;
+
+    /**
+     * The build directory for the Maven project.
+     * 
+     * @parameter default-value="${project.build.directory}"
+     * @required
+     * @readonly
+     */
+    private File buildDirectory;
+
+    /**
+     * Create a source of the configured timing files.
+     * 
+     * @return A {@link TimingSource} configured from the parameters of this goal.
+     */
+    protected TimingSource createTimingSource() {
+        final TimingSource source = new TimingSource(getTimingDirectories(), getLog());
+        source.setPatterns(includes, excludes);
+        source.setMaxDepth(maxDepth);
+        source.setInputEncoding(inputEncoding);
+        source.setLoaderThreads(loaderThreads);
+        source.setParseCache(parseCache ? parseCacheDirectory : null, parseCacheHashContents);
+        source.setResidentCache(residentCache, residentCacheSize);
+        return source;
+    }
+
+    /**
+     * Create the export of the timings.
+     * 
+     * @param baseName
+     *            The name of the export files, without their extensions.
+     * @return An {@link AggregateExport} writing the configured formats to the export directory; {@code null} if no formats are to be exported.
+     * @throws IllegalArgumentException
+     *             If the configured formats are invalid.
+     * @throws IOException
+     *             If the export files cannot be created.
+     */
+    protected AggregateExport createExport(String baseName) throws IOException {
+        final List<ExportFormat> formats = ExportFormat.fromMojoValues(exportFormats);
+        if (formats.isEmpty())
+            return null;
+
+        try {
+            return new AggregateExport(exportDirectory, baseName, formats);
+        } catch (IOException e) {
+            throw new IOException("Failed to create the timing export in " + exportDirectory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write the summaries to the export of the timings and close it.
+     * 
+     * @param export
+     *            The {@link AggregateExport} to be finished; if {@code null}, nothing is done.
+     * @param summaries
+     *            A {@link List} of {@link AggregateSummary} objects representing the summaries to be exported.
+     * @throws IOException
+     *             If the export cannot be written.
+     */
+    protected void finishExport(AggregateExport export, List<AggregateSummary> summaries) throws IOException {
+        if (export == null)
+            return;
+
+        try {
+            export.writeSummaries(summaries);
+            export.close();
+        } catch (IOException e) {
+            throw new IOException("Failed to write the timing export: " + e.getMessage(), e);
+        }
+        getLog().info("Exported the timings to " + export.getFiles());
+    }
+
+    /**
+     * Get the build directory.
+     * 
+     * @return The build directory of the project.
+     */
+    protected File getBuildDirectory() {
+        return buildDirectory;
+    }
+
+    /**
+     * Get the timings directories.
+     * 
+     * @return An array of {@link File} objects representing the configured timing directories; if none are configured, then "${project.build.directory}/jetm" will be used as a default.
+     */
+    private File[] getTimingDirectories() {
+        return timings == null ? new File[] { new File(buildDirectory, "jetm") } : timings;
+    }
+}
@@ -0,0 +1,297 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.util.Iterator;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.ReportPlugin;
+import org.apache.maven.model.ReportSet;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.path.PathTranslator;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
+import org.codehaus.plexus.configuration.PlexusConfiguration;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * The configuration of the <code>timing-report</code> goal within a project, as it is read by the goals that read the timing files of other projects than their own. The parameters by which the
+ * timing files are found, read and cached are resolved as Maven resolves them when it runs the goal within the project: the configuration of the plugin in the project's build section, including
+ * that of any of its executions of the goal, is overridden by its configuration in the project's reporting section; any parameter that is not configured takes its value from its expression
+ * (e.g., <code>-Djetm.maxDepth=2</code>) or, failing that, its default value, and expressions are evaluated against the project.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+class ProjectTimingConfiguration {
+    /**
+     * The goal whose configuration is read.
+     */
+    private static final String GOAL = "timing-report";
+
+    private final MavenProject project;
+    private final Xpp3Dom configuration;
+    private final PlexusConfiguration parameters;
+    private final PluginParameterExpressionEvaluator evaluator;
+
+    /**
+     * Create a configuration.
+     * 
+     * @param session
+     *            The {@link MavenSession} of the build.
+     * @param mojoExecution
+     *            The {@link MojoExecution} of the goal reading the configuration, by which this plugin is identified.
+     * @param pathTranslator
+     *            The {@link PathTranslator} used to resolve relative paths.
+     * @param project
+     *            The {@link MavenProject} whose configuration is to be read.
+     */
+    ProjectTimingConfiguration(MavenSession session, MojoExecution mojoExecution, PathTranslator pathTranslator, MavenProject project) {
+        this.project = project;
+
+        final PluginDescriptor plugin = mojoExecution.getMojoDescriptor().getPluginDescriptor();
+        final MojoDescriptor mojo = plugin.getMojo(GOAL);
+        parameters = mojo == null ? null : mojo.getMojoConfiguration();
+        configuration = getConfiguration(project, plugin.getGroupId(), plugin.getArtifactId());
+
+        /*
+         * The evaluator of Maven 3 ignores the project it is given in favor of the current project of the session
+         */
+        final MavenProject currentProject = session.getCurrentProject();
+        session.setCurrentProject(project);
+        try {
+            evaluator = new PluginParameterExpressionEvaluator(session, mojoExecution, pathTranslator, new ConsoleLogger(Logger.LEVEL_WARN, getClass().getName()), project,
+                    session.getExecutionProperties());
+        } finally {
+            session.setCurrentProject(currentProject);
+        }
+    }
+
+    /**
+     * Create a source of the timing files of the project.
+     * 
+     * @param log
+     *            The {@link Log} to which progress is to be reported.
+     * @return A {@link TimingSource} configured as the <code>timing-report</code> goal is configured within the project.
+     * @throws IllegalArgumentException
+     *             If a parameter cannot be evaluated or a numeric parameter is not a number.
+     */
+    TimingSource createTimingSource(Log log) {
+        File[] timings = getFiles("timings");
+        if (timings == null)
+            timings = new File[] { new File(getFile("buildDirectory"), "jetm") };
+
+        final TimingSource source = new TimingSource(timings, log);
+        source.setPatterns(getValues("includes"), getValues("excludes"));
+        source.setMaxDepth(getInteger("maxDepth"));
+        source.setInputEncoding(getValue("inputEncoding"));
+        source.setLoaderThreads(getInteger("loaderThreads"));
+        source.setParseCache(getBoolean("parseCache") ? getFile("parseCacheDirectory") : null, getBoolean("parseCacheHashContents"));
+        source.setResidentCache(getBoolean("residentCache"), getInteger("residentCacheSize"));
+        return source;
+    }
+
+    /**
+     * Get the configuration of the goal within a project's POM.
+     * 
+     * @param project
+     *            The {@link MavenProject} whose configuration is to be read.
+     * @param pluginGroupId
+     *            The group ID of this plugin.
+     * @param pluginArtifactId
+     *            The artifact ID of this plugin.
+     * @return An {@link Xpp3Dom} representing the configuration of the goal; {@code null} if it is not configured.
+     */
+    private static Xpp3Dom getConfiguration(MavenProject project, String pluginGroupId, String pluginArtifactId) {
+        Xpp3Dom build = project.getGoalConfiguration(pluginGroupId, pluginArtifactId, null, null);
+        for (Iterator<?> plugins = project.getBuildPlugins().iterator(); plugins.hasNext();) {
+            final Plugin plugin = (Plugin) plugins.next();
+            if (!pluginGroupId.equals(plugin.getGroupId()) || !pluginArtifactId.equals(plugin.getArtifactId()))
+                continue;
+
+            for (Iterator<?> executions = plugin.getExecutions().iterator(); executions.hasNext();) {
+                final PluginExecution execution = (PluginExecution) executions.next();
+                if (execution.getGoals().contains(GOAL))
+                    build = merge((Xpp3Dom) execution.getConfiguration(), build);
+            }
+        }
+
+        Xpp3Dom report = project.getReportConfiguration(pluginGroupId, pluginArtifactId, null);
+        for (Iterator<?> plugins = project.getReportPlugins().iterator(); plugins.hasNext();) {
+            final ReportPlugin plugin = (ReportPlugin) plugins.next();
+            if (!pluginGroupId.equals(plugin.getGroupId()) || !pluginArtifactId.equals(plugin.getArtifactId()))
+                continue;
+
+            for (Iterator<?> reportSets = plugin.getReportSets().iterator(); reportSets.hasNext();) {
+                final ReportSet reportSet = (ReportSet) reportSets.next();
+                if (reportSet.getReports().contains(GOAL))
+                    report = merge((Xpp3Dom) reportSet.getConfiguration(), report);
+            }
+        }
+
+        return merge(report, build);
+    }
+
+    /**
+     * Merge two configurations.
+     * 
+     * @param dominant
+     *            The {@link Xpp3Dom} whose values take precedence; may be {@code null}.
+     * @param recessive
+     *            The {@link Xpp3Dom} whose values are used where the dominant configuration has none; may be {@code null}.
+     * @return A new {@link Xpp3Dom} representing the merged configuration, or whichever configuration is not {@code null}.
+     */
+    private static Xpp3Dom merge(Xpp3Dom dominant, Xpp3Dom recessive) {
+        if (dominant == null)
+            return recessive;
+        if (recessive == null)
+            return dominant;
+        return Xpp3Dom.mergeXpp3Dom(new Xpp3Dom(dominant), recessive);
+    }
+
+    /**
+     * Get the value of a parameter.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return The evaluated, trimmed value of the parameter as it is configured within the project or, if it is not, of its expression or default value; {@code null} if none of them has a
+     *         value.
+     * @throws IllegalArgumentException
+     *             If the value cannot be evaluated.
+     */
+    private String getValue(String name) {
+        final Xpp3Dom child = configuration == null ? null : configuration.getChild(name);
+        if (child != null)
+            return evaluate(name, child.getValue());
+
+        final PlexusConfiguration parameter = parameters == null ? null : parameters.getChild(name, false);
+        if (parameter == null)
+            return null;
+
+        final String value = evaluate(name, parameter.getValue(null));
+        return value == null ? evaluate(name, parameter.getAttribute("default-value", null)) : value;
+    }
+
+    /**
+     * Get the values of a parameter that is a list.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return An array of the evaluated, trimmed values of the parameter; {@code null} if it is not configured.
+     * @throws IllegalArgumentException
+     *             If any of the values cannot be evaluated.
+     */
+    private String[] getValues(String name) {
+        final Xpp3Dom child = configuration == null ? null : configuration.getChild(name);
+        if (child == null)
+            return null;
+
+        final Xpp3Dom[] elements = child.getChildren();
+        final String[] values = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            final String value = evaluate(name, elements[i].getValue());
+            values[i] = value == null ? "" : value;
+        }
+        return values;
+    }
+
+    /**
+     * Get the value of a parameter that is a boolean.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return {@code true} if the value of the parameter is <code>true</code>.
+     * @throws IllegalArgumentException
+     *             If the value cannot be evaluated.
+     */
+    private boolean getBoolean(String name) {
+        return Boolean.parseBoolean(getValue(name));
+    }
+
+    /**
+     * Get the value of a parameter that is a number.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return The value of the parameter; {@code null} if it has none.
+     * @throws IllegalArgumentException
+     *             If the value cannot be evaluated or is not a number.
+     */
+    private Integer getInteger(String name) {
+        final String value = getValue(name);
+        if (value == null)
+            return null;
+
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The " + name + " of project " + project.getId() + " is not a number: " + value, e);
+        }
+    }
+
+    /**
+     * Get the value of a parameter that is a file.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return The value of the parameter, resolved against the base directory of the project if it is relative; {@code null} if it has none.
+     * @throws IllegalArgumentException
+     *             If the value cannot be evaluated.
+     */
+    private File getFile(String name) {
+        final String value = getValue(name);
+        return value == null ? null : evaluator.alignToBaseDirectory(new File(value));
+    }
+
+    /**
+     * Get the values of a parameter that is a list of files.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return An array of the values of the parameter, each resolved against the base directory of the project if it is relative; {@code null} if it is not configured.
+     * @throws IllegalArgumentException
+     *             If any of the values cannot be evaluated.
+     */
+    private File[] getFiles(String name) {
+        final String[] values = getValues(name);
+        if (values == null)
+            return null;
+
+        final File[] files = new File[values.length];
+        for (int i = 0; i < values.length; i++)
+            files[i] = evaluator.alignToBaseDirectory(new File(values[i]));
+        return files;
+    }
+
+    /**
+     * Evaluate the expressions within a value as Maven evaluates them within the configuration of a goal.
+     * 
+     * @param name
+     *            The name of the parameter whose value is evaluated.
+     * @param value
+     *            The value to be evaluated; may be {@code null}.
+     * @return The evaluated, trimmed value; {@code null} if the value is {@code null} or its expression has no value.
+     * @throws IllegalArgumentException
+     *             If the value cannot be evaluated.
+     */
+    private String evaluate(String name, String value) {
+        if (value == null)
+            return null;
+
+        final Object evaluated;
+        try {
+            evaluated = evaluator.evaluate(value);
+        } catch (ExpressionEvaluationException e) {
+            throw new IllegalArgumentException("The " + name + " of project " + project.getId() + " cannot be evaluated: " + value, e);
+        }
+        return evaluated == null ? null : evaluated.toString().trim();
+    }
+}
@@ -0,0 +1,463 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.siterenderer.Renderer;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.path.PathTranslator;
+import org.apache.maven.reporting.AbstractMavenReport;
+import org.apache.maven.reporting.MavenReportException;
+
+import com.google.code.jetm.maven.data.AggregateSummarizer;
+import com.google.code.jetm.maven.data.AggregateSummary;
+import com.google.code.jetm.maven.data.TimeUnit;
+import com.google.code.jetm.maven.util.AggregateExport;
+import com.google.code.jetm.maven.util.AggregateVisitor;
+import com.google.code.jetm.maven.util.ExportFormat;
+import com.google.code.jetm.maven.util.SummaryTableRenderer;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A mojo used to create a report that displays the collective JETM timings of every project in a multi-module build: one summary of the timings of all of the projects combined, followed by a
+ * summary per project. The projects are read in parallel.
+ * <p />
+ * The timing files of each project are found, read and cached as the <code>timing-report</code> goal is configured within that project (see {@link ProjectTimingConfiguration}), so timing
+ * files that were already parsed by another goal during the same build are not parsed again. The caches of the projects are only added to, never pruned, by this report. When <code>exportFormats</code> is set, only
+ * the combined summary is exported.
+ * 
+ * @author jrh3k5
+ * @goal timing-aggregate-report
+ * @aggregator
+ * @phase site
+ * @threadSafe
+ */
+
+public class TimingAggregateReportMojo extends AbstractMavenReport {
+    /**
+     * The unit of time in which the report is to express its recorded timings. Supported values are:
+     * <ul>
+     * <li>SECS: the report will display times in seconds</li>
+     * <li>MILLIS: the report will display times in milliseconds</li>
+     * </ul>
+     * 
+     * @parameter default-value="SECS"
+     * @required
+     */
+    private String timeUnit;
+
+    /**
+     * The maximum number of projects whose timing files are read at the same time; the timing files of each project are read with as many threads as its own <code>loaderThreads</code>
+     * allows. If not specified, this defaults to the number of processors available to the JVM.
+     * 
+     * @parameter expression="${jetm.projectThreads}"
+     */
+    private Integer projectThreads;
+
+    /**
+     * The machine-readable formats, separated by commas, in which the combined summary is also to be exported (e.g., <code>JSON,CSV</code>). Supported values are:
+     * <ul>
+     * <li>JSON: a single JSON document, with the measurements nested within another measurement listed as its children</li>
+     * <li>CSV: comma-separated values, one row per measurement</li>
+     * </ul>
+     * Times are exported in milliseconds. If not set, nothing is exported.
+     * 
+     * @parameter expression="${jetm.exportFormats}"
+     */
+    private String exportFormats;
+
+    /**
+     * The directory to which the exports are written, as <code>jetm-timing-aggregate-report.json</code> and <code>jetm-timing-aggregate-report.csv</code>.
+     * 
+     * @parameter expression="${jetm.exportDirectory}" default-value="${project.build.directory}/jetm-export"
+     * @required
+     */
+    private File exportDirectory;
+
+    /**
+     * The projects in the reactor.
+     * 
+     * @parameter expression="${reactorProjects}"
+     * @required
+     * @readonly
+     */
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * The current build session, against which the configuration of each project is evaluated.
+     * 
+     * @parameter expression="${session}"
+     * @required
+     * @readonly
+     */
+    private MavenSession session;
+
+    /**
+     * The execution of this goal, by which this plugin and its configuration within each project are found.
+     * 
+     * @parameter expression="${mojoExecution}"
+     * @required
+     * @readonly
+     */
+    private MojoExecution mojoExecution;
+
+    /**
+     * Directory where reports will go.
+     * 
+     * @parameter expression="${project.reporting.outputDirectory}"
+     * @required
+     * @readonly
+     */
+    private String outputDirectory;
+
+    /**
+     * @parameter default-value="${project}"
+     * @required
+     * @readonly
+     */
+    private MavenProject project;
+
+    /**
+     * @component
+     * @required
+     * @readonly
+     */
+    private Renderer siteRenderer;
+
+    /**
+     * @component
+     * @required
+     * @readonly
+     */
+    private PathTranslator pathTranslator;
+
+    private Map<MavenProject, TimingSource> moduleSources;
+
+    @Override
+    public boolean canGenerateReport() {
+        try {
+            return !getModuleSources().isEmpty();
+        } catch (IllegalArgumentException e) {
+            getLog().warn("Failed to search for timing files: " + e.getMessage());
+            return false;
+        } catch (IOException e) {
+            getLog().warn("Failed to search for timing files: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getOutputName() {
+        return "jetm-timing-aggregate-report";
+    }
+
+    @Override
+    public String getName(Locale locale) {
+        return "JETM Aggregate Timing Report";
+    }
+
+    @Override
+    public String getDescription(Locale locale) {
+        return "A collective report of all JETM timings that were collected and rendered by the projects of the build.";
+    }
+
+    @Override
+    protected void executeReport(Locale locale) throws MavenReportException {
+        final SummaryTableRenderer renderer;
+        try {
+            renderer = new SummaryTableRenderer(TimeUnit.fromMojoAbbreviation(timeUnit));
+        } catch (IllegalArgumentException e) {
+            throw new MavenReportException(e.getMessage());
+        }
+
+        final AggregateSummarizer combined = new AggregateSummarizer();
+        final Map<MavenProject, AggregateSummarizer> modules = load(combined);
+        final List<AggregateSummary> summaries = combined.getSummaries();
+        export(summaries);
+        Collections.sort(summaries);
+
+        final Sink sink = getSink();
+        try {
+            sink.head();
+            sink.title();
+            sink.text(getName(locale));
+            sink.title_();
+            sink.head_();
+
+            sink.body();
+            sink.sectionTitle1();
+            sink.text(getName(locale));
+            sink.sectionTitle1_();
+
+            if (summaries.isEmpty()) {
+                sink.text(" There are no JETM timings available for reporting.");
+                return;
+            }
+
+            sink.sectionTitle2();
+            sink.text("Summary");
+            sink.sectionTitle2_();
+
+            sink.text("This is a summary, by measurement name, of the measurements taken by all " + modules.size()
+                    + " projects with timings. Measurements nested within another measurement are listed, indented, beneath it.");
+
+            renderer.render(sink, summaries);
+
+            sink.sectionTitle2();
+            sink.text("Project Breakdown");
+            sink.sectionTitle2_();
+
+            sink.text("This is a summary, per project, of the measurements taken.");
+
+            for (Entry<MavenProject, AggregateSummarizer> entry : modules.entrySet()) {
+                final List<AggregateSummary> moduleSummaries = entry.getValue().getSummaries();
+                if (moduleSummaries.isEmpty())
+                    continue;
+
+                sink.sectionTitle3();
+                sink.text(getDisplayName(entry.getKey()));
+                sink.sectionTitle3_();
+
+                Collections.sort(moduleSummaries);
+                renderer.render(sink, moduleSummaries);
+            }
+        } finally {
+            sink.body_();
+
+            sink.flush();
+            sink.close();
+        }
+    }
+
+    /**
+     * Load the timings of every project, with as many projects read at the same time as the configured number of project threads.
+     * 
+     * @param combined
+     *            An {@link AggregateVisitor} to which the timings of all projects are passed.
+     * @return A {@link Map} of each project with timing files, in reactor order, to the summaries of its own timings.
+     * @throws MavenReportException
+     *             If any of the projects' timings cannot be read.
+     */
+    private Map<MavenProject, AggregateSummarizer> load(final AggregateVisitor combined) throws MavenReportException {
+        final Map<MavenProject, TimingSource> sources;
+        final int threads;
+        try {
+            sources = getModuleSources();
+            threads = getProjectThreads();
+        } catch (IllegalArgumentException e) {
+            throw new MavenReportException(e.getMessage());
+        } catch (IOException e) {
+            throw new MavenReportException(e.getMessage(), e);
+        }
+
+        final Map<MavenProject, AggregateSummarizer> modules = new LinkedHashMap<MavenProject, AggregateSummarizer>();
+        if (sources.isEmpty())
+            return modules;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sources.size()));
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>(sources.size());
+            for (Entry<MavenProject, TimingSource> entry : sources.entrySet()) {
+                final AggregateSummarizer module = new AggregateSummarizer();
+                modules.put(entry.getKey(), module);
+                futures.add(executor.submit(new ModuleLoad(entry.getValue(), module, combined)));
+            }
+
+            final List<MavenProject> projects = new ArrayList<MavenProject>(modules.keySet());
+            for (int i = 0; i < futures.size(); i++)
+                getResult(projects.get(i), futures.get(i));
+        } finally {
+            executor.shutdownNow();
+        }
+        return modules;
+    }
+
+    /**
+     * Wait for the timings of a project to be loaded.
+     * 
+     * @param project
+     *            The {@link MavenProject} whose timings are being loaded.
+     * @param future
+     *            The {@link Future} representing the pending load.
+     * @throws MavenReportException
+     *             If the timings could not be loaded.
+     */
+    private void getResult(MavenProject project, Future<Void> future) throws MavenReportException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MavenReportException("Interrupted while reading the timings of project: " + getDisplayName(project));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error)
+                throw (Error) cause;
+            if (cause instanceof IllegalArgumentException)
+                throw new MavenReportException(cause.getMessage());
+            throw new MavenReportException("Failed to read the timings of project " + getDisplayName(project) + ": " + cause.getMessage(), (Exception) cause);
+        }
+    }
+
+    /**
+     * Get the sources of the timing files of every project in the reactor that has any. They are created once per execution, so that the timing directories are only searched once.
+     * 
+     * @return A {@link Map} of each {@link MavenProject} with timing files, in reactor order, to the {@link TimingSource} of its timing files.
+     * @throws IllegalArgumentException
+     *             If the configured search is invalid.
+     * @throws IOException
+     *             If a timing directory cannot be searched.
+     */
+    private Map<MavenProject, TimingSource> getModuleSources() throws IOException {
+        if (moduleSources != null)
+            return moduleSources;
+
+        final Map<MavenProject, TimingSource> sources = new LinkedHashMap<MavenProject, TimingSource>();
+        for (MavenProject reactorProject : reactorProjects) {
+            final TimingSource source = new ProjectTimingConfiguration(session, mojoExecution, pathTranslator, reactorProject).createTimingSource(getLog());
+            source.setParseCachePruned(false);
+            if (source.hasTimingFiles())
+                sources.put(reactorProject, source);
+        }
+        return moduleSources = sources;
+    }
+
+    /**
+     * Export the combined summary.
+     * 
+     * @param summaries
+     *            A {@link List} of {@link AggregateSummary} objects representing the summaries of the timings of all projects.
+     * @throws MavenReportException
+     *             If the configured formats are invalid or the export cannot be written.
+     */
+    private void export(List<AggregateSummary> summaries) throws MavenReportException {
+        final List<ExportFormat> formats;
+        try {
+            formats = ExportFormat.fromMojoValues(exportFormats);
+        } catch (IllegalArgumentException e) {
+            throw new MavenReportException(e.getMessage());
+        }
+
+        if (formats.isEmpty())
+            return;
+
+        AggregateExport export = null;
+        try {
+            export = new AggregateExport(exportDirectory, getOutputName(), formats);
+            export.writeSummaries(summaries);
+            export.close();
+        } catch (IOException e) {
+            throw new MavenReportException("Failed to write the timing export to " + exportDirectory + ": " + e.getMessage(), e);
+        } finally {
+            if (export != null)
+                export.closeQuietly();
+        }
+        getLog().info("Exported the timings to " + export.getFiles());
+    }
+
+    /**
+     * Get the number of projects to be read at the same time.
+     * 
+     * @return The configured number of project threads; the number of available processors if none is configured.
+     * @throws IllegalArgumentException
+     *             If the configured number is less than 1.
+     */
+    private int getProjectThreads() {
+        if (projectThreads == null)
+            return Runtime.getRuntime().availableProcessors();
+
+        if (projectThreads.intValue() < 1)
+            throw new IllegalArgumentException("The number of project threads must be at least 1: " + projectThreads);
+
+        return projectThreads.intValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected MavenProject getProject() {
+        return project;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected Renderer getSiteRenderer() {
+        return siteRenderer;
+    }
+
+    /**
+     * Get the name by which a project is displayed.
+     * 
+     * @param project
+     *            The {@link MavenProject} to be displayed.
+     * @return The name of the project, if it has one; otherwise, its artifact ID.
+     */
+    private static String getDisplayName(MavenProject project) {
+        return project.getName() == null ? project.getArtifactId() : project.getName();
+    }
+
+    /**
+     * A {@link Callable} that loads the timings of a single project, passing each aggregate to both the summary of the project and the combined summary.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private static class ModuleLoad implements Callable<Void> {
+        private final TimingSource source;
+        private final AggregateVisitor module;
+        private final AggregateVisitor combined;
+
+        /**
+         * Create a load.
+         * 
+         * @param source
+         *            The {@link TimingSource} of the project's timing files.
+         * @param module
+         *            The {@link AggregateVisitor} summarizing the project's timings.
+         * @param combined
+         *            The {@link AggregateVisitor} summarizing the timings of all projects.
+         */
+        public ModuleLoad(TimingSource source, AggregateVisitor module, AggregateVisitor combined) {
+            this.source = source;
+            this.module = module;
+            this.combined = combined;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Void call() throws IOException {
+            source.stream(new AggregateVisitor() {
+                public void visit(Aggregate aggregate) {
+                    module.visit(aggregate);
+                    combined.visit(aggregate);
+                }
+            });
+            return null;
+        }
+    }
+}
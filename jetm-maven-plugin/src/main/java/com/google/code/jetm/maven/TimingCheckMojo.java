@@ -0,0 +1,315 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+import com.google.code.jetm.maven.data.AggregateSummarizer;
+import com.google.code.jetm.maven.data.Budget;
+import com.google.code.jetm.maven.data.BudgetMatcher;
+import com.google.code.jetm.maven.data.BudgetViolation;
+import com.google.code.jetm.maven.data.Metric;
+import com.google.code.jetm.maven.data.Regression;
+import com.google.code.jetm.maven.data.RegressionDetector;
+import com.google.code.jetm.maven.data.SummaryTable;
+import com.google.code.jetm.maven.data.Threshold;
+import com.google.code.jetm.maven.util.AggregateExport;
+import com.google.code.jetm.maven.util.TimingFileLoader;
+import com.google.code.jetm.maven.util.TextTable;
+import com.google.code.jetm.maven.util.TimingFileWriter;
+
+/**
+ * A mojo used to check the collective JETM timings of a project against a baseline snapshot of them, failing the build if any of them has regressed beyond the configured thresholds. The
+ * baseline is a timing file, in any of the supported formats, holding the summarized timings of an earlier build; it can be written from the current timings by running this goal with
+ * <code>-Djetm.updateBaseline=true</code>.
+ * <p />
+ * The timings are also checked against the configured budgets, which fail the build if any measurement exceeds their absolute limits. When <code>exportFormats</code> is set, the current timings
+ * are exported as <code>jetm-check</code>.
+ * 
+ * @author jrh3k5
+ * @goal check
+ * @phase verify
+ * @threadSafe
+ */
+
+public class TimingCheckMojo extends AbstractTimingMojo {
+    /**
+     * The character set in which baselines are read.
+     */
+    private static final Charset BASELINE_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * The baseline snapshot against which the timings are checked. Its format and compression are determined by its extension, as for the timing files.
+     * 
+     * @parameter expression="${jetm.baseline}" default-value="${basedir}/src/test/jetm/baseline.xml"
+     * @required
+     */
+    private File baseline;
+
+    /**
+     * Whether the baseline is to be replaced by a snapshot of the current timings instead of being checked against.
+     * 
+     * @parameter expression="${jetm.updateBaseline}" default-value="false"
+     */
+    private boolean updateBaseline;
+
+    /**
+     * Whether a regression is to fail the build. If not, regressions are only logged as warnings.
+     * 
+     * @parameter expression="${jetm.failOnRegression}" default-value="true"
+     */
+    private boolean failOnRegression;
+
+    /**
+     * The largest allowed increase in the average time of a measurement, as a percentage of its baseline average.
+     * 
+     * @parameter expression="${jetm.maxAverageIncrease}" default-value="10"
+     */
+    private Double maxAverageIncrease;
+
+    /**
+     * The largest allowed increase in the average time of a measurement, in milliseconds. If a percentage is also allowed, a measurement regresses only when its increase exceeds both, so this
+     * serves as a noise floor for measurements too fast for a relative increase to matter.
+     * 
+     * @parameter expression="${jetm.maxAverageIncreaseMillis}"
+     */
+    private Double maxAverageIncreaseMillis;
+
+    /**
+     * The largest allowed increase in the maximum time of a measurement, as a percentage of its baseline maximum.
+     * 
+     * @parameter expression="${jetm.maxMaximumIncrease}"
+     */
+    private Double maxMaximumIncrease;
+
+    /**
+     * The largest allowed increase in the maximum time of a measurement, in milliseconds. If a percentage is also allowed, a measurement regresses only when its increase exceeds both, so this
+     * serves as a noise floor for measurements too fast for a relative increase to matter.
+     * 
+     * @parameter expression="${jetm.maxMaximumIncreaseMillis}"
+     */
+    private Double maxMaximumIncreaseMillis;
+
+    /**
+     * The largest allowed increase in the total time of a measurement, as a percentage of its baseline total.
+     * 
+     * @parameter expression="${jetm.maxTotalIncrease}"
+     */
+    private Double maxTotalIncrease;
+
+    /**
+     * The largest allowed increase in the total time of a measurement, in milliseconds. If a percentage is also allowed, a measurement regresses only when its increase exceeds both, so this
+     * serves as a noise floor for measurements too fast for a relative increase to matter.
+     * 
+     * @parameter expression="${jetm.maxTotalIncreaseMillis}"
+     */
+    private Double maxTotalIncreaseMillis;
+
+    /**
+     * The absolute limits on the timings of the measurements matching a name or name pattern; a pattern may use <code>*</code> and <code>?</code> as wildcards. Any measurement, including a
+     * nested one, that exceeds a limit of a budget that applies to it fails the build. For example:
+     * 
+     * <pre>
+     * &lt;budgets&gt;
+     *   &lt;budget&gt;
+     *     &lt;name&gt;Thread.A&lt;/name&gt;
+     *     &lt;maxAverage&gt;150&lt;/maxAverage&gt;
+     *     &lt;maxMaximum&gt;500&lt;/maxMaximum&gt;
+     *   &lt;/budget&gt;
+     *   &lt;budget&gt;
+     *     &lt;name&gt;Dao.*&lt;/name&gt;
+     *     &lt;maxTotal&gt;60000&lt;/maxTotal&gt;
+     *   &lt;/budget&gt;
+     * &lt;/budgets&gt;
+     * </pre>
+     * 
+     * All limits are in milliseconds.
+     * 
+     * @parameter
+     */
+    private Budget[] budgets;
+
+    /**
+     * Whether the check is to be skipped.
+     * 
+     * @parameter expression="${jetm.check.skip}" default-value="false"
+     */
+    private boolean skip;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping the timing check.");
+            return;
+        }
+
+        final SummaryTable current = loadCurrent();
+        if (current.size() == 0) {
+            getLog().info("There are no JETM timings to be checked.");
+            return;
+        }
+
+        final int violations = checkBudgets(current);
+        final int regressions = updateBaseline ? updateBaseline(current) : checkBaseline(current);
+
+        if (violations > 0)
+            throw new MojoFailureException(violations + " timings exceeded their budgets.");
+
+        if (regressions > 0) {
+            final String message = regressions + " timings regressed against the baseline " + baseline + ".";
+            if (failOnRegression)
+                throw new MojoFailureException(message);
+            getLog().warn(message);
+        }
+    }
+
+    /**
+     * Check the current timings against the configured budgets, logging every violation.
+     * 
+     * @param current
+     *            A {@link SummaryTable} holding the summaries of the current timings.
+     * @return The number of limits that were exceeded.
+     * @throws MojoExecutionException
+     *             If any of the budgets is invalid.
+     */
+    private int checkBudgets(SummaryTable current) throws MojoExecutionException {
+        if (budgets == null || budgets.length == 0)
+            return 0;
+
+        final BudgetMatcher matcher;
+        try {
+            matcher = new BudgetMatcher(Arrays.asList(budgets));
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        final List<BudgetViolation> violations = matcher.check(current);
+        getLog().info("Checked " + current.size() + " measurements against " + budgets.length + " budgets.");
+        if (violations.isEmpty())
+            return 0;
+
+        final DecimalFormat format = new DecimalFormat("0.00");
+        final TextTable table = new TextTable("Measurement", "Budget", "Metric", "Limit (ms)", "Actual (ms)");
+        for (BudgetViolation violation : violations)
+            table.addRow(violation.getName(), violation.getBudget().getName(), violation.getMetric().getDisplayName(), format.format(violation.getLimit()), format.format(violation.getActual()));
+        for (String line : table.format())
+            getLog().error(line);
+        return violations.size();
+    }
+
+    /**
+     * Replace the baseline with a snapshot of the current timings.
+     * 
+     * @param current
+     *            A {@link SummaryTable} holding the summaries of the current timings.
+     * @return 0, as nothing is checked against the baseline while it is replaced.
+     * @throws MojoExecutionException
+     *             If the baseline cannot be written.
+     */
+    private int updateBaseline(SummaryTable current) throws MojoExecutionException {
+        try {
+            new TimingFileWriter().write(baseline, current.toSummaries());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write baseline: " + baseline, e);
+        }
+        getLog().info("Wrote the baseline of " + current.size() + " measurements to " + baseline);
+        return 0;
+    }
+
+    /**
+     * Check the current timings against the baseline, logging every regression.
+     * 
+     * @param current
+     *            A {@link SummaryTable} holding the summaries of the current timings.
+     * @return The number of figures that regressed.
+     * @throws MojoExecutionException
+     *             If the thresholds are invalid or the baseline cannot be read.
+     */
+    private int checkBaseline(SummaryTable current) throws MojoExecutionException {
+        if (!baseline.isFile()) {
+            final String message = "There is no baseline against which to check the timings at " + baseline + "; run with -Djetm.updateBaseline=true to create one.";
+            if (budgets == null || budgets.length == 0)
+                getLog().warn(message);
+            else
+                getLog().info(message);
+            return 0;
+        }
+
+        final RegressionDetector detector = new RegressionDetector();
+        try {
+            detector.setThreshold(Metric.AVERAGE, new Threshold(maxAverageIncrease, maxAverageIncreaseMillis));
+            detector.setThreshold(Metric.MAXIMUM, new Threshold(maxMaximumIncrease, maxMaximumIncreaseMillis));
+            detector.setThreshold(Metric.TOTAL, new Threshold(maxTotalIncrease, maxTotalIncreaseMillis));
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        final List<Regression> regressions = detector.detect(loadBaseline(), current);
+        getLog().info("Checked " + (current.size() - detector.getUnmatched()) + " measurements against the baseline; " + detector.getUnmatched() + " measurements are not in the baseline.");
+        if (regressions.isEmpty())
+            return 0;
+
+        final DecimalFormat format = new DecimalFormat("0.00");
+        final TextTable table = new TextTable("Measurement", "Metric", "Baseline (ms)", "Current (ms)", "Increase");
+        for (Regression regression : regressions) {
+            final double increase = regression.getIncreasePercent();
+            table.addRow(regression.getName(), regression.getMetric().getDisplayName(), format.format(regression.getBaseline()), format.format(regression.getCurrent()), Double.isInfinite(increase) ? "-"
+                    : "+" + format.format(increase) + "%");
+        }
+        for (String line : table.format())
+            getLog().warn(line);
+        return regressions.size();
+    }
+
+    /**
+     * Load and summarize the current timings, exporting them if any export formats are configured.
+     * 
+     * @return A {@link SummaryTable} holding the summaries of the current timings.
+     * @throws MojoExecutionException
+     *             If the timings cannot be loaded.
+     */
+    private SummaryTable loadCurrent() throws MojoExecutionException {
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        AggregateExport export = null;
+        try {
+            export = createExport("jetm-check");
+            createTimingSource().stream(summarizer, export);
+            if (export != null)
+                finishExport(export, summarizer.getSummaries());
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            if (export != null)
+                export.closeQuietly();
+        }
+        return summarizer.getTable();
+    }
+
+    /**
+     * Load and summarize the baseline.
+     * 
+     * @return A {@link SummaryTable} holding the summaries of the baseline.
+     * @throws MojoExecutionException
+     *             If the baseline cannot be loaded.
+     */
+    private SummaryTable loadBaseline() throws MojoExecutionException {
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        try {
+            new TimingFileLoader(BASELINE_CHARSET, 1).stream(Collections.singletonList(baseline), summarizer);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to read baseline: " + baseline, e);
+        }
+        return summarizer.getTable();
+    }
+}
@@ -0,0 +1,147 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import com.google.code.jetm.maven.data.ValueDistribution;
+import com.google.code.jetm.maven.util.TimingGenerator;
+
+/**
+ * A mojo used to generate synthetic timing files, so that the timing report and the other goals can be measured against timings at the scale of a production build. The generated files are
+ * written in the same formats as are read by the other goals, and the same configuration always generates the same files.
+ * 
+ * @author jrh3k5
+ * @goal generate
+ * @threadSafe
+ */
+
+public class TimingGenerateMojo extends AbstractMojo {
+    /**
+     * The directory to which the timing files are written. Point the <code>timings</code> of the other goals at this directory to read the generated files.
+     * 
+     * @parameter expression="${jetm.generate.outputDirectory}" default-value="${project.build.directory}/jetm-synthetic"
+     * @required
+     */
+    private File outputDirectory;
+
+    /**
+     * The number of timing files to be written.
+     * 
+     * @parameter expression="${jetm.generate.files}" default-value="100"
+     */
+    private int files;
+
+    /**
+     * The number of timing files written to each subdirectory of the output directory. If 0, all of the files are written to the output directory itself.
+     * 
+     * @parameter expression="${jetm.generate.filesPerDirectory}" default-value="0"
+     */
+    private int filesPerDirectory;
+
+    /**
+     * The extension of each timing file, which determines its format and compression (e.g., <code>.xml</code>, <code>.xml.gz</code> or <code>.jetm</code>).
+     * 
+     * @parameter expression="${jetm.generate.extension}" default-value=".xml"
+     * @required
+     */
+    private String extension;
+
+    /**
+     * The number of distinct top-level measurement names in each timing file.
+     * 
+     * @parameter expression="${jetm.generate.namesPerFile}" default-value="10"
+     */
+    private int namesPerFile;
+
+    /**
+     * The number of distinct top-level measurement names across all of the timing files, from which the names of each file are drawn.
+     * 
+     * @parameter expression="${jetm.generate.nameCardinality}" default-value="100"
+     */
+    private int nameCardinality;
+
+    /**
+     * The number of levels of measurements; 1 generates no nested measurements.
+     * 
+     * @parameter expression="${jetm.generate.depth}" default-value="1"
+     */
+    private int depth;
+
+    /**
+     * The number of measurements nested within each measurement that is not at the deepest level.
+     * 
+     * @parameter expression="${jetm.generate.childrenPerLevel}" default-value="2"
+     */
+    private int childrenPerLevel;
+
+    /**
+     * The distribution from which the times of each measurement are drawn. Supported values are:
+     * <ul>
+     * <li>CONSTANT: every time is the mean</li>
+     * <li>UNIFORM: times are spread evenly between 0 and twice the mean</li>
+     * <li>EXPONENTIAL: most times are short, with a long tail</li>
+     * <li>LOG_NORMAL: times are log-normally distributed, which resembles most real-world latencies</li>
+     * </ul>
+     * 
+     * @parameter expression="${jetm.generate.distribution}" default-value="LOG_NORMAL"
+     * @required
+     */
+    private String distribution;
+
+    /**
+     * The mean time, in milliseconds, of a top-level measurement. Nested measurements have a proportionally smaller mean.
+     * 
+     * @parameter expression="${jetm.generate.meanTime}" default-value="10"
+     */
+    private double meanTime;
+
+    /**
+     * The maximum number of times each measurement was taken in a timing file; the number of each is drawn evenly between 1 and this.
+     * 
+     * @parameter expression="${jetm.generate.maxMeasurements}" default-value="100"
+     */
+    private int maxMeasurements;
+
+    /**
+     * The seed from which the contents of every timing file are derived.
+     * 
+     * @parameter expression="${jetm.generate.seed}" default-value="0"
+     */
+    private long seed;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute() throws MojoExecutionException {
+        if (files < 0)
+            throw new MojoExecutionException("The number of files cannot be negative: " + files);
+
+        if (filesPerDirectory < 0)
+            throw new MojoExecutionException("The number of files per directory cannot be negative: " + filesPerDirectory);
+
+        final TimingGenerator generator = new TimingGenerator();
+        final List<File> written;
+        try {
+            generator.setNamesPerFile(namesPerFile);
+            generator.setNameCardinality(nameCardinality);
+            generator.setDepth(depth, childrenPerLevel);
+            generator.setDistribution(ValueDistribution.fromMojoValue(distribution), meanTime);
+            generator.setMaxMeasurements(maxMeasurements);
+            generator.setSeed(seed);
+
+            written = generator.write(outputDirectory, files, filesPerDirectory, extension);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write synthetic timing files to " + outputDirectory + ": " + e.getMessage(), e);
+        }
+
+        getLog().info("Wrote " + written.size() + " synthetic timing files to " + outputDirectory);
+    }
+}
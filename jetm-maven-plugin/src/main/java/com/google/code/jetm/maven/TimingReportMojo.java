@@ -1,77 +1,159 @@
 package com.google.code.jetm.maven;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.io.IOException;
 import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Date;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.apache.maven.doxia.module.xhtml.XhtmlSinkFactory;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.siterenderer.Renderer;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.reporting.AbstractMavenReport;
+import org.apache.maven.reporting.MavenReport;
 import org.apache.maven.reporting.MavenReportException;
 import org.codehaus.plexus.util.StringUtils;
 
+import com.google.code.jetm.maven.data.AggregateSummarizer;
 import com.google.code.jetm.maven.data.AggregateSummary;
+import com.google.code.jetm.maven.data.BreakdownLayout;
+import com.google.code.jetm.maven.data.Hotspot;
+import com.google.code.jetm.maven.data.HotspotSelector;
+import com.google.code.jetm.maven.data.HistoryPoint;
+import com.google.code.jetm.maven.data.Metric;
+import com.google.code.jetm.maven.data.RegressionDetector;
 import com.google.code.jetm.maven.data.TimeUnit;
 import com.google.code.jetm.maven.util.AggregateComparator;
-import com.google.code.jetm.maven.util.XmlIOFileFilter;
-import com.google.code.jetm.reporting.AggregateBinder;
+import com.google.code.jetm.maven.util.AggregateExport;
+import com.google.code.jetm.maven.util.AggregateSpill;
+import com.google.code.jetm.maven.util.AggregateVisitor;
+import com.google.code.jetm.maven.util.BinaryAggregateWriter;
+import com.google.code.jetm.maven.util.HistoryStore;
+import com.google.code.jetm.maven.util.PipelineMonitor;
+import com.google.code.jetm.maven.util.Sparkline;
+import com.google.code.jetm.maven.util.SummaryTableRenderer;
+import com.google.code.jetm.maven.util.TimingFileVisitor;
 import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
 
 import etm.core.aggregation.Aggregate;
+import etm.core.monitor.EtmPoint;
 
 /**
  * A mojo used to create a report that displays the collective JETM timings that
- * were collected and rendered using an {@link XmlAggregateBinder}.
+ * were collected and rendered using an {@link XmlAggregateBinder} or a
+ * {@link BinaryAggregateWriter}.
+ * <p />
+ * It is rendered by a {@link SiteReport}, so that it shares the parameters of
+ * every other goal that reads timing files while still being rendered as any
+ * other site report is.
  * 
  * @author jrh3k5
  * @goal timing-report
  * @phase site
+ * @threadSafe
  */
 
-public class TimingReportMojo extends AbstractMavenReport {
+public class TimingReportMojo extends AbstractTimingMojo implements MavenReport {
     /**
-     * The directories containing the timing report XML files. If not set, then a default of "${project.build.directory}/jetm" will be used instead.
+     * The phase of the report in which the timing files are read and summarized; the rates at which the timing files are read are measured against it.
+     */
+    private static final String READ_PHASE = "read";
+
+    /**
+     * The unit of time in which the report is to express its recorded timings. Supported values are:
+     * <ul>
+     * <li>SECS: the report will display times in seconds</li>
+     * <li>MILLIS: the report will display times in milliseconds</li>
+     * </ul>
+     * 
+     * @parameter default-value="SECS"
+     * @required
+     */
+    private String timeUnit;
+
+    /**
+     * Whether the report is to include a breakdown of the measurements of each timing file. The breakdown is spilled to a temporary file in the build directory while the files are read, so
+     * it is not held in memory. Without it, the contents of each file are folded into the summary as soon as they are read and then discarded.
      * 
-     * @parameter
+     * @parameter expression="${jetm.fileBreakdown}" default-value="true"
      */
-    private File[] timings;
+    private boolean fileBreakdown;
 
     /**
-     * The encoding by which the XML files will be read. If not specified, this defaults to platform encoding.
+     * The number of measurement names to be listed in the "Hotspots" section of the report, which ranks the summarized measurements, including nested ones, by their total, average and maximum
+     * time; set this to 0 to omit the section.
      * 
-     * @parameter default-value="${project.build.sourceEncoding}"
+     * @parameter expression="${jetm.hotspots}" default-value="10"
+     */
+    private int hotspots;
+
+    /**
+     * Whether the summaries of this build are to be appended to the timing history, and the report is to include the trend of each measurement across the most recent builds in the history.
+     * 
+     * @parameter expression="${jetm.history}" default-value="false"
+     */
+    private boolean history;
+
+    /**
+     * The directory in which the timing history is kept. It is outside of the build directory by default, so that it survives <code>mvn clean</code>.
+     * 
+     * @parameter expression="${jetm.historyDirectory}" default-value="${basedir}/.jetm-history"
      * @required
      */
-    private String inputEncoding;
+    private File historyDirectory;
 
     /**
-     * The unit of time in which the report is to express its recorded timings. Supported values are:
+     * The number of most recent builds, including this one, whose timings are shown in the trend of each measurement.
+     * 
+     * @parameter expression="${jetm.historyBuilds}" default-value="20"
+     */
+    private int historyBuilds;
+
+    /**
+     * The identifier under which this build is recorded in the timing history (e.g., a CI build number). If not set, the time at which the build is recorded is used. A build whose identifier is
+     * already recorded is not recorded again.
+     * 
+     * @parameter expression="${jetm.buildId}"
+     */
+    private String buildId;
+
+    /**
+     * Whether the report is to include a section of statistics on its own generation: the time spent in each of its phases (searching for, reading and summarizing the timing files, and so on), the
+     * rate at which the timing files were read, the number of distinct measurement names and the largest heap usage sampled between the phases. These statistics are always written to the build log.
+     * 
+     * @parameter expression="${jetm.reportStatistics}" default-value="false"
+     */
+    private boolean reportStatistics;
+
+    /**
+     * How the file breakdown is laid out. Supported values are:
      * <ul>
-     * <li>SECS: the report will display times in seconds</li>
-     * <li>MILLIS: the report will display times in milliseconds</li>
+     * <li>INLINE: the breakdown of every file is included in the report page</li>
+     * <li>FILE: the breakdown of each file is written to a page of its own, and the report page links to each of them</li>
+     * <li>DIRECTORY: the breakdowns of the files within each directory are written to a page of their own, and the report page links to each of them</li>
      * </ul>
+     * The separate pages are plain XHTML pages, written in parallel, which keeps the report page small when there are many timing files.
      * 
-     * @parameter default-value="SECS"
+     * @parameter expression="${jetm.breakdownLayout}" default-value="INLINE"
      * @required
      */
-    private String timeUnit;
+    private String breakdownLayout;
 
     /**
      * Directory where reports will go.
@@ -96,24 +178,65 @@ public class TimingReportMojo extends AbstractMavenReport {
      */
     private Renderer siteRenderer;
 
+    private final SiteReport siteReport = new SiteReport();
+
+    private TimingSource timingSource;
+
     /**
-     * The build directory for the Maven project.
-     * 
-     * @parameter default-value="${project.build.directory}"
-     * @required
-     * @readonly
+     * {@inheritDoc}
      */
-    private File buildDirectory;
+    public void execute() throws MojoExecutionException {
+        siteReport.execute();
+    }
 
-    private final AggregateBinder binder = new XmlAggregateBinder();
+    /**
+     * {@inheritDoc}
+     */
+    public void generate(org.codehaus.doxia.sink.Sink sink, Locale locale) throws MavenReportException {
+        siteReport.generate(sink, locale);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getCategoryName() {
+        return siteReport.getCategoryName();
+    }
 
-    private DecimalFormat decimalFormatter = new DecimalFormat("0.00");
+    /**
+     * {@inheritDoc}
+     */
+    public File getReportOutputDirectory() {
+        return siteReport.getReportOutputDirectory();
+    }
 
-    private final XmlIOFileFilter xmlFileFilter = new XmlIOFileFilter();
+    /**
+     * {@inheritDoc}
+     */
+    public void setReportOutputDirectory(File reportOutputDirectory) {
+        siteReport.setReportOutputDirectory(reportOutputDirectory);
+    }
 
-    @Override
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isExternalReport() {
+        return siteReport.isExternalReport();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
     public boolean canGenerateReport() {
-        return !getTimingFiles().isEmpty();
+        try {
+            return getTimingSource().hasTimingFiles();
+        } catch (IllegalArgumentException e) {
+            getLog().warn("Failed to search for timing files: " + e.getMessage());
+            return false;
+        } catch (IOException e) {
+            getLog().warn("Failed to search for timing files: " + e.getMessage(), e);
+            return false;
+        }
     }
 
     /**
@@ -138,11 +261,127 @@ public class TimingReportMojo extends AbstractMavenReport {
     }
 
     /**
-     * {@inheritDoc}
+     * Render the report to the sink of the site report.
+     * 
+     * @param locale
+     *            The {@link Locale} in which the report is to be rendered.
+     * @throws MavenReportException
+     *             If the report cannot be generated.
      */
     protected void executeReport(Locale locale) throws MavenReportException {
-        final Map<File, List<Aggregate>> aggregates = getAggregates();
-        final List<AggregateSummary> summaries = aggregate(aggregates);
+        final BreakdownLayout layout;
+        try {
+            layout = BreakdownLayout.fromMojoValue(breakdownLayout);
+        } catch (IllegalArgumentException e) {
+            throw new MavenReportException(e.getMessage());
+        }
+
+        if (hotspots < 0)
+            throw new MavenReportException("The number of hotspots cannot be negative: " + hotspots);
+
+        if (history && historyBuilds < 1)
+            throw new MavenReportException("At least one build must be shown in the trends: " + historyBuilds);
+
+        final PipelineMonitor monitor = new PipelineMonitor();
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        AggregateSpill breakdown = null;
+        AggregateExport export = null;
+        try {
+            breakdown = fileBreakdown ? createSpill() : null;
+            try {
+                export = createExport(getOutputName());
+            } catch (IllegalArgumentException e) {
+                throw new MavenReportException(e.getMessage());
+            } catch (IOException e) {
+                throw new MavenReportException(e.getMessage(), e);
+            }
+
+            EtmPoint point = monitor.start("scan");
+            try {
+                monitor.setFiles(getTimingSource().getTimingFiles());
+            } catch (IllegalArgumentException e) {
+                throw new MavenReportException(e.getMessage());
+            } catch (IOException e) {
+                throw new MavenReportException(e.getMessage(), e);
+            } finally {
+                point.collect();
+            }
+
+            point = monitor.start(READ_PHASE);
+            try {
+                readAggregates(summarizer, breakdown, export);
+            } finally {
+                point.collect();
+            }
+
+            final List<AggregateSummary> summaries;
+            point = monitor.start("summarize");
+            try {
+                summaries = summarizer.getSummaries();
+            } finally {
+                point.collect();
+            }
+            monitor.setDistinctNames(countNames(summaries));
+
+            if (export != null) {
+                point = monitor.start("export");
+                try {
+                    finishExport(export, summaries);
+                } catch (IOException e) {
+                    throw new MavenReportException(e.getMessage(), e);
+                } finally {
+                    point.collect();
+                }
+            }
+
+            Map<String, List<HistoryPoint>> trends = null;
+            if (history) {
+                point = monitor.start("history");
+                try {
+                    trends = recordHistory(summaries);
+                } finally {
+                    point.collect();
+                }
+            }
+
+            point = monitor.start("render");
+            try {
+                render(locale, summaries, trends, reportStatistics ? monitor : null, breakdown, layout);
+            } finally {
+                point.collect();
+            }
+
+            logStatistics(monitor);
+        } finally {
+            if (export != null)
+                export.closeQuietly();
+            if (breakdown != null)
+                breakdown.close();
+            monitor.stop();
+        }
+    }
+
+    /**
+     * Render the report.
+     * 
+     * @param locale
+     *            The {@link Locale} in which the report is to be rendered.
+     * @param summaries
+     *            A {@link List} of {@link AggregateSummary} objects representing the summaries of all of the timings.
+     * @param trends
+     *            A {@link Map} of the path of each measurement to a {@link List} of {@link HistoryPoint} objects representing its history, to be rendered after the hotspots; {@code null} if the
+     *            history is disabled.
+     * @param statistics
+     *            The {@link PipelineMonitor} of the generation of this report, whose statistics are to be rendered at the end of the report; {@code null} if they are not to be rendered.
+     * @param breakdown
+     *            An {@link AggregateSpill} holding the contents of each timing file, to be rendered after the summary; {@code null} if the file breakdown is disabled.
+     * @param layout
+     *            The {@link BreakdownLayout} of the file breakdown.
+     * @throws MavenReportException
+     *             If the file breakdown cannot be read or written.
+     */
+    private void render(Locale locale, List<AggregateSummary> summaries, Map<String, List<HistoryPoint>> trends, PipelineMonitor statistics,
+            AggregateSpill breakdown, BreakdownLayout layout) throws MavenReportException {
         Collections.sort(summaries);
     
         final Sink sink = getSink();
@@ -167,23 +406,73 @@ public class TimingReportMojo extends AbstractMavenReport {
             sink.text("Summary");
             sink.sectionTitle2_();
     
-            sink.text("This is a summary, by measurement name, of the measurements taken.");
+            sink.text("This is a summary, by measurement name, of the measurements taken. Measurements nested within another measurement are listed, indented, beneath it.");
     
             print(sink, summaries);
     
-            sink.sectionTitle2();
-            sink.text("File Breakdown");
-            sink.sectionTitle2_();
+            if (hotspots > 0) {
+                sink.sectionTitle2();
+                sink.text("Hotspots");
+                sink.sectionTitle2_();
     
-            sink.text("This is a list of, per XML file, the measurements taken.");
+                sink.text("These are the measurement names, including nested ones, that cost the most time, with each one's share of the total time measured.");
     
-            for (Entry<File, List<Aggregate>> entry : aggregates.entrySet()) {
-                sink.sectionTitle3();
-                sink.text(entry.getKey().getName());
-                sink.sectionTitle3_();
+                final HotspotSelector selector = new HotspotSelector(hotspots);
+                final double measuredTotal = getMeasuredTotal(summaries);
+                for (Metric metric : new Metric[] { Metric.TOTAL, Metric.AVERAGE, Metric.MAXIMUM }) {
+                    sink.sectionTitle3();
+                    sink.text("By " + StringUtils.capitalizeFirstLetter(metric.getDisplayName()));
+                    sink.sectionTitle3_();
     
-                print(sink, entry.getValue());
+                    printHotspots(sink, selector.select(summaries, metric), metric, measuredTotal);
+                }
             }
+    
+            if (trends != null) {
+                sink.sectionTitle2();
+                sink.text("Trends");
+                sink.sectionTitle2_();
+    
+                sink.text("This is the average time of each measurement over the last " + historyBuilds + " builds recorded in the timing history, from the oldest build to this one.");
+    
+                printTrends(sink, trends);
+            }
+    
+            if (breakdown != null) {
+                sink.sectionTitle2();
+                sink.text("File Breakdown");
+                sink.sectionTitle2_();
+    
+                if (layout.isPaged()) {
+                    sink.text("These are the pages listing, per timing file, the measurements taken.");
+    
+                    printBreakdownIndex(sink, writeBreakdownPages(locale, breakdown, layout));
+                } else {
+                    sink.text("This is a list of, per timing file, the measurements taken.");
+    
+                    breakdown.replay(new TimingFileVisitor() {
+                        public void visit(File file, List<Aggregate> aggregates) {
+                            sink.sectionTitle3();
+                            sink.text(file.getName());
+                            sink.sectionTitle3_();
+    
+                            print(sink, aggregates);
+                        }
+                    });
+                }
+            }
+    
+            if (statistics != null) {
+                sink.sectionTitle2();
+                sink.text("Report generation statistics");
+                sink.sectionTitle2_();
+    
+                sink.text("These are the figures of the generation of this report, up to the rendering of this page.");
+    
+                printStatistics(sink, statistics);
+            }
+        } catch (IOException e) {
+            throw new MavenReportException("Failed to read the file breakdown: " + e.getMessage(), e);
         } finally {
             sink.body_();
     
@@ -193,176 +482,443 @@ public class TimingReportMojo extends AbstractMavenReport {
     }
 
     /**
-     * {@inheritDoc}
+     * Append the summaries of this build to the timing history, and read back the recent history of each measurement.
+     * 
+     * @param summaries
+     *            A {@link List} of {@link AggregateSummary} objects representing the summaries of this build.
+     * @return A {@link Map} of the path of each summarized measurement, including nested ones, to a {@link List} of {@link HistoryPoint} objects representing its history across the most recent
+     *         builds; the paths are ordered as the measurements are listed in the summary.
+     * @throws MavenReportException
+     *             If the history cannot be written or read.
      */
-    protected String getOutputDirectory() {
-        return outputDirectory;
+    private Map<String, List<HistoryPoint>> recordHistory(List<AggregateSummary> summaries) throws MavenReportException {
+        final long timestamp = System.currentTimeMillis();
+        final String id = buildId == null ? new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(timestamp)) : buildId;
+        final HistoryStore store = new HistoryStore(historyDirectory);
+        final Map<String, List<HistoryPoint>> trends = new LinkedHashMap<String, List<HistoryPoint>>();
+        try {
+            if (!store.append(id, timestamp, summaries))
+                getLog().warn("Build " + id + " is already recorded in the timing history; its timings are not recorded again.");
+            readHistory(store, null, summaries, trends);
+        } catch (IOException e) {
+            throw new MavenReportException("Failed to update the timing history in " + historyDirectory + ": " + e.getMessage(), e);
+        }
+        return trends;
     }
 
     /**
-     * {@inheritDoc}
+     * Read the recent history of measurements, each followed by the history of the measurements nested within it.
+     * 
+     * @param store
+     *            The {@link HistoryStore} from which the history is to be read.
+     * @param parent
+     *            The path of the measurement enclosing the given aggregates; {@code null} if they are not nested.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects representing the measurements whose history is to be read.
+     * @param trends
+     *            A {@link Map} to which the history of each measurement is to be added, by path.
+     * @throws IOException
+     *             If the history cannot be read.
      */
-    protected MavenProject getProject() {
-        return project;
+    @SuppressWarnings("unchecked")
+    private void readHistory(HistoryStore store, String parent, Collection<? extends Aggregate> aggregates, Map<String, List<HistoryPoint>> trends) throws IOException {
+        final List<Aggregate> sortedAggregates = new ArrayList<Aggregate>(aggregates);
+        Collections.sort(sortedAggregates, new AggregateComparator());
+        for (Aggregate aggregate : sortedAggregates) {
+            final String path = parent == null ? aggregate.getName() : parent + RegressionDetector.PATH_SEPARATOR + aggregate.getName();
+            trends.put(path, store.getHistory(path, historyBuilds));
+            if (aggregate.hasChilds())
+                readHistory(store, path, (Collection<Aggregate>) aggregate.getChilds().values(), trends);
+        }
     }
 
     /**
-     * {@inheritDoc}
+     * Print a table of the trends of measurements.
+     * 
+     * @param sink
+     *            The {@link Sink} used to render out the table.
+     * @param trends
+     *            A {@link Map} of the path of each measurement to a {@link List} of {@link HistoryPoint} objects representing its history.
      */
-    protected Renderer getSiteRenderer() {
-        return siteRenderer;
+    private void printTrends(Sink sink, Map<String, List<HistoryPoint>> trends) {
+        final TimeUnit timeUnit = getTimeUnit();
+        final DecimalFormat decimalFormatter = new DecimalFormat("0.00");
+
+        sink.table();
+        sink.tableRows(null, false);
+        sink.tableRow();
+        tableHeaderCell(sink, "Name");
+        tableHeaderCell(sink, "Trend");
+        tableHeaderCell(sink, "Builds");
+        tableHeaderCell(sink, "Average (" + timeUnit.getDisplayName() + ")");
+        tableHeaderCell(sink, "Change (%)");
+        sink.tableRow_();
+        for (Entry<String, List<HistoryPoint>> trend : trends.entrySet()) {
+            final List<HistoryPoint> points = trend.getValue();
+            if (points.isEmpty())
+                continue;
+
+            final double[] averages = new double[points.size()];
+            for (int i = 0; i < averages.length; i++)
+                averages[i] = points.get(i).getAverage();
+            final double first = averages[0];
+            final double latest = averages[averages.length - 1];
+
+            sink.tableRow();
+            tableCell(sink, trend.getKey());
+            tableCell(sink, Sparkline.render(averages));
+            tableCell(sink, Integer.toString(points.size()));
+            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(latest)));
+            tableCell(sink, first > 0 ? decimalFormatter.format((latest - first) * 100 / first) : "-");
+            sink.tableRow_();
+        }
+        sink.tableRows_();
+        sink.table_();
     }
 
     /**
-     * Create aggregate summaries.
+     * Count the distinct measurement names.
      * 
      * @param aggregates
-     *            A {@link Map} containing the aggregate data to be summarized.
-     * @return A {@link List} of {@link AggregateSummary} objects representing
-     *         the entirety of aggregate data, summarized by name.
-     * @see #getAggregates()
-     */
-    private List<AggregateSummary> aggregate(Map<File, List<Aggregate>> aggregates) {
-        if (aggregates.isEmpty())
-            return Collections.emptyList();
-    
-        final Map<String, AggregateSummary> summaries = new HashMap<String, AggregateSummary>();
-        for (List<Aggregate> aggregateList : aggregates.values())
-            for (Aggregate aggregate : aggregateList) {
-                final String name = aggregate.getName();
-                if (!summaries.containsKey(name))
-                    summaries.put(name, new AggregateSummary(name));
-    
-                final AggregateSummary summary = summaries.get(name);
-                summary.add(aggregate);
-            }
-    
-        final List<AggregateSummary> summaryList = new ArrayList<AggregateSummary>(summaries.size());
-        for (AggregateSummary summary : summaries.values())
-            summaryList.add(summary);
-    
-        return summaryList;
+     *            A {@link Collection} of {@link Aggregate} objects representing summaries by name.
+     * @return The number of the given summaries and of the summaries nested within them.
+     */
+    @SuppressWarnings("unchecked")
+    private int countNames(Collection<? extends Aggregate> aggregates) {
+        int count = aggregates.size();
+        for (Aggregate aggregate : aggregates)
+            if (aggregate.hasChilds())
+                count += countNames((Collection<Aggregate>) aggregate.getChilds().values());
+        return count;
     }
 
     /**
-     * Get aggregates.
+     * Write the statistics of the generation of this report to the build log.
      * 
-     * @return A {@link Map}. Its keys are the files that contain aggregate
-     *         data; the values are {@link List}s of {@link Aggregate} objects
-     *         representing the timings read within each file.
-     *         <p />
-     *         If a file contains no timing data, it will not be returned in
-     *         this map.
-     * @throws MavenReportException
-     *             If any errors occur while reading the file.
+     * @param monitor
+     *            The {@link PipelineMonitor} of the generation of this report.
      */
-    private Map<File, List<Aggregate>> getAggregates() throws MavenReportException {
-        final Map<File, List<Aggregate>> aggregates = new LinkedHashMap<File, List<Aggregate>>();
-        for (File file : getTimingFiles()) {
-            final List<Aggregate> aggregateList = new LinkedList<Aggregate>();
-            InputStreamReader reader;
-            try {
-                reader = new InputStreamReader(new FileInputStream(file), getInputCharset());
-            } catch (FileNotFoundException e) {
-                throw new MavenReportException("File not found: " + file, e);
-            }
-            try {
-                final Collection<Aggregate> unbound = binder.unbind(reader);
-                if (unbound.isEmpty())
-                    continue;
-                aggregateList.addAll(unbound);
-            } finally {
-                IOUtils.closeQuietly(reader);
-            }
-            aggregates.put(file, aggregateList);
+    private void logStatistics(PipelineMonitor monitor) {
+        final double readTime = monitor.getPhaseTime(READ_PHASE);
+        getLog().info(
+                String.format("Read %d timing files (%s) in %.0f ms: %.1f files/s, %s/s; %d distinct names; max heap sampled %s", monitor.getFiles(), FileUtils.byteCountToDisplaySize(monitor.getBytes()),
+                        readTime, PipelineMonitor.perSecond(monitor.getFiles(), readTime), FileUtils.byteCountToDisplaySize((long) PipelineMonitor.perSecond(monitor.getBytes(), readTime)),
+                        monitor.getDistinctNames(), FileUtils.byteCountToDisplaySize(monitor.getMaxSampledHeap())));
+
+        final StringBuilder phases = new StringBuilder("Report phases:");
+        for (Aggregate phase : monitor.getPhases())
+            phases.append(String.format(" %s %.0f ms;", phase.getName(), phase.getTotal()));
+        getLog().info(phases.append(String.format(" %d ms in total", monitor.getElapsedTime())));
+    }
+
+    /**
+     * Print the statistics of the generation of this report.
+     * 
+     * @param sink
+     *            The {@link Sink} used to render out the statistics.
+     * @param monitor
+     *            The {@link PipelineMonitor} of the generation of this report.
+     */
+    private void printStatistics(Sink sink, PipelineMonitor monitor) {
+        final DecimalFormat decimalFormatter = new DecimalFormat("0.00");
+
+        sink.table();
+        sink.tableRows(null, false);
+        sink.tableRow();
+        tableHeaderCell(sink, "Phase");
+        tableHeaderCell(sink, "Time (ms)");
+        sink.tableRow_();
+        for (Aggregate phase : monitor.getPhases()) {
+            sink.tableRow();
+            tableCell(sink, phase.getName());
+            tableCell(sink, decimalFormatter.format(phase.getTotal()));
+            sink.tableRow_();
         }
-        return aggregates;
+        sink.tableRows_();
+        sink.table_();
+
+        final double readTime = monitor.getPhaseTime(READ_PHASE);
+        sink.table();
+        sink.tableRows(null, false);
+        sink.tableRow();
+        tableHeaderCell(sink, "Statistic");
+        tableHeaderCell(sink, "Value");
+        sink.tableRow_();
+        statisticRow(sink, "Timing Files", Integer.toString(monitor.getFiles()));
+        statisticRow(sink, "Size of Timing Files", FileUtils.byteCountToDisplaySize(monitor.getBytes()));
+        statisticRow(sink, "Files Read per Second", decimalFormatter.format(PipelineMonitor.perSecond(monitor.getFiles(), readTime)));
+        statisticRow(sink, "Bytes Read per Second", FileUtils.byteCountToDisplaySize((long) PipelineMonitor.perSecond(monitor.getBytes(), readTime)));
+        statisticRow(sink, "Distinct Names", Integer.toString(monitor.getDistinctNames()));
+        statisticRow(sink, "Max Heap Sampled Between Phases", FileUtils.byteCountToDisplaySize(monitor.getMaxSampledHeap()));
+        sink.tableRows_();
+        sink.table_();
     }
 
     /**
-     * Get the file encoding to be used to read the XML files.
+     * Print a row of a statistic.
      * 
-     * @return A {@link Charset} representing the configured character set.
+     * @param sink
+     *            The {@link Sink} used to render out the row.
+     * @param name
+     *            The name of the statistic.
+     * @param value
+     *            The value of the statistic.
      */
-    private Charset getInputCharset() {
-        return StringUtils.isBlank(inputEncoding) ? Charset.defaultCharset() : Charset.forName(inputEncoding);
+    private void statisticRow(Sink sink, String name, String value) {
+        sink.tableRow();
+        tableCell(sink, name);
+        tableCell(sink, value);
+        sink.tableRow_();
     }
 
     /**
-     * Get the time unit to be used when rendering the report.
+     * Get the total time measured.
      * 
-     * @return A {@link TimeUnit} enum corresponding to the configured time unit.
+     * @param summaries
+     *            A {@link Collection} of {@link AggregateSummary} objects representing the summarized measurements.
+     * @return The sum, in milliseconds, of the totals of the given summaries; the measurements nested within them are not added again, as their time is already part of the total of the
+     *         measurement enclosing them.
      */
-    private TimeUnit getTimeUnit() {
-        return TimeUnit.fromMojoAbbreviation(timeUnit);
+    private double getMeasuredTotal(Collection<AggregateSummary> summaries) {
+        double total = 0;
+        for (AggregateSummary summary : summaries)
+            total += summary.getTotal();
+        return total;
     }
 
     /**
-     * Get the timings directories.
+     * Print a table of hotspots.
      * 
-     * @return An array of {@link File} objects representing the configured timing directories; if none are configured, then "${project.build.directory}/jetm" will be used as a default.
+     * @param sink
+     *            The {@link Sink} used to render out the table.
+     * @param selected
+     *            A {@link List} of {@link Hotspot} objects representing the hotspots, in order of rank.
+     * @param metric
+     *            The {@link Metric} by which the hotspots were ranked.
+     * @param measuredTotal
+     *            The total time, in milliseconds, measured across all top-level summaries.
      */
-    private File[] getTimingDirectories() {
-        return timings == null ? new File[] { new File(buildDirectory, "jetm") } : timings;
+    private void printHotspots(Sink sink, List<Hotspot> selected, Metric metric, double measuredTotal) {
+        final TimeUnit timeUnit = getTimeUnit();
+        final DecimalFormat decimalFormatter = new DecimalFormat("0.00");
+
+        sink.table();
+        sink.tableRows(null, false);
+        sink.tableRow();
+        tableHeaderCell(sink, "Rank");
+        tableHeaderCell(sink, "Name");
+        tableHeaderCell(sink, StringUtils.capitalizeFirstLetter(metric.getDisplayName()) + " (" + timeUnit.getDisplayName() + ")");
+        tableHeaderCell(sink, "Share of Total Time (%)");
+        sink.tableRow_();
+        for (int i = 0; i < selected.size(); i++) {
+            final Hotspot hotspot = selected.get(i);
+            final Aggregate summary = hotspot.getAggregate();
+            sink.tableRow();
+            tableCell(sink, Integer.toString(i + 1));
+            tableCell(sink, hotspot.getName());
+            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(metric.valueOf(summary))));
+            tableCell(sink, decimalFormatter.format(measuredTotal > 0 ? summary.getTotal() * 100 / measuredTotal : 0));
+            sink.tableRow_();
+        }
+        sink.tableRows_();
+        sink.table_();
     }
 
     /**
-     * Get all files available for reading as timings.
+     * Write the pages of the file breakdown, in parallel.
      * 
-     * @return A {@link List} of {@link File} objects representing the files to be read as timing data.
+     * @param locale
+     *            The {@link Locale} in which the pages are to be rendered.
+     * @param breakdown
+     *            An {@link AggregateSpill} holding the contents of each timing file.
+     * @param layout
+     *            The {@link BreakdownLayout} determining which timing files share a page.
+     * @return A {@link List} of {@link BreakdownPage} objects describing the pages that were written, in the order in which their timing files were found.
+     * @throws MavenReportException
+     *             If any of the pages cannot be written.
      */
-    private List<File> getTimingFiles() {
-        final List<File> timingFiles = new ArrayList<File>();
-        for (File timingDirectory : getTimingDirectories()) {
-            if (!timingDirectory.exists())
-                continue;
+    private List<BreakdownPage> writeBreakdownPages(Locale locale, AggregateSpill breakdown, BreakdownLayout layout) throws MavenReportException {
+        final Map<String, BreakdownPage> groups = new LinkedHashMap<String, BreakdownPage>();
+        for (int i = 0; i < breakdown.size(); i++) {
+            final File file = breakdown.getFile(i);
+            final String group = layout == BreakdownLayout.DIRECTORY ? getDisplayPath(file.getParentFile()) : getDisplayPath(file);
+            BreakdownPage page = groups.get(group);
+            if (page == null)
+                groups.put(group, page = new BreakdownPage(group, layout.getPagePrefix() + "-" + (groups.size() + 1) + ".html"));
+            page.indices.add(Integer.valueOf(i));
+        }
 
-            timingFiles.addAll(FileUtils.listFiles(timingDirectory, xmlFileFilter, TrueFileFilter.TRUE));
+        final File pageDirectory = new File(outputDirectory, getOutputName());
+        final int threads;
+        try {
+            FileUtils.forceMkdir(pageDirectory);
+            threads = getTimingSource().getLoaderThreads();
+        } catch (IllegalArgumentException e) {
+            throw new MavenReportException(e.getMessage());
+        } catch (IOException e) {
+            throw new MavenReportException("Failed to create the breakdown page directory: " + pageDirectory, e);
         }
 
-        return timingFiles;
+        final List<BreakdownPage> pages = new ArrayList<BreakdownPage>(groups.values());
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, pages.size())));
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>(pages.size());
+            for (BreakdownPage page : pages)
+                futures.add(executor.submit(new BreakdownPageWriter(locale, breakdown, pageDirectory, page)));
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MavenReportException("Interrupted while writing breakdown page: " + pages.get(i).fileName);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error)
+                        throw (Error) e.getCause();
+                    throw new MavenReportException("Failed to write breakdown page: " + pages.get(i).fileName, (Exception) e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return pages;
     }
 
     /**
-     * Print a table containing information within a given set of aggregates.
+     * Print a table linking to the pages of the file breakdown.
      * 
      * @param sink
      *            The {@link Sink} used to render out the table.
-     * @param aggregates
-     *            A {@link Collection} of {@link Aggregate} objects representing
-     *            the data to be written out.
+     * @param pages
+     *            A {@link List} of {@link BreakdownPage} objects describing the pages to be linked.
      */
-    private void print(Sink sink, Collection<? extends Aggregate> aggregates) {
-        final TimeUnit timeUnit = getTimeUnit();
-
+    private void printBreakdownIndex(Sink sink, List<BreakdownPage> pages) {
         sink.table();
         sink.tableRows(null, false);
         sink.tableRow();
-        tableHeaderCell(sink, "Name");
-        tableHeaderCell(sink, "Average (" + timeUnit.getDisplayName() + ")");
-        tableHeaderCell(sink, "Measurements");
-        tableHeaderCell(sink, "Minimum (" + timeUnit.getDisplayName() + ")");
-        tableHeaderCell(sink, "Maximum (" + timeUnit.getDisplayName() + ")");
-        tableHeaderCell(sink, "Total (" + timeUnit.getDisplayName() + ")");
+        tableHeaderCell(sink, "Page");
+        tableHeaderCell(sink, "Timing Files");
         sink.tableRow_();
-
-        final List<? extends Aggregate> sortedAggregates = new ArrayList<Aggregate>(aggregates);
-        Collections.sort(sortedAggregates, new AggregateComparator());
-
-        for (Aggregate aggregate : sortedAggregates) {
+        for (BreakdownPage page : pages) {
             sink.tableRow();
-            tableCell(sink, aggregate.getName());
-            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getTotal() / aggregate.getMeasurements())));
-            tableCell(sink, Long.toString(aggregate.getMeasurements()));
-            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getMin())));
-            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getMax())));
-            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getTotal())));
+            sink.tableCell();
+            sink.link(getOutputName() + "/" + page.fileName);
+            sink.text(page.name);
+            sink.link_();
+            sink.tableCell_();
+            tableCell(sink, Integer.toString(page.indices.size()));
             sink.tableRow_();
         }
         sink.tableRows_();
         sink.table_();
     }
 
+    /**
+     * Get the path by which a timing file or directory is displayed.
+     * 
+     * @param file
+     *            The {@link File} to be displayed.
+     * @return The path of the file relative to the base directory of the project, if it is within it; otherwise, its full path.
+     */
+    private String getDisplayPath(File file) {
+        final File basedir = project == null ? null : project.getBasedir();
+        final String path = file.getAbsolutePath();
+        if (basedir != null) {
+            final String base = basedir.getAbsolutePath() + File.separator;
+            if (path.startsWith(base))
+                return path.substring(base.length()).replace(File.separatorChar, '/');
+        }
+        return path.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Read the aggregates of every timing file.
+     * 
+     * @param visitor
+     *            An {@link AggregateVisitor} to which each aggregate is passed as soon as it is read, so that it can be summarized without waiting for the rest of the files.
+     * @param breakdown
+     *            An {@link AggregateSpill} to which the contents of each timing file are spilled, in the order in which the files were found, for the file breakdown; this may be {@code null}.
+     * @param export
+     *            An {@link AggregateExport} to which the contents of each timing file are exported, in the order in which the files were found; this may be {@code null}.
+     * @throws MavenReportException
+     *             If any errors occur while reading or exporting the files.
+     */
+    private void readAggregates(AggregateVisitor visitor, final AggregateSpill breakdown, final AggregateExport export) throws MavenReportException {
+        TimingFileVisitor fileVisitor = breakdown == null ? export : breakdown;
+        if (breakdown != null && export != null)
+            fileVisitor = new TimingFileVisitor() {
+                public void visit(File file, List<Aggregate> aggregates) throws IOException {
+                    breakdown.visit(file, aggregates);
+                    export.visit(file, aggregates);
+                }
+            };
+
+        try {
+            getTimingSource().stream(visitor, fileVisitor);
+        } catch (IllegalArgumentException e) {
+            throw new MavenReportException(e.getMessage());
+        } catch (IOException e) {
+            throw new MavenReportException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Create the spill in which the file breakdown is held until it is rendered.
+     * 
+     * @return An {@link AggregateSpill} within the build directory.
+     * @throws MavenReportException
+     *             If the spill cannot be created.
+     */
+    private AggregateSpill createSpill() throws MavenReportException {
+        try {
+            return new AggregateSpill(getBuildDirectory());
+        } catch (IOException e) {
+            throw new MavenReportException("Failed to create the file breakdown spill in " + getBuildDirectory() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the sink to which the report is rendered.
+     * 
+     * @return The {@link Sink} of the site report.
+     */
+    protected Sink getSink() {
+        return siteReport.getSink();
+    }
+
+    /**
+     * Get the time unit to be used when rendering the report.
+     * 
+     * @return A {@link TimeUnit} enum corresponding to the configured time unit.
+     */
+    private TimeUnit getTimeUnit() {
+        return TimeUnit.fromMojoAbbreviation(timeUnit);
+    }
+
+    /**
+     * Get the source of the timing files. It is created once per execution, so that the timing directories are only searched once.
+     * 
+     * @return A {@link TimingSource} configured from the parameters of this report.
+     */
+    private TimingSource getTimingSource() {
+        if (timingSource == null)
+            timingSource = createTimingSource();
+        return timingSource;
+    }
+
+    /**
+     * Print a table containing information within a given set of aggregates.
+     * 
+     * @param sink
+     *            The {@link Sink} used to render out the table.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects representing
+     *            the data to be written out.
+     */
+    private void print(Sink sink, Collection<? extends Aggregate> aggregates) {
+        new SummaryTableRenderer(getTimeUnit()).render(sink, aggregates);
+    }
+
     /**
      * Create a table header cell.
      * 
@@ -390,4 +946,164 @@ public class TimingReportMojo extends AbstractMavenReport {
         sink.text(text);
         sink.tableCell_();
     }
+
+    /**
+     * A page of the file breakdown, holding the breakdowns of one or more timing files.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private static class BreakdownPage {
+        private final String name;
+        private final String fileName;
+        private final List<Integer> indices = new ArrayList<Integer>();
+
+        /**
+         * Create a page.
+         * 
+         * @param name
+         *            The name by which the page is displayed.
+         * @param fileName
+         *            The name of the file to which the page is written.
+         */
+        public BreakdownPage(String name, String fileName) {
+            this.name = name;
+            this.fileName = fileName;
+        }
+    }
+
+    /**
+     * A {@link Callable} that writes a single page of the file breakdown, reading the breakdown of each of its timing files from the spill one at a time.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private class BreakdownPageWriter implements Callable<Void> {
+        private final Locale locale;
+        private final AggregateSpill breakdown;
+        private final File pageDirectory;
+        private final BreakdownPage page;
+
+        /**
+         * Create a writer.
+         * 
+         * @param locale
+         *            The {@link Locale} in which the page is to be rendered.
+         * @param breakdown
+         *            The {@link AggregateSpill} holding the contents of each timing file.
+         * @param pageDirectory
+         *            The directory to which the page is to be written.
+         * @param page
+         *            The {@link BreakdownPage} to be written.
+         */
+        public BreakdownPageWriter(Locale locale, AggregateSpill breakdown, File pageDirectory, BreakdownPage page) {
+            this.locale = locale;
+            this.breakdown = breakdown;
+            this.pageDirectory = pageDirectory;
+            this.page = page;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Void call() throws IOException {
+            final Sink sink = new XhtmlSinkFactory().createSink(pageDirectory, page.fileName, "UTF-8");
+            try {
+                sink.head();
+                sink.title();
+                sink.text(getName(locale) + ": " + page.name);
+                sink.title_();
+                sink.head_();
+
+                sink.body();
+                sink.sectionTitle1();
+                sink.text(page.name);
+                sink.sectionTitle1_();
+
+                sink.paragraph();
+                sink.link("../" + getOutputName() + ".html");
+                sink.text("Back to the " + getName(locale));
+                sink.link_();
+                sink.paragraph_();
+
+                for (Integer index : page.indices) {
+                    sink.sectionTitle2();
+                    sink.text(breakdown.getFile(index.intValue()).getName());
+                    sink.sectionTitle2_();
+
+                    print(sink, breakdown.read(index.intValue()));
+                }
+                sink.body_();
+            } finally {
+                sink.flush();
+                sink.close();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The site report by which this report is rendered, which defers to this report for its content.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private class SiteReport extends AbstractMavenReport {
+        /**
+         * {@inheritDoc}
+         */
+        public String getOutputName() {
+            return TimingReportMojo.this.getOutputName();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getName(Locale locale) {
+            return TimingReportMojo.this.getName(locale);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getDescription(Locale locale) {
+            return TimingReportMojo.this.getDescription(locale);
+        }
+
+        @Override
+        public boolean canGenerateReport() {
+            return TimingReportMojo.this.canGenerateReport();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        protected void executeReport(Locale locale) throws MavenReportException {
+            TimingReportMojo.this.executeReport(locale);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        protected String getOutputDirectory() {
+            return outputDirectory;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        protected MavenProject getProject() {
+            return project;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        protected Renderer getSiteRenderer() {
+            return siteRenderer;
+        }
+    }
 }
@@ -0,0 +1,283 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.StringUtils;
+
+import com.google.code.jetm.maven.util.AggregateVisitor;
+import com.google.code.jetm.maven.util.ParseCache;
+import com.google.code.jetm.maven.util.ResidentParseCache;
+import com.google.code.jetm.maven.util.TimingFileLoader;
+import com.google.code.jetm.maven.util.TimingFileScanner;
+import com.google.code.jetm.maven.util.TimingFileVisitor;
+
+/**
+ * The timing files of a project, as configured on one of the goals of this plugin, and the means by which they are found and loaded. This holds the configuration shared by every goal that reads
+ * timing files, so that they all find and load them in the same way.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+class TimingSource {
+    private final File[] directories;
+    private final Log log;
+    private String[] includes;
+    private String[] excludes;
+    private Integer maxDepth;
+    private String inputEncoding;
+    private Integer loaderThreads;
+    private File parseCacheDirectory;
+    private boolean parseCacheHashContents;
+    private boolean parseCachePruned = true;
+    private boolean residentCache;
+    private Integer residentCacheSize;
+    private List<File> timingFiles;
+
+    /**
+     * Create a source.
+     * 
+     * @param directories
+     *            The directories that are to be searched for timing files.
+     * @param log
+     *            The {@link Log} to which progress is to be reported.
+     */
+    TimingSource(File[] directories, Log log) {
+        this.directories = directories;
+        this.log = log;
+    }
+
+    /**
+     * Set the patterns of the timing files that are to be read.
+     * 
+     * @param includes
+     *            The patterns, relative to each timing directory, of the timing files to be read; if {@code null} or empty, every timing file is read.
+     * @param excludes
+     *            The patterns, relative to each timing directory, of the files and directories not to be read; this may be {@code null}.
+     */
+    void setPatterns(String[] includes, String[] excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Set the maximum number of directory levels to be searched.
+     * 
+     * @param maxDepth
+     *            The maximum search depth; if {@code null}, there is no limit.
+     */
+    void setMaxDepth(Integer maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Set the encoding of XML timing files.
+     * 
+     * @param inputEncoding
+     *            The name of the encoding; if blank, the platform encoding is used.
+     */
+    void setInputEncoding(String inputEncoding) {
+        this.inputEncoding = inputEncoding;
+    }
+
+    /**
+     * Set the number of timing files to be read at the same time.
+     * 
+     * @param loaderThreads
+     *            The number of threads; if {@code null}, the number of processors available to the JVM is used.
+     */
+    void setLoaderThreads(Integer loaderThreads) {
+        this.loaderThreads = loaderThreads;
+    }
+
+    /**
+     * Set the cache of parsed timing files.
+     * 
+     * @param parseCacheDirectory
+     *            The directory in which the parsed contents of timing files are to be cached; if {@code null}, nothing is cached.
+     * @param parseCacheHashContents
+     *            {@code true} if the contents of each file are to be digested to validate its cache entry.
+     */
+    void setParseCache(File parseCacheDirectory, boolean parseCacheHashContents) {
+        this.parseCacheDirectory = parseCacheDirectory;
+        this.parseCacheHashContents = parseCacheHashContents;
+    }
+
+    /**
+     * Set whether the entries of the parse cache that belong to none of the timing files found are removed once the files have been read. They should be kept when the timing files are searched
+     * in another way than the one by which the cache is normally filled (e.g., by the aggregate report on behalf of a project).
+     * 
+     * @param pruned
+     *            {@code true} if the entries of files that were not found are to be removed; this is the default.
+     */
+    void setParseCachePruned(boolean pruned) {
+        this.parseCachePruned = pruned;
+    }
+
+    /**
+     * Set the in-memory cache of parsed timing files, which is shared by every build run within the same process.
+     * 
+     * @param enabled
+     *            {@code true} if the in-memory cache is to be used.
+     * @param maxAggregates
+     *            The maximum number of aggregates to be held by the in-memory cache; if {@code null}, {@link ResidentParseCache#DEFAULT_MAX_AGGREGATES}. As the cache is shared, a bound lower than the one
+     *            another build has already given it has no effect.
+     */
+    void setResidentCache(boolean enabled, Integer maxAggregates) {
+        this.residentCache = enabled;
+        this.residentCacheSize = maxAggregates;
+    }
+
+    /**
+     * Get all files available for reading as timings. The timing directories are only searched once; the result is reused by every subsequent call.
+     * 
+     * @return A {@link List} of {@link File} objects representing the files to be read as timing data.
+     * @throws IllegalArgumentException
+     *             If the configured search is invalid.
+     * @throws IOException
+     *             If a timing directory cannot be searched.
+     */
+    List<File> getTimingFiles() throws IOException {
+        if (timingFiles != null)
+            return timingFiles;
+
+        final TimingFileScanner scanner = createScanner();
+        final List<File> found = new ArrayList<File>();
+        for (File timingDirectory : directories) {
+            try {
+                found.addAll(scanner.scan(timingDirectory));
+            } catch (IOException e) {
+                throw new IOException("Failed to search timing directory: " + timingDirectory, e);
+            }
+        }
+
+        timingFiles = found;
+        return timingFiles;
+    }
+
+    /**
+     * Determine whether there are any timing files to be read, without searching the timing directories in full unless they have already been searched.
+     * 
+     * @return {@code true} if at least one timing file was found.
+     * @throws IllegalArgumentException
+     *             If the configured search is invalid.
+     * @throws IOException
+     *             If a timing directory cannot be searched.
+     */
+    boolean hasTimingFiles() throws IOException {
+        if (timingFiles != null)
+            return !timingFiles.isEmpty();
+
+        final TimingFileScanner scanner = createScanner();
+        for (File timingDirectory : directories) {
+            try {
+                if (scanner.containsAny(timingDirectory))
+                    return true;
+            } catch (IOException e) {
+                throw new IOException("Failed to search timing directory: " + timingDirectory, e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create the scanner of the timing directories.
+     * 
+     * @return A {@link TimingFileScanner} configured by the patterns and maximum depth of this source.
+     * @throws IllegalArgumentException
+     *             If the configured maximum depth is less than 1.
+     */
+    private TimingFileScanner createScanner() {
+        if (maxDepth != null && maxDepth.intValue() < 1)
+            throw new IllegalArgumentException("The maximum search depth must be at least 1: " + maxDepth);
+
+        return new TimingFileScanner(includes, excludes, maxDepth == null ? Integer.MAX_VALUE : maxDepth.intValue());
+    }
+
+    /**
+     * Pass the contents of all of the timing files to a visitor without retaining them, so that the memory used does not grow with the number of files.
+     * 
+     * @param visitor
+     *            An {@link AggregateVisitor} to which every aggregate is to be passed as it is read.
+     * @throws IllegalArgumentException
+     *             If the configuration is invalid.
+     * @throws IOException
+     *             If any of the files cannot be found or read.
+     */
+    void stream(AggregateVisitor visitor) throws IOException {
+        stream(visitor, null);
+    }
+
+    /**
+     * Pass the contents of all of the timing files to a visitor without retaining them, and then pass the contents of each file, in the order in which the files were found, to a file visitor.
+     * 
+     * @param visitor
+     *            An {@link AggregateVisitor} to which every aggregate is to be passed as it is read.
+     * @param fileVisitor
+     *            A {@link TimingFileVisitor} to which the contents of each file with timing data are to be passed; this may be {@code null}.
+     * @throws IllegalArgumentException
+     *             If the configuration is invalid.
+     * @throws IOException
+     *             If any of the files cannot be found or read, or the file visitor fails.
+     */
+    void stream(AggregateVisitor visitor, TimingFileVisitor fileVisitor) throws IOException {
+        final List<File> files = getTimingFiles();
+        final ParseCache cache = parseCacheDirectory == null ? null : new ParseCache(parseCacheDirectory, parseCacheHashContents);
+        final ResidentParseCache resident = getResidentCache();
+        final TimingFileLoader loader = new TimingFileLoader(getInputCharset(), getLoaderThreads(), cache, resident);
+        loader.stream(files, visitor, fileVisitor);
+
+        if (resident != null)
+            log.info("Reused the in-memory contents of " + loader.getResidentHits() + " of " + files.size() + " timing files.");
+        if (cache != null) {
+            if (parseCachePruned)
+                cache.retain(files);
+            log.info("Reused the cached contents of " + cache.getHits() + " of " + files.size() + " timing files.");
+        }
+    }
+
+    /**
+     * Get the character set in which XML timing files are to be read.
+     * 
+     * @return The configured {@link Charset}; the platform default if none is configured.
+     */
+    Charset getInputCharset() {
+        return StringUtils.isBlank(inputEncoding) ? Charset.defaultCharset() : Charset.forName(inputEncoding);
+    }
+
+    /**
+     * Get the in-memory cache of parsed timing files.
+     * 
+     * @return The shared {@link ResidentParseCache}, bounded by at least the configured size; {@code null} if the in-memory cache is not to be used.
+     * @throws IllegalArgumentException
+     *             If the configured size is less than 1.
+     */
+    ResidentParseCache getResidentCache() {
+        if (!residentCache)
+            return null;
+
+        return ResidentParseCache.getShared(residentCacheSize == null ? ResidentParseCache.DEFAULT_MAX_AGGREGATES : residentCacheSize.intValue());
+    }
+
+    /**
+     * Get the number of timing files to be read at the same time.
+     * 
+     * @return The configured number of loader threads; the number of available processors if none is configured.
+     * @throws IllegalArgumentException
+     *             If the configured number is less than 1.
+     */
+    int getLoaderThreads() {
+        if (loaderThreads == null)
+            return Runtime.getRuntime().availableProcessors();
+
+        if (loaderThreads.intValue() < 1)
+            throw new IllegalArgumentException("The number of loader threads must be at least 1: " + loaderThreads);
+
+        return loaderThreads.intValue();
+    }
+}
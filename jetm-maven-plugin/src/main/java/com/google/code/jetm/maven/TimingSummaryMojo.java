@@ -0,0 +1,116 @@
+package com.google.code.jetm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import com.google.code.jetm.maven.data.AggregateSummarizer;
+import com.google.code.jetm.maven.data.AggregateSummary;
+import com.google.code.jetm.maven.data.TimeUnit;
+import com.google.code.jetm.maven.util.AggregateExport;
+import com.google.code.jetm.maven.util.SummaryTextFormatter;
+
+/**
+ * A mojo used to summarize the collective JETM timings of a project as plain text, written to the console and to a file. It reads the same timing files as the timing report, but does not need the
+ * site lifecycle, so it can be bound to an early phase such as <code>verify</code> to give quick feedback on the timings of a build.
+ * 
+ * @author jrh3k5
+ * @goal summary
+ * @phase verify
+ * @threadSafe
+ */
+
+public class TimingSummaryMojo extends AbstractTimingMojo {
+    /**
+     * The unit of time in which the summary is to express its recorded timings. Supported values are:
+     * <ul>
+     * <li>SECS: the summary will display times in seconds</li>
+     * <li>MILLIS: the summary will display times in milliseconds</li>
+     * </ul>
+     * 
+     * @parameter expression="${jetm.timeUnit}" default-value="SECS"
+     * @required
+     */
+    private String timeUnit;
+
+    /**
+     * The file to which the summary is written, in addition to the console, unless <code>writeSummaryFile</code> is false.
+     * 
+     * @parameter expression="${jetm.summaryFile}" default-value="${project.build.directory}/jetm-summary.txt"
+     * @required
+     */
+    private File summaryFile;
+
+    /**
+     * Whether the summary is also to be written to <code>summaryFile</code>; if false, it is only written to the console.
+     * 
+     * @parameter expression="${jetm.writeSummaryFile}" default-value="true"
+     */
+    private boolean writeSummaryFile;
+
+    /**
+     * Whether the summary is to be skipped.
+     * 
+     * @parameter expression="${jetm.summary.skip}" default-value="false"
+     */
+    private boolean skip;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping the timing summary.");
+            return;
+        }
+
+        final TimeUnit unit;
+        try {
+            unit = TimeUnit.fromMojoAbbreviation(timeUnit);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        final TimingSource source = createTimingSource();
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        AggregateExport export = null;
+        final int fileCount;
+        final List<AggregateSummary> summaries;
+        try {
+            export = createExport("jetm-summary");
+            source.stream(summarizer, export);
+            fileCount = source.getTimingFiles().size();
+            summaries = summarizer.getSummaries();
+            finishExport(export, summaries);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            if (export != null)
+                export.closeQuietly();
+        }
+
+        if (summaries.isEmpty()) {
+            getLog().info("There are no JETM timings to be summarized.");
+            return;
+        }
+
+        final List<String> lines = new SummaryTextFormatter(unit).format(summaries);
+        getLog().info("JETM timings of " + fileCount + " timing files:");
+        for (String line : lines)
+            getLog().info(line);
+
+        if (writeSummaryFile) {
+            try {
+                FileUtils.writeLines(summaryFile, "UTF-8", lines);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to write summary: " + summaryFile, e);
+            }
+            getLog().info("Wrote the timing summary to " + summaryFile);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.code.jetm.maven.util.AggregateVisitor;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An {@link AggregateVisitor} that folds every aggregate it visits into the
+ * summary by the same name. It may be visited by several threads at the same
+ * time: each thread summarizes into its own partial {@link SummaryTable},
+ * without any locking, and the partials are combined by a parallel
+ * {@link SummaryReduction} once the summaries are requested.
+ * <p />
+ * Requesting the summaries completes the summarization; no more aggregates may
+ * be visited afterwards, and all visits must have finished beforehand.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class AggregateSummarizer implements AggregateVisitor {
+    private final List<SummaryTable> partials = new ArrayList<SummaryTable>();
+    private final ThreadLocal<SummaryTable> tables = new ThreadLocal<SummaryTable>() {
+        @Override
+        protected SummaryTable initialValue() {
+            final SummaryTable table = new SummaryTable();
+            synchronized (partials) {
+                partials.add(table);
+            }
+            return table;
+        }
+    };
+    private volatile SummaryTable table;
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException
+     *             If the summaries have already been requested.
+     */
+    public void visit(Aggregate aggregate) {
+        if (table != null)
+            throw new IllegalStateException("Summaries have already been collected.");
+
+        tables.get().add(aggregate);
+    }
+
+    /**
+     * Get the summaries.
+     * 
+     * @return A {@link List} of {@link AggregateSummary} objects representing
+     *         everything visited, summarized by name.
+     */
+    public List<AggregateSummary> getSummaries() {
+        return getTable().toSummaries();
+    }
+
+    /**
+     * Get the summaries in their compact form.
+     * 
+     * @return A {@link SummaryTable} representing everything visited,
+     *         summarized by name.
+     */
+    public SummaryTable getTable() {
+        synchronized (partials) {
+            if (table == null)
+                table = SummaryReduction.reduce(partials);
+            return table;
+        }
+    }
+}
@@ -1,23 +1,30 @@
 package com.google.code.jetm.maven.data;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import etm.core.aggregation.Aggregate;
 
 /**
- * A bean to store summary of aggregate data.
+ * A bean to store summary of aggregate data. The aggregates nested within the
+ * summarized aggregates are summarized, by name, as the children of the
+ * summary, and the histograms of any {@link HistogramAggregate} objects are
+ * merged into the histogram of the summary.
  * 
  * @author jrh3k5
  * 
  */
 
-public class AggregateSummary implements Aggregate, Comparable<AggregateSummary> {
+public class AggregateSummary implements HistogramAggregate, Comparable<AggregateSummary> {
     private double min = Double.MAX_VALUE;
     private double max = Double.MIN_VALUE;
     private double total;
     private long measurements;
     private String name;
+    private Map<String, AggregateSummary> childs;
+    private LatencyHistogram histogram;
 
     /**
      * Create a summary.
@@ -35,16 +42,92 @@ public class AggregateSummary implements Aggregate, Comparable<AggregateSummary>
     }
 
     /**
-     * Add an aggregate to the summary.
+     * Create a summary of already-summarized data.
+     * 
+     * @param name
+     *            The name of the summary.
+     * @param min
+     *            The minimum of the summary.
+     * @param max
+     *            The maximum of the summary.
+     * @param total
+     *            The total of the summary.
+     * @param measurements
+     *            The number of measurements in the summary.
+     * @param histogram
+     *            The {@link LatencyHistogram} of the summary; this may be
+     *            {@code null}.
+     * @throws IllegalArgumentException
+     *             If the given name is {@code null}.
+     */
+    AggregateSummary(String name, double min, double max, double total, long measurements, LatencyHistogram histogram) {
+        this(name);
+        this.min = min;
+        this.max = max;
+        this.total = total;
+        this.measurements = measurements;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Add an aggregate to the summary. The aggregates nested within it are
+     * added to the children of this summary by the same names.
      * 
      * @param aggregate
      *            The {@link Aggregate} to be added to the summary.
      */
+    @SuppressWarnings("unchecked")
     public void add(Aggregate aggregate) {
         this.min = Math.min(aggregate.getMin(), getMin());
         this.max = Math.max(aggregate.getMax(), getMax());
         this.total += aggregate.getTotal();
         this.measurements += aggregate.getMeasurements();
+        if (aggregate instanceof HistogramAggregate)
+            addHistogram(((HistogramAggregate) aggregate).getHistogram());
+
+        if (aggregate.hasChilds())
+            for (Aggregate child : (Collection<Aggregate>) aggregate.getChilds().values())
+                getChild(child.getName()).add(child);
+    }
+
+    /**
+     * Merge another summary of the same name, along with its children, into
+     * this one. Merging is
+     * associative and commutative, so partial summaries may be combined in any
+     * order.
+     * 
+     * @param other
+     *            The {@link AggregateSummary} to be merged into this summary;
+     *            it is not modified.
+     * @throws IllegalArgumentException
+     *             If the given summary has a different name.
+     */
+    public void merge(AggregateSummary other) {
+        if (!getName().equals(other.getName()))
+            throw new IllegalArgumentException("Cannot merge summary " + other.getName() + " into summary " + getName() + ".");
+
+        this.min = Math.min(other.min, min);
+        this.max = Math.max(other.max, max);
+        this.total += other.total;
+        this.measurements += other.measurements;
+        addHistogram(other.histogram);
+
+        if (other.hasChilds())
+            for (AggregateSummary child : other.childs.values())
+                getChild(child.getName()).merge(child);
+    }
+
+    /**
+     * Add a child to this summary.
+     * 
+     * @param child
+     *            The {@link AggregateSummary} to be nested within this summary;
+     *            it replaces any child by the same name.
+     */
+    void addChild(AggregateSummary child) {
+        if (childs == null)
+            childs = new LinkedHashMap<String, AggregateSummary>();
+        childs.put(child.getName(), child);
     }
 
     /**
@@ -77,7 +160,14 @@ public class AggregateSummary implements Aggregate, Comparable<AggregateSummary>
      */
     @SuppressWarnings("rawtypes")
     public Map getChilds() {
-        return Collections.emptyMap();
+        return childs == null ? Collections.emptyMap() : Collections.unmodifiableMap(childs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
     }
 
     /**
@@ -119,11 +209,45 @@ public class AggregateSummary implements Aggregate, Comparable<AggregateSummary>
      * {@inheritDoc}
      */
     public boolean hasChilds() {
-        return false;
+        return childs != null && !childs.isEmpty();
     }
 
     @Override
     public int hashCode() {
         return getName().hashCode();
     }
+
+    /**
+     * Merge a histogram into that of this summary.
+     * 
+     * @param added
+     *            The {@link LatencyHistogram} to be merged; it is not modified.
+     *            This may be {@code null}.
+     */
+    private void addHistogram(LatencyHistogram added) {
+        if (added == null || added.isEmpty())
+            return;
+
+        if (histogram == null)
+            histogram = added.copy();
+        else
+            histogram.merge(added);
+    }
+
+    /**
+     * Get a child of this summary, creating it if it does not yet exist.
+     * 
+     * @param name
+     *            The name of the child.
+     * @return The {@link AggregateSummary} nested within this summary by the
+     *         given name.
+     */
+    private AggregateSummary getChild(String name) {
+        AggregateSummary child = childs == null ? null : childs.get(name);
+        if (child == null) {
+            child = new AggregateSummary(name);
+            addChild(child);
+        }
+        return child;
+    }
 }
@@ -0,0 +1,60 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.Locale;
+
+/**
+ * Enumerations of the ways in which the file breakdown of the timing report can be laid out.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public enum BreakdownLayout {
+    /**
+     * The breakdown of every file is included in the report page itself.
+     */
+    INLINE,
+    /**
+     * The breakdown of each file is written to a page of its own, linked from the report page.
+     */
+    FILE,
+    /**
+     * The breakdowns of the files within each directory are written to a page of their own, linked from the report page.
+     */
+    DIRECTORY;
+
+    /**
+     * Get a layout from its configured value. The comparison is case-insensitive.
+     * 
+     * @param value
+     *            The configured value from which to obtain the corresponding enumeration.
+     * @return A {@link BreakdownLayout} enumeration corresponding to the given value.
+     * @throws IllegalArgumentException
+     *             If the given value is not known.
+     */
+    public static BreakdownLayout fromMojoValue(String value) {
+        for (BreakdownLayout layout : values())
+            if (layout.name().equalsIgnoreCase(value))
+                return layout;
+
+        throw new IllegalArgumentException("Unrecognized breakdown layout: " + value);
+    }
+
+    /**
+     * Determine whether the breakdown is written to pages of its own.
+     * 
+     * @return {@code true} if the breakdown is split into separate pages.
+     */
+    public boolean isPaged() {
+        return this != INLINE;
+    }
+
+    /**
+     * Get the prefix of the names of the pages of this layout.
+     * 
+     * @return The lower-case name of this layout.
+     */
+    public String getPagePrefix() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
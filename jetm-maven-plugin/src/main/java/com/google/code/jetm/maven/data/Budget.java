@@ -0,0 +1,145 @@
+package com.google.code.jetm.maven.data;
+
+/**
+ * An absolute limit on the figures of the measurements matching a name or name pattern. A pattern may use <code>*</code> to match any number of characters and <code>?</code> to match a single
+ * character; a name without either only matches measurements by that exact name. Limits that are not set are not checked.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class Budget {
+    private String name;
+    private Double maxAverage;
+    private Double maxMaximum;
+    private Double maxTotal;
+
+    /**
+     * Create a budget with no name or limits, to be configured through its setters.
+     */
+    public Budget() {
+    }
+
+    /**
+     * Create a budget.
+     * 
+     * @param name
+     *            The name or name pattern of the measurements to which the budget applies.
+     * @param maxAverage
+     *            The largest allowed average time, in milliseconds; if {@code null}, the average time is not limited.
+     * @param maxMaximum
+     *            The largest allowed maximum time, in milliseconds; if {@code null}, the maximum time is not limited.
+     * @param maxTotal
+     *            The largest allowed total time, in milliseconds; if {@code null}, the total time is not limited.
+     */
+    public Budget(String name, Double maxAverage, Double maxMaximum, Double maxTotal) {
+        this.name = name;
+        this.maxAverage = maxAverage;
+        this.maxMaximum = maxMaximum;
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Get the name or name pattern of the measurements to which this budget applies.
+     * 
+     * @return The name or name pattern.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set the name or name pattern of the measurements to which this budget applies.
+     * 
+     * @param name
+     *            The name or name pattern.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the largest allowed average time.
+     * 
+     * @return The largest allowed average time, in milliseconds; {@code null} if it is not limited.
+     */
+    public Double getMaxAverage() {
+        return maxAverage;
+    }
+
+    /**
+     * Set the largest allowed average time.
+     * 
+     * @param maxAverage
+     *            The largest allowed average time, in milliseconds; {@code null} if it is not to be limited.
+     */
+    public void setMaxAverage(Double maxAverage) {
+        this.maxAverage = maxAverage;
+    }
+
+    /**
+     * Get the largest allowed maximum time.
+     * 
+     * @return The largest allowed maximum time, in milliseconds; {@code null} if it is not limited.
+     */
+    public Double getMaxMaximum() {
+        return maxMaximum;
+    }
+
+    /**
+     * Set the largest allowed maximum time.
+     * 
+     * @param maxMaximum
+     *            The largest allowed maximum time, in milliseconds; {@code null} if it is not to be limited.
+     */
+    public void setMaxMaximum(Double maxMaximum) {
+        this.maxMaximum = maxMaximum;
+    }
+
+    /**
+     * Get the largest allowed total time.
+     * 
+     * @return The largest allowed total time, in milliseconds; {@code null} if it is not limited.
+     */
+    public Double getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Set the largest allowed total time.
+     * 
+     * @param maxTotal
+     *            The largest allowed total time, in milliseconds; {@code null} if it is not to be limited.
+     */
+    public void setMaxTotal(Double maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Get the limit of a metric.
+     * 
+     * @param metric
+     *            The {@link Metric} whose limit is to be retrieved.
+     * @return The largest allowed value of the given metric, in milliseconds; {@code null} if it is not limited.
+     */
+    public Double getLimit(Metric metric) {
+        switch (metric) {
+        case AVERAGE:
+            return maxAverage;
+        case MAXIMUM:
+            return maxMaximum;
+        case TOTAL:
+            return maxTotal;
+        default:
+            throw new IllegalArgumentException("Unhandled metric: " + metric);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Budget[name=" + name + ", maxAverage=" + maxAverage + ", maxMaximum=" + maxMaximum + ", maxTotal=" + maxTotal + "]";
+    }
+}
@@ -0,0 +1,237 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Matches measurement names against a set of {@link Budget} objects and checks the summaries of the matching measurements against their limits.
+ * <p />
+ * The budgets are compiled once: exact names are looked up in a hash table, patterns whose only wildcard is a trailing <code>*</code> are stored in a prefix trie that is walked once per name, and
+ * only the remaining patterns are tried one by one as regular expressions. The budgets matching each distinct name are remembered, so a name that occurs many times (e.g., nested within several
+ * measurements) is only matched once. This class is not thread-safe.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BudgetMatcher {
+    private final Map<String, List<Budget>> exact = new HashMap<String, List<Budget>>();
+    private final PrefixNode prefixes = new PrefixNode();
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private final List<Budget> patternBudgets = new ArrayList<Budget>();
+    private final Map<String, List<Budget>> matches = new HashMap<String, List<Budget>>();
+
+    /**
+     * Compile a set of budgets.
+     * 
+     * @param budgets
+     *            A {@link Collection} of {@link Budget} objects to be matched.
+     * @throws IllegalArgumentException
+     *             If any of the budgets has no name, does not set any limit or sets a negative limit.
+     */
+    public BudgetMatcher(Collection<Budget> budgets) {
+        for (Budget budget : budgets) {
+            validate(budget);
+
+            final String name = budget.getName();
+            final int wildcard = indexOfWildcard(name);
+            if (wildcard < 0)
+                add(exact, name, budget);
+            else if (wildcard == name.length() - 1 && name.charAt(wildcard) == '*')
+                prefixes.add(name, 0, wildcard, budget);
+            else {
+                patterns.add(compile(name));
+                patternBudgets.add(budget);
+            }
+        }
+    }
+
+    /**
+     * Get the budgets that apply to a measurement.
+     * 
+     * @param name
+     *            The name of the measurement.
+     * @return A {@link List} of {@link Budget} objects representing the budgets that apply to the given measurement, in no particular order; empty if none apply.
+     */
+    public List<Budget> match(String name) {
+        List<Budget> matched = matches.get(name);
+        if (matched != null)
+            return matched;
+
+        matched = new ArrayList<Budget>();
+        final List<Budget> exactBudgets = exact.get(name);
+        if (exactBudgets != null)
+            matched.addAll(exactBudgets);
+
+        PrefixNode node = prefixes;
+        matched.addAll(node.budgets);
+        for (int i = 0, length = name.length(); i < length && (node = node.children.get(Character.valueOf(name.charAt(i)))) != null; i++)
+            matched.addAll(node.budgets);
+
+        for (int i = 0, size = patterns.size(); i < size; i++)
+            if (patterns.get(i).matcher(name).matches())
+                matched.add(patternBudgets.get(i));
+
+        matched = matched.isEmpty() ? Collections.<Budget> emptyList() : Collections.unmodifiableList(matched);
+        matches.put(name, matched);
+        return matched;
+    }
+
+    /**
+     * Check the summaries of a table, including the nested ones, against the budgets that apply to them.
+     * 
+     * @param table
+     *            The {@link SummaryTable} to be checked.
+     * @return A {@link List} of {@link BudgetViolation} objects representing every limit that was exceeded, in the order of the summaries in the table.
+     */
+    public List<BudgetViolation> check(SummaryTable table) {
+        final List<BudgetViolation> violations = new ArrayList<BudgetViolation>();
+        for (int id = 0, size = table.size(); id < size; id++) {
+            final List<Budget> budgets = match(table.getName(id));
+            if (budgets.isEmpty())
+                continue;
+
+            String path = null;
+            for (Budget budget : budgets)
+                for (Metric metric : Metric.values()) {
+                    final Double limit = budget.getLimit(metric);
+                    if (limit == null)
+                        continue;
+
+                    final double actual = metric.valueOf(table, id);
+                    if (actual > limit.doubleValue()) {
+                        if (path == null)
+                            path = RegressionDetector.getPath(table, id);
+                        violations.add(new BudgetViolation(path, budget, metric, actual));
+                    }
+                }
+        }
+        return violations;
+    }
+
+    /**
+     * Verify that a budget can be checked.
+     * 
+     * @param budget
+     *            The {@link Budget} to be verified.
+     * @throws IllegalArgumentException
+     *             If the budget has no name, does not set any limit or sets a negative limit.
+     */
+    private static void validate(Budget budget) {
+        if (budget.getName() == null || budget.getName().length() == 0)
+            throw new IllegalArgumentException("A budget must have a name: " + budget);
+
+        boolean limited = false;
+        for (Metric metric : Metric.values()) {
+            final Double limit = budget.getLimit(metric);
+            if (limit == null)
+                continue;
+
+            if (limit.doubleValue() < 0)
+                throw new IllegalArgumentException("Budget limits cannot be negative: " + budget);
+            limited = true;
+        }
+
+        if (!limited)
+            throw new IllegalArgumentException("A budget must set at least one limit: " + budget);
+    }
+
+    /**
+     * Find the first wildcard in a name pattern.
+     * 
+     * @param name
+     *            The name pattern to be searched.
+     * @return The index of the first <code>*</code> or <code>?</code> in the pattern; -1 if there is none.
+     */
+    private static int indexOfWildcard(String name) {
+        for (int i = 0, length = name.length(); i < length; i++) {
+            final char c = name.charAt(i);
+            if (c == '*' || c == '?')
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Compile a name pattern into a regular expression.
+     * 
+     * @param name
+     *            The name pattern to be compiled.
+     * @return A {@link Pattern} matching the same names as the given name pattern.
+     */
+    private static Pattern compile(String name) {
+        final StringBuilder regex = new StringBuilder(name.length() + 16);
+        int start = 0;
+        for (int i = 0, length = name.length(); i < length; i++) {
+            final char c = name.charAt(i);
+            if (c != '*' && c != '?')
+                continue;
+
+            if (i > start)
+                regex.append(Pattern.quote(name.substring(start, i)));
+            regex.append(c == '*' ? ".*" : ".");
+            start = i + 1;
+        }
+        if (start < name.length())
+            regex.append(Pattern.quote(name.substring(start)));
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Add a budget to the list stored under a key.
+     * 
+     * @param map
+     *            The {@link Map} to which the budget is to be added.
+     * @param key
+     *            The key under which the budget is to be added.
+     * @param budget
+     *            The {@link Budget} to be added.
+     */
+    private static void add(Map<String, List<Budget>> map, String key, Budget budget) {
+        List<Budget> budgets = map.get(key);
+        if (budgets == null)
+            map.put(key, budgets = new ArrayList<Budget>(1));
+        budgets.add(budget);
+    }
+
+    /**
+     * A node of the prefix trie, holding the budgets whose prefix ends at it.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private static class PrefixNode {
+        private final Map<Character, PrefixNode> children = new HashMap<Character, PrefixNode>();
+        private final List<Budget> budgets = new ArrayList<Budget>(0);
+
+        /**
+         * Add a budget beneath this node.
+         * 
+         * @param prefix
+         *            The text containing the prefix of the budget.
+         * @param index
+         *            The index, within the text, of the next character of the prefix.
+         * @param end
+         *            The index, within the text, at which the prefix ends.
+         * @param budget
+         *            The {@link Budget} to be added.
+         */
+        void add(String prefix, int index, int end, Budget budget) {
+            PrefixNode node = this;
+            for (int i = index; i < end; i++) {
+                final Character c = Character.valueOf(prefix.charAt(i));
+                PrefixNode child = node.children.get(c);
+                if (child == null)
+                    node.children.put(c, child = new PrefixNode());
+                node = child;
+            }
+            node.budgets.add(budget);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.google.code.jetm.maven.data;
+
+/**
+ * A bean describing a figure of a measurement that exceeds the limit of a budget.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BudgetViolation {
+    private final String name;
+    private final Budget budget;
+    private final Metric metric;
+    private final double actual;
+
+    /**
+     * Create a violation.
+     * 
+     * @param name
+     *            The name of the measurement, including the names of the measurements within which it is nested.
+     * @param budget
+     *            The {@link Budget} that was exceeded.
+     * @param metric
+     *            The {@link Metric} that exceeds its limit.
+     * @param actual
+     *            The actual value, in milliseconds.
+     */
+    public BudgetViolation(String name, Budget budget, Metric metric, double actual) {
+        this.name = name;
+        this.budget = budget;
+        this.metric = metric;
+        this.actual = actual;
+    }
+
+    /**
+     * Get the name of the measurement.
+     * 
+     * @return The name of the measurement, including the names of the measurements within which it is nested.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the budget that was exceeded.
+     * 
+     * @return The {@link Budget} that was exceeded.
+     */
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Get the metric that exceeds its limit.
+     * 
+     * @return The {@link Metric} that exceeds its limit.
+     */
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Get the limit that was exceeded.
+     * 
+     * @return The largest allowed value, in milliseconds.
+     */
+    public double getLimit() {
+        return budget.getLimit(metric).doubleValue();
+    }
+
+    /**
+     * Get the actual value.
+     * 
+     * @return The actual value, in milliseconds.
+     */
+    public double getActual() {
+        return actual;
+    }
+}
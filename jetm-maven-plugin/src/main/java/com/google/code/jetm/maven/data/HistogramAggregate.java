@@ -0,0 +1,21 @@
+package com.google.code.jetm.maven.data;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An {@link Aggregate} that may also carry a histogram of the individual
+ * times that make it up.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public interface HistogramAggregate extends Aggregate {
+    /**
+     * Get the histogram of the aggregate's times.
+     * 
+     * @return A {@link LatencyHistogram} of the times that make up this
+     *         aggregate; {@code null} if no histogram was recorded.
+     */
+    LatencyHistogram getHistogram();
+}
@@ -0,0 +1,105 @@
+package com.google.code.jetm.maven.data;
+
+/**
+ * A bean describing the summary of a measurement in a single build recorded in the timing history.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class HistoryPoint {
+    private final String buildId;
+    private final long timestamp;
+    private final long measurements;
+    private final double min;
+    private final double max;
+    private final double total;
+
+    /**
+     * Create a point.
+     * 
+     * @param buildId
+     *            The identifier of the build.
+     * @param timestamp
+     *            The time, in milliseconds since the epoch, at which the build was recorded.
+     * @param measurements
+     *            The number of measurements taken during the build.
+     * @param min
+     *            The minimum time, in milliseconds, of a measurement.
+     * @param max
+     *            The maximum time, in milliseconds, of a measurement.
+     * @param total
+     *            The total time, in milliseconds, of all measurements.
+     */
+    public HistoryPoint(String buildId, long timestamp, long measurements, double min, double max, double total) {
+        this.buildId = buildId;
+        this.timestamp = timestamp;
+        this.measurements = measurements;
+        this.min = min;
+        this.max = max;
+        this.total = total;
+    }
+
+    /**
+     * Get the identifier of the build.
+     * 
+     * @return The identifier of the build.
+     */
+    public String getBuildId() {
+        return buildId;
+    }
+
+    /**
+     * Get the time at which the build was recorded.
+     * 
+     * @return The time, in milliseconds since the epoch, at which the build was recorded.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the number of measurements.
+     * 
+     * @return The number of measurements taken during the build.
+     */
+    public long getMeasurements() {
+        return measurements;
+    }
+
+    /**
+     * Get the minimum time.
+     * 
+     * @return The minimum time, in milliseconds, of a measurement.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the maximum time.
+     * 
+     * @return The maximum time, in milliseconds, of a measurement.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the total time.
+     * 
+     * @return The total time, in milliseconds, of all measurements.
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the average time.
+     * 
+     * @return The average time, in milliseconds, of a measurement; 0 if there were no measurements.
+     */
+    public double getAverage() {
+        return measurements == 0 ? 0 : total / measurements;
+    }
+}
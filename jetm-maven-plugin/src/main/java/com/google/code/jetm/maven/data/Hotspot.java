@@ -0,0 +1,46 @@
+package com.google.code.jetm.maven.data;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A bean describing a measurement selected as a hotspot.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class Hotspot {
+    private final String name;
+    private final Aggregate aggregate;
+
+    /**
+     * Create a hotspot.
+     * 
+     * @param name
+     *            The name of the measurement, including the names of the measurements within which it is nested.
+     * @param aggregate
+     *            The {@link Aggregate} representing the measurement.
+     */
+    public Hotspot(String name, Aggregate aggregate) {
+        this.name = name;
+        this.aggregate = aggregate;
+    }
+
+    /**
+     * Get the name of the measurement.
+     * 
+     * @return The name of the measurement, including the names of the measurements within which it is nested.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the measurement.
+     * 
+     * @return The {@link Aggregate} representing the measurement.
+     */
+    public Aggregate getAggregate() {
+        return aggregate;
+    }
+}
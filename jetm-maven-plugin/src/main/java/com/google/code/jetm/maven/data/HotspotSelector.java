@@ -0,0 +1,133 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A selector of the aggregates that rank highest by a given {@link Metric}. Every aggregate is considered, including those nested within others, each under its full name, with the names of
+ * the aggregates enclosing it separated by {@value RegressionDetector#PATH_SEPARATOR}. Rather than sorting every aggregate, it keeps only the current top aggregates in a bounded heap, so
+ * selecting the top <i>n</i> of <i>m</i> aggregates takes <i>O(m log n)</i> time and <i>O(n)</i> space.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class HotspotSelector {
+    private final int limit;
+
+    /**
+     * Create a selector.
+     * 
+     * @param limit
+     *            The maximum number of aggregates to be selected.
+     * @throws IllegalArgumentException
+     *             If the given limit is less than one.
+     */
+    public HotspotSelector(int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("At least one hotspot must be selected: " + limit);
+
+        this.limit = limit;
+    }
+
+    /**
+     * Select the aggregates that rank highest by a metric.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of the top-level aggregates from which, along with the aggregates nested within them, the hotspots are to be selected.
+     * @param metric
+     *            The {@link Metric} by which the aggregates are ranked.
+     * @return A {@link List} of, at most, as many {@link Hotspot} objects as the limit of this selector, ordered from the highest value of the given metric to the lowest; aggregates with the same
+     *         value are ordered by full name.
+     */
+    public List<Hotspot> select(Collection<? extends Aggregate> aggregates, Metric metric) {
+        final RankComparator ranking = new RankComparator(metric);
+        /*
+         * The head of the heap is the lowest-ranked of the aggregates selected so far, so that it can be replaced whenever a higher-ranked aggregate is found
+         */
+        final PriorityQueue<Hotspot> heap = new PriorityQueue<Hotspot>(Math.min(limit, Math.max(1, aggregates.size())), Collections.reverseOrder(ranking));
+        offer(heap, ranking, null, aggregates);
+
+        final List<Hotspot> selected = new ArrayList<Hotspot>(heap);
+        Collections.sort(selected, ranking);
+        return selected;
+    }
+
+    /**
+     * Offer aggregates, each followed by the aggregates nested within it, to the heap of the hotspots selected so far.
+     * 
+     * @param heap
+     *            The {@link PriorityQueue} of the hotspots selected so far, headed by the lowest-ranked of them.
+     * @param ranking
+     *            The {@link RankComparator} by which aggregates are ranked.
+     * @param parent
+     *            The full name of the aggregate enclosing the given aggregates; {@code null} if they are not nested.
+     * @param aggregates
+     *            A {@link Collection} of the {@link Aggregate} objects to be offered.
+     */
+    @SuppressWarnings("unchecked")
+    private void offer(PriorityQueue<Hotspot> heap, RankComparator ranking, String parent, Collection<? extends Aggregate> aggregates) {
+        for (Aggregate aggregate : aggregates) {
+            final String name = parent == null ? aggregate.getName() : parent + RegressionDetector.PATH_SEPARATOR + aggregate.getName();
+            if (heap.size() < limit)
+                heap.add(new Hotspot(name, aggregate));
+            else if (ranking.compare(aggregate, name, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(new Hotspot(name, aggregate));
+            }
+
+            if (aggregate.hasChilds())
+                offer(heap, ranking, name, (Collection<Aggregate>) aggregate.getChilds().values());
+        }
+    }
+
+    /**
+     * A {@link Comparator} that orders hotspots from the highest value of a metric to the lowest, and then by full name.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private static class RankComparator implements Comparator<Hotspot> {
+        private final Metric metric;
+
+        /**
+         * Create a comparator.
+         * 
+         * @param metric
+         *            The {@link Metric} by which aggregates are to be ordered.
+         */
+        public RankComparator(Metric metric) {
+            this.metric = metric;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int compare(Hotspot o1, Hotspot o2) {
+            return compare(o1.getAggregate(), o1.getName(), o2);
+        }
+
+        /**
+         * Compare an aggregate that is not yet a hotspot to a hotspot.
+         * 
+         * @param aggregate
+         *            The {@link Aggregate} to be compared.
+         * @param name
+         *            The full name of the aggregate.
+         * @param hotspot
+         *            The {@link Hotspot} to which it is to be compared.
+         * @return A negative number, zero or a positive number if the aggregate ranks above, equal to or below the hotspot.
+         */
+        public int compare(Aggregate aggregate, String name, Hotspot hotspot) {
+            final int comparison = Double.compare(metric.valueOf(hotspot.getAggregate()), metric.valueOf(aggregate));
+            return comparison == 0 ? name.compareTo(hotspot.getName()) : comparison;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.google.code.jetm.maven.data;
+
+/**
+ * A histogram of measured times, in milliseconds, in logarithmically-sized
+ * buckets. Each bucket covers times a fixed ratio apart, so a percentile read
+ * out of the histogram is within about two percent of the exact value,
+ * however large or small the times are.
+ * <p />
+ * Times are clamped to the range from {@link #MIN_TRACKABLE} to
+ * {@link #MAX_TRACKABLE}, so a histogram never holds more than a fixed number
+ * of buckets, and only the range of buckets between the smallest and largest
+ * recorded times is actually allocated. Merging two histograms costs time in
+ * proportion to their number of buckets, not to the number of recorded times.
+ * <p />
+ * Instances of this class are not thread-safe.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class LatencyHistogram {
+    /**
+     * The ratio between the bounds of each bucket.
+     */
+    static final double RATIO = 1.04;
+
+    /**
+     * The smallest time, in milliseconds, that is told apart from smaller
+     * times.
+     */
+    public static final double MIN_TRACKABLE = 1.0E-6;
+
+    /**
+     * The largest time, in milliseconds, that is told apart from larger times.
+     */
+    public static final double MAX_TRACKABLE = 1.0E9;
+
+    /**
+     * The index of the bucket holding the smallest times.
+     */
+    public static final int MIN_INDEX = rawIndexOf(MIN_TRACKABLE);
+
+    /**
+     * The index of the bucket holding the largest times.
+     */
+    public static final int MAX_INDEX = rawIndexOf(MAX_TRACKABLE);
+
+    private long[] counts;
+    private int offset;
+    private long count;
+
+    /**
+     * Get the index of the bucket into which a time falls.
+     * 
+     * @param millis
+     *            The time, in milliseconds.
+     * @return The index of the bucket holding the given time.
+     */
+    public static int indexOf(double millis) {
+        if (!(millis > MIN_TRACKABLE))
+            return MIN_INDEX;
+        if (millis >= MAX_TRACKABLE)
+            return MAX_INDEX;
+        return rawIndexOf(millis);
+    }
+
+    /**
+     * Get the time represented by a bucket.
+     * 
+     * @param index
+     *            The index of the bucket.
+     * @return The geometric middle of the bucket's range, in milliseconds.
+     */
+    public static double valueOf(int index) {
+        return Math.pow(RATIO, index + 0.5);
+    }
+
+    /**
+     * Record a time.
+     * 
+     * @param millis
+     *            The time, in milliseconds, to be recorded.
+     */
+    public void record(double millis) {
+        recordIndex(indexOf(millis), 1);
+    }
+
+    /**
+     * Record times by the bucket into which they fall.
+     * 
+     * @param index
+     *            The index of the bucket.
+     * @param times
+     *            The number of times to be recorded in the bucket.
+     * @throws IllegalArgumentException
+     *             If the index is outside of the range from {@link #MIN_INDEX}
+     *             to {@link #MAX_INDEX} or the number of times is negative.
+     */
+    public void recordIndex(int index, long times) {
+        if (index < MIN_INDEX || index > MAX_INDEX)
+            throw new IllegalArgumentException("Bucket index out of range: " + index);
+
+        if (times < 0)
+            throw new IllegalArgumentException("Count cannot be negative: " + times);
+
+        if (times == 0)
+            return;
+
+        ensureRange(index, index);
+        counts[index - offset] += times;
+        count += times;
+    }
+
+    /**
+     * Merge another histogram into this one.
+     * 
+     * @param other
+     *            The {@link LatencyHistogram} whose counts are to be added to
+     *            this histogram; it is not modified.
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.isEmpty())
+            return;
+
+        ensureRange(other.getLowestIndex(), other.getHighestIndex());
+        for (int i = 0; i < other.counts.length; i++)
+            counts[other.offset + i - offset] += other.counts[i];
+        count += other.count;
+    }
+
+    /**
+     * Create a copy of this histogram.
+     * 
+     * @return A {@link LatencyHistogram} with the same counts as this
+     *         histogram.
+     */
+    public LatencyHistogram copy() {
+        final LatencyHistogram copy = new LatencyHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Get the total number of recorded times.
+     * 
+     * @return The number of times recorded in this histogram.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of times recorded in a bucket.
+     * 
+     * @param index
+     *            The index of the bucket.
+     * @return The number of times recorded in the bucket.
+     */
+    public long getCount(int index) {
+        if (counts == null || index < offset || index >= offset + counts.length)
+            return 0;
+        return counts[index - offset];
+    }
+
+    /**
+     * Get the index of the lowest bucket that may hold times.
+     * 
+     * @return The index of the lowest allocated bucket.
+     * @throws IllegalStateException
+     *             If this histogram is empty.
+     */
+    public int getLowestIndex() {
+        if (counts == null)
+            throw new IllegalStateException("Histogram is empty.");
+        return offset;
+    }
+
+    /**
+     * Get the index of the highest bucket that may hold times.
+     * 
+     * @return The index of the highest allocated bucket.
+     * @throws IllegalStateException
+     *             If this histogram is empty.
+     */
+    public int getHighestIndex() {
+        if (counts == null)
+            throw new IllegalStateException("Histogram is empty.");
+        return offset + counts.length - 1;
+    }
+
+    /**
+     * Get a percentile of the recorded times.
+     * 
+     * @param percentile
+     *            The percentile, greater than 0 and no greater than 100.
+     * @return The time, in milliseconds, at or below which the given
+     *         percentage of the recorded times fall.
+     * @throws IllegalArgumentException
+     *             If the percentile is out of range.
+     * @throws IllegalStateException
+     *             If this histogram is empty.
+     */
+    public double getPercentile(double percentile) {
+        if (!(percentile > 0 && percentile <= 100))
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+
+        if (isEmpty())
+            throw new IllegalStateException("Histogram is empty.");
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return valueOf(offset + i);
+        }
+        return valueOf(getHighestIndex());
+    }
+
+    /**
+     * Determine whether any times have been recorded.
+     * 
+     * @return {@code true} if no times have been recorded.
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Make sure that buckets are allocated for a range of indices.
+     * 
+     * @param lowest
+     *            The lowest index that must be allocated.
+     * @param highest
+     *            The highest index that must be allocated.
+     */
+    private void ensureRange(int lowest, int highest) {
+        if (counts == null) {
+            counts = new long[highest - lowest + 1];
+            offset = lowest;
+            return;
+        }
+
+        final int currentHighest = offset + counts.length - 1;
+        if (lowest >= offset && highest <= currentHighest)
+            return;
+
+        final int newOffset = Math.min(lowest, offset);
+        final long[] expanded = new long[Math.max(highest, currentHighest) - newOffset + 1];
+        System.arraycopy(counts, 0, expanded, offset - newOffset, counts.length);
+        counts = expanded;
+        offset = newOffset;
+    }
+
+    /**
+     * Calculate the index of a time without clamping it.
+     * 
+     * @param millis
+     *            The time, in milliseconds; it must be positive.
+     * @return The index of the bucket holding the given time.
+     */
+    private static int rawIndexOf(double millis) {
+        return (int) Math.floor(Math.log(millis) / Math.log(RATIO));
+    }
+}
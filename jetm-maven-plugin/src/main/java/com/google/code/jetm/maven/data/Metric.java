@@ -0,0 +1,97 @@
+package com.google.code.jetm.maven.data;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Enumerations of the figures of a summary that can be checked against a baseline or a budget.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public enum Metric {
+    /**
+     * The average time of a measurement.
+     */
+    AVERAGE("average") {
+        @Override
+        public double valueOf(SummaryTable table, int id) {
+            final long measurements = table.getMeasurements(id);
+            return measurements == 0 ? 0 : table.getTotal(id) / measurements;
+        }
+
+        @Override
+        public double valueOf(Aggregate aggregate) {
+            return aggregate.getMeasurements() == 0 ? 0 : aggregate.getTotal() / aggregate.getMeasurements();
+        }
+    },
+    /**
+     * The longest time of a measurement.
+     */
+    MAXIMUM("maximum") {
+        @Override
+        public double valueOf(SummaryTable table, int id) {
+            return table.getMax(id);
+        }
+
+        @Override
+        public double valueOf(Aggregate aggregate) {
+            return aggregate.getMax();
+        }
+    },
+    /**
+     * The total time of all measurements.
+     */
+    TOTAL("total") {
+        @Override
+        public double valueOf(SummaryTable table, int id) {
+            return table.getTotal(id);
+        }
+
+        @Override
+        public double valueOf(Aggregate aggregate) {
+            return aggregate.getTotal();
+        }
+    };
+
+    private final String displayName;
+
+    /**
+     * Create a metric enumeration.
+     * 
+     * @param displayName
+     *            The name by which the metric is displayed.
+     */
+    private Metric(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Get the value of this metric for a summary.
+     * 
+     * @param table
+     *            The {@link SummaryTable} holding the summary.
+     * @param id
+     *            The id of the summary.
+     * @return The value, in milliseconds, of this metric for the given summary.
+     */
+    public abstract double valueOf(SummaryTable table, int id);
+
+    /**
+     * Get the value of this metric for an aggregate.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} whose value is to be retrieved.
+     * @return The value, in milliseconds, of this metric for the given aggregate.
+     */
+    public abstract double valueOf(Aggregate aggregate);
+
+    /**
+     * Get the display name of this metric.
+     * 
+     * @return The name by which the metric is displayed.
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
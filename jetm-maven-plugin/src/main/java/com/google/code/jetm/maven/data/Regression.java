@@ -0,0 +1,79 @@
+package com.google.code.jetm.maven.data;
+
+/**
+ * A bean describing a figure of a measurement that has grown beyond its threshold.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class Regression {
+    private final String name;
+    private final Metric metric;
+    private final double baseline;
+    private final double current;
+
+    /**
+     * Create a regression.
+     * 
+     * @param name
+     *            The name of the measurement, including the names of the measurements within which it is nested.
+     * @param metric
+     *            The {@link Metric} that regressed.
+     * @param baseline
+     *            The baseline value, in milliseconds.
+     * @param current
+     *            The current value, in milliseconds.
+     */
+    public Regression(String name, Metric metric, double baseline, double current) {
+        this.name = name;
+        this.metric = metric;
+        this.baseline = baseline;
+        this.current = current;
+    }
+
+    /**
+     * Get the name of the measurement.
+     * 
+     * @return The name of the measurement, including the names of the measurements within which it is nested.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the metric that regressed.
+     * 
+     * @return The {@link Metric} that regressed.
+     */
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Get the baseline value.
+     * 
+     * @return The baseline value, in milliseconds.
+     */
+    public double getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Get the current value.
+     * 
+     * @return The current value, in milliseconds.
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * Get the increase relative to the baseline value.
+     * 
+     * @return The increase, as a percentage of the baseline value; {@link Double#POSITIVE_INFINITY} if the baseline value is 0.
+     */
+    public double getIncreasePercent() {
+        return baseline <= 0 ? Double.POSITIVE_INFINITY : (current - baseline) / baseline * 100;
+    }
+}
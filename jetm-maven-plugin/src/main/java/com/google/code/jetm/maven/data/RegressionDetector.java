@@ -0,0 +1,106 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A detector of regressions between a baseline and a current set of summaries.
+ * <p />
+ * The two sets are joined by a single pass over the current summaries: because a {@link SummaryTable} assigns parents lower ids than the summaries nested within them, each current summary is
+ * looked up in the baseline's hash table beneath the already-joined baseline id of its parent. The join therefore costs one hash lookup per summary, no matter how many there are or how deeply they
+ * are nested.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class RegressionDetector {
+    /**
+     * The separator placed between the names of nested measurements in the names of regressions.
+     */
+    public static final String PATH_SEPARATOR = " > ";
+
+    /**
+     * The joined id of a summary that has no counterpart in the baseline.
+     */
+    private static final int UNMATCHED = -2;
+
+    private final Map<Metric, Threshold> thresholds = new EnumMap<Metric, Threshold>(Metric.class);
+    private int unmatched;
+
+    /**
+     * Set the threshold of a metric.
+     * 
+     * @param metric
+     *            The {@link Metric} to be checked.
+     * @param threshold
+     *            The {@link Threshold} beyond which the metric regresses; if {@code null} or not enabled, the metric is not checked.
+     */
+    public void setThreshold(Metric metric, Threshold threshold) {
+        if (threshold == null || !threshold.isEnabled())
+            thresholds.remove(metric);
+        else
+            thresholds.put(metric, threshold);
+    }
+
+    /**
+     * Detect regressions.
+     * 
+     * @param baseline
+     *            The {@link SummaryTable} holding the baseline summaries.
+     * @param current
+     *            The {@link SummaryTable} holding the current summaries.
+     * @return A {@link List} of {@link Regression} objects describing every metric of every summary that grew beyond its threshold, in the order of the current summaries.
+     */
+    public List<Regression> detect(SummaryTable baseline, SummaryTable current) {
+        final List<Regression> regressions = new ArrayList<Regression>();
+        final int[] joined = new int[current.size()];
+        unmatched = 0;
+        for (int id = 0; id < joined.length; id++) {
+            final int parent = current.getParent(id);
+            final int baselineParent = parent == SummaryTable.ROOT ? SummaryTable.ROOT : joined[parent];
+            final int baselineId = baselineParent == UNMATCHED ? -1 : baseline.indexOf(baselineParent, current.getName(id));
+            if (baselineId < 0) {
+                joined[id] = UNMATCHED;
+                unmatched++;
+                continue;
+            }
+
+            joined[id] = baselineId;
+            for (Entry<Metric, Threshold> threshold : thresholds.entrySet()) {
+                final Metric metric = threshold.getKey();
+                final double baselineValue = metric.valueOf(baseline, baselineId);
+                final double currentValue = metric.valueOf(current, id);
+                if (threshold.getValue().isExceeded(baselineValue, currentValue))
+                    regressions.add(new Regression(getPath(current, id), metric, baselineValue, currentValue));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Get the number of current summaries that had no counterpart in the baseline during the last detection.
+     * 
+     * @return The number of unmatched summaries.
+     */
+    public int getUnmatched() {
+        return unmatched;
+    }
+
+    /**
+     * Get the full name of a summary.
+     * 
+     * @param table
+     *            The {@link SummaryTable} holding the summary.
+     * @param id
+     *            The id of the summary.
+     * @return The names of the summary and of the summaries within which it is nested, outermost first.
+     */
+    public static String getPath(SummaryTable table, int id) {
+        final int parent = table.getParent(id);
+        return parent == SummaryTable.ROOT ? table.getName(id) : getPath(table, parent) + PATH_SEPARATOR + table.getName(id);
+    }
+}
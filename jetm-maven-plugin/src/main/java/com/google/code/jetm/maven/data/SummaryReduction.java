@@ -0,0 +1,81 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A fork/join task that combines partial {@link SummaryTable} objects into a
+ * single table by a tree reduction: each half of the partials is reduced in
+ * parallel, and the two halves are then merged. Because merging is
+ * associative, the result is the same as merging the partials one after the
+ * other.
+ * <p />
+ * The partials are consumed by the reduction; the tables passed in are merged
+ * into and must not be used afterwards.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+class SummaryReduction extends RecursiveTask<SummaryTable> {
+    private static final long serialVersionUID = 6812349085932016442L;
+
+    private final List<SummaryTable> partials;
+    private final int from;
+    private final int to;
+
+    /**
+     * Reduce partial tables into one.
+     * 
+     * @param partials
+     *            A {@link List} of {@link SummaryTable} objects representing
+     *            the partial tables to be combined.
+     * @return A {@link SummaryTable} containing the contents of all of the
+     *         given partials.
+     */
+    static SummaryTable reduce(List<SummaryTable> partials) {
+        if (partials.isEmpty())
+            return new SummaryTable();
+
+        if (partials.size() == 1)
+            return partials.get(0);
+
+        final ForkJoinPool pool = new ForkJoinPool(Math.min(partials.size() / 2, Runtime.getRuntime().availableProcessors()));
+        try {
+            return pool.invoke(new SummaryReduction(partials, 0, partials.size()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Create a reduction of a range of partial tables.
+     * 
+     * @param partials
+     *            A {@link List} of all of the partial tables.
+     * @param from
+     *            The index of the first table to be reduced, inclusive.
+     * @param to
+     *            The index of the last table to be reduced, exclusive.
+     */
+    private SummaryReduction(List<SummaryTable> partials, int from, int to) {
+        this.partials = partials;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected SummaryTable compute() {
+        if (to - from == 1)
+            return partials.get(from);
+
+        final int middle = (from + to) >>> 1;
+        final SummaryReduction left = new SummaryReduction(partials, from, middle);
+        left.fork();
+        final SummaryTable right = new SummaryReduction(partials, middle, to).compute();
+        final SummaryTable reduced = left.join();
+        reduced.merge(right);
+        return reduced;
+    }
+}
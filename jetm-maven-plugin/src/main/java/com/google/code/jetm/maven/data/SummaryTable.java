@@ -0,0 +1,451 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A compact store of summarized aggregate data. Every distinct measurement is
+ * assigned a dense integer id, and the minimum, maximum, total and count of
+ * each measurement are kept in parallel primitive arrays indexed by that id,
+ * so that a summary costs a handful of array slots rather than an object, a
+ * map entry and boxed values.
+ * <p />
+ * Nested measurements are kept as a tree: each measurement is identified by
+ * the id of the measurement within which it is nested (or {@link #ROOT} for
+ * top-level measurements) and its name, and those pairs are looked up through
+ * an open-addressing hash table of ids. Adding a nested measurement therefore
+ * only needs the id of its parent, rather than a walk from the top of the
+ * tree. Parents are always assigned lower ids than the measurements nested
+ * within them.
+ * <p />
+ * Histograms, which most measurements do not have, are kept in a separate
+ * array of objects that is only allocated once the first histogram is added.
+ * <p />
+ * Summaries are only materialized as {@link AggregateSummary} objects, through
+ * {@link #toSummaries()}, once the data is to be rendered. Instances of this
+ * class are not thread-safe.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryTable {
+    /**
+     * The parent id of top-level measurements.
+     */
+    public static final int ROOT = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = -1;
+
+    private String[] names;
+    private int[] parents;
+    private int[] hashes;
+    private double[] mins;
+    private double[] maxes;
+    private double[] totals;
+    private long[] counts;
+    private LatencyHistogram[] histograms;
+    private int size;
+
+    /**
+     * The hash slots, each holding the id of a measurement or {@link #EMPTY}.
+     * There are always twice as many slots as there is room for measurements,
+     * so the slots are never more than half full.
+     */
+    private int[] slots;
+
+    /**
+     * Create an empty table.
+     */
+    public SummaryTable() {
+        names = new String[INITIAL_CAPACITY];
+        parents = new int[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        mins = new double[INITIAL_CAPACITY];
+        maxes = new double[INITIAL_CAPACITY];
+        totals = new double[INITIAL_CAPACITY];
+        counts = new long[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * Add a top-level aggregate, and all of the aggregates nested within it,
+     * to the summaries of the same names.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} to be added.
+     * @return The id of the summary to which the aggregate was added.
+     */
+    public int add(Aggregate aggregate) {
+        return add(ROOT, aggregate);
+    }
+
+    /**
+     * Add an aggregate, and all of the aggregates nested within it, to the
+     * summaries of the same names.
+     * 
+     * @param parent
+     *            The id of the summary within which the aggregate is nested;
+     *            {@link #ROOT} if it is a top-level aggregate.
+     * @param aggregate
+     *            The {@link Aggregate} to be added.
+     * @return The id of the summary to which the aggregate was added.
+     */
+    @SuppressWarnings("unchecked")
+    public int add(int parent, Aggregate aggregate) {
+        final int id = add(parent, aggregate.getName(), aggregate.getMin(), aggregate.getMax(), aggregate.getTotal(), aggregate.getMeasurements());
+        if (aggregate instanceof HistogramAggregate)
+            addHistogram(id, ((HistogramAggregate) aggregate).getHistogram());
+        if (aggregate.hasChilds())
+            for (Aggregate child : (Collection<Aggregate>) aggregate.getChilds().values())
+                add(id, child);
+        return id;
+    }
+
+    /**
+     * Add summarized data to the top-level summary of the given name, creating
+     * it if it does not yet exist.
+     * 
+     * @param name
+     *            The name of the summary.
+     * @param min
+     *            The minimum to be folded into the summary.
+     * @param max
+     *            The maximum to be folded into the summary.
+     * @param total
+     *            The total to be added to the summary.
+     * @param measurements
+     *            The number of measurements to be added to the summary.
+     * @return The id of the summary to which the data was added.
+     * @throws IllegalArgumentException
+     *             If the given name is {@code null}.
+     */
+    public int add(String name, double min, double max, double total, long measurements) {
+        return add(ROOT, name, min, max, total, measurements);
+    }
+
+    /**
+     * Add summarized data to the summary of the given name, creating it if it
+     * does not yet exist.
+     * 
+     * @param parent
+     *            The id of the summary within which the summary is nested;
+     *            {@link #ROOT} if it is a top-level summary.
+     * @param name
+     *            The name of the summary.
+     * @param min
+     *            The minimum to be folded into the summary.
+     * @param max
+     *            The maximum to be folded into the summary.
+     * @param total
+     *            The total to be added to the summary.
+     * @param measurements
+     *            The number of measurements to be added to the summary.
+     * @return The id of the summary to which the data was added.
+     * @throws IllegalArgumentException
+     *             If the given name is {@code null}.
+     * @throws IndexOutOfBoundsException
+     *             If the given parent is neither {@link #ROOT} nor the id of a
+     *             summary in this table.
+     */
+    public int add(int parent, String name, double min, double max, double total, long measurements) {
+        if (name == null)
+            throw new IllegalArgumentException("Name cannot be null.");
+
+        if (parent != ROOT)
+            checkId(parent);
+
+        final int hash = hash(parent, name);
+        int slot = spread(hash) & (slots.length - 1);
+        int id;
+        while ((id = slots[slot]) != EMPTY) {
+            if (hashes[id] == hash && parents[id] == parent && names[id].equals(name)) {
+                mins[id] = Math.min(mins[id], min);
+                maxes[id] = Math.max(maxes[id], max);
+                totals[id] += total;
+                counts[id] += measurements;
+                return id;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+
+        if (size == names.length) {
+            grow();
+            slot = spread(hash) & (slots.length - 1);
+            while (slots[slot] != EMPTY)
+                slot = (slot + 1) & (slots.length - 1);
+        }
+
+        id = size++;
+        slots[slot] = id;
+        names[id] = name;
+        parents[id] = parent;
+        hashes[id] = hash;
+        mins[id] = min;
+        maxes[id] = max;
+        totals[id] = total;
+        counts[id] = measurements;
+        return id;
+    }
+
+    /**
+     * Merge a histogram into that of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @param histogram
+     *            The {@link LatencyHistogram} to be merged into the summary's
+     *            histogram; it is not modified. If {@code null} or empty, the
+     *            summary is left unchanged.
+     */
+    public void addHistogram(int id, LatencyHistogram histogram) {
+        checkId(id);
+        if (histogram == null || histogram.isEmpty())
+            return;
+
+        if (histograms == null)
+            histograms = new LatencyHistogram[names.length];
+
+        if (histograms[id] == null)
+            histograms[id] = histogram.copy();
+        else
+            histograms[id].merge(histogram);
+    }
+
+    /**
+     * Fold the contents of another table into this one. Because parents
+     * precede the summaries nested within them, each summary of the other
+     * table is added directly beneath its already-merged parent.
+     * 
+     * @param other
+     *            The {@link SummaryTable} whose contents are to be added to
+     *            this table; it is not modified.
+     */
+    public void merge(SummaryTable other) {
+        final int[] merged = new int[other.size];
+        for (int id = 0; id < other.size; id++) {
+            final int parent = other.parents[id] == ROOT ? ROOT : merged[other.parents[id]];
+            merged[id] = add(parent, other.names[id], other.mins[id], other.maxes[id], other.totals[id], other.counts[id]);
+            if (other.histograms != null)
+                addHistogram(merged[id], other.histograms[id]);
+        }
+    }
+
+    /**
+     * Get the id of a top-level summary.
+     * 
+     * @param name
+     *            The name of the summary.
+     * @return The id of the top-level summary by the given name; -1 if there is
+     *         none.
+     */
+    public int indexOf(String name) {
+        return indexOf(ROOT, name);
+    }
+
+    /**
+     * Get the id of a summary.
+     * 
+     * @param parent
+     *            The id of the summary within which the summary is nested;
+     *            {@link #ROOT} if it is a top-level summary.
+     * @param name
+     *            The name of the summary.
+     * @return The id of the summary by the given name; -1 if there is none.
+     */
+    public int indexOf(int parent, String name) {
+        final int hash = hash(parent, name);
+        int slot = spread(hash) & (slots.length - 1);
+        int id;
+        while ((id = slots[slot]) != EMPTY) {
+            if (hashes[id] == hash && parents[id] == parent && names[id].equals(name))
+                return id;
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Get the number of summaries in the table, at all levels of nesting. Ids
+     * run from 0 up to, but not including, this number.
+     * 
+     * @return The number of summaries in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the name of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The name of the summary.
+     */
+    public String getName(int id) {
+        return names[checkId(id)];
+    }
+
+    /**
+     * Get the parent of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The id of the summary within which the summary is nested;
+     *         {@link #ROOT} if it is a top-level summary.
+     */
+    public int getParent(int id) {
+        return parents[checkId(id)];
+    }
+
+    /**
+     * Get the minimum of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The smallest minimum recorded for the summary.
+     */
+    public double getMin(int id) {
+        return mins[checkId(id)];
+    }
+
+    /**
+     * Get the maximum of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The largest maximum recorded for the summary.
+     */
+    public double getMax(int id) {
+        return maxes[checkId(id)];
+    }
+
+    /**
+     * Get the total of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The sum of all totals recorded for the summary.
+     */
+    public double getTotal(int id) {
+        return totals[checkId(id)];
+    }
+
+    /**
+     * Get the number of measurements of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The sum of all measurement counts recorded for the summary.
+     */
+    public long getMeasurements(int id) {
+        return counts[checkId(id)];
+    }
+
+    /**
+     * Get the histogram of a summary.
+     * 
+     * @param id
+     *            The id of the summary.
+     * @return The {@link LatencyHistogram} of the summary; {@code null} if no
+     *         histogram has been added to it.
+     */
+    public LatencyHistogram getHistogram(int id) {
+        checkId(id);
+        return histograms == null ? null : histograms[id];
+    }
+
+    /**
+     * Materialize the contents of this table.
+     * 
+     * @return A {@link List} of {@link AggregateSummary} objects representing
+     *         the top-level summaries, in the order of their ids; the summaries
+     *         nested within them are available as their children.
+     */
+    public List<AggregateSummary> toSummaries() {
+        final List<AggregateSummary> topLevel = new ArrayList<AggregateSummary>();
+        final AggregateSummary[] summaries = new AggregateSummary[size];
+        for (int id = 0; id < size; id++) {
+            summaries[id] = new AggregateSummary(names[id], mins[id], maxes[id], totals[id], counts[id], histograms == null ? null : histograms[id]);
+            if (parents[id] == ROOT)
+                topLevel.add(summaries[id]);
+            else
+                summaries[parents[id]].addChild(summaries[id]);
+        }
+        return topLevel;
+    }
+
+    /**
+     * Verify that an id refers to a summary in this table.
+     * 
+     * @param id
+     *            The id to be verified.
+     * @return The given id.
+     * @throws IndexOutOfBoundsException
+     *             If the given id does not refer to a summary.
+     */
+    private int checkId(int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("Unknown summary id: " + id);
+        return id;
+    }
+
+    /**
+     * Double the capacity of the parallel arrays and rebuild the hash slots to
+     * match.
+     */
+    private void grow() {
+        final int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        mins = Arrays.copyOf(mins, capacity);
+        maxes = Arrays.copyOf(maxes, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        if (histograms != null)
+            histograms = Arrays.copyOf(histograms, capacity);
+
+        final int[] rehashed = new int[capacity * 2];
+        Arrays.fill(rehashed, EMPTY);
+        final int mask = rehashed.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (rehashed[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            rehashed[slot] = id;
+        }
+        slots = rehashed;
+    }
+
+    /**
+     * Calculate the hash code of a summary.
+     * 
+     * @param parent
+     *            The id of the summary within which the summary is nested.
+     * @param name
+     *            The name of the summary.
+     * @return The hash code of the pair.
+     */
+    private static int hash(int parent, String name) {
+        return name.hashCode() * 31 + parent;
+    }
+
+    /**
+     * Spread the bits of a hash code so that keys whose hash codes differ only
+     * in their upper bits do not collide in the slots.
+     * 
+     * @param hash
+     *            The hash code to be spread.
+     * @return The spread hash code.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
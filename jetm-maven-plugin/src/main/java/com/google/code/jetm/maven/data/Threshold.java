@@ -0,0 +1,67 @@
+package com.google.code.jetm.maven.data;
+
+/**
+ * A limit on how much a figure may grow over its baseline value. The growth may be limited relative to the baseline value, as a percentage, or absolutely, in milliseconds, or both. When both
+ * limits are set, the threshold is exceeded only when the growth exceeds both of them, so that the absolute limit serves as a noise floor beneath which no relative growth of a small figure counts.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class Threshold {
+    private final Double maxIncreasePercent;
+    private final Double maxIncreaseMillis;
+
+    /**
+     * Create a threshold.
+     * 
+     * @param maxIncreasePercent
+     *            The largest allowed increase, as a percentage of the baseline value; if {@code null}, the relative increase is not limited.
+     * @param maxIncreaseMillis
+     *            The largest allowed increase, in milliseconds; if {@code null}, the absolute increase is not limited.
+     * @throws IllegalArgumentException
+     *             If either limit is negative.
+     */
+    public Threshold(Double maxIncreasePercent, Double maxIncreaseMillis) {
+        if (maxIncreasePercent != null && maxIncreasePercent.doubleValue() < 0)
+            throw new IllegalArgumentException("Relative threshold cannot be negative: " + maxIncreasePercent);
+
+        if (maxIncreaseMillis != null && maxIncreaseMillis.doubleValue() < 0)
+            throw new IllegalArgumentException("Absolute threshold cannot be negative: " + maxIncreaseMillis);
+
+        this.maxIncreasePercent = maxIncreasePercent;
+        this.maxIncreaseMillis = maxIncreaseMillis;
+    }
+
+    /**
+     * Determine whether this threshold limits anything at all.
+     * 
+     * @return {@code true} if either a relative or an absolute limit is set.
+     */
+    public boolean isEnabled() {
+        return maxIncreasePercent != null || maxIncreaseMillis != null;
+    }
+
+    /**
+     * Determine whether a value has grown beyond this threshold.
+     * 
+     * @param baseline
+     *            The baseline value.
+     * @param current
+     *            The current value.
+     * @return {@code true} if the current value exceeds the baseline value by more than every limit that is set.
+     */
+    public boolean isExceeded(double baseline, double current) {
+        final double increase = current - baseline;
+        if (!(increase > 0))
+            return false;
+
+        if (maxIncreaseMillis != null && !(increase > maxIncreaseMillis.doubleValue()))
+            return false;
+
+        if (maxIncreasePercent != null && baseline > 0 && !(increase / baseline * 100 > maxIncreasePercent.doubleValue()))
+            return false;
+
+        return isEnabled();
+    }
+}
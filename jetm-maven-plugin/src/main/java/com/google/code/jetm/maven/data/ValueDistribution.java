@@ -0,0 +1,80 @@
+package com.google.code.jetm.maven.data;
+
+import java.util.Random;
+
+/**
+ * Enumerations of the distributions from which synthetic measurement times can be drawn.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public enum ValueDistribution {
+    /**
+     * Every time is the mean.
+     */
+    CONSTANT {
+        @Override
+        public double sample(Random random, double mean) {
+            return mean;
+        }
+    },
+    /**
+     * Times are spread evenly between 0 and twice the mean.
+     */
+    UNIFORM {
+        @Override
+        public double sample(Random random, double mean) {
+            return random.nextDouble() * 2 * mean;
+        }
+    },
+    /**
+     * Times are exponentially distributed: most are short, with a long tail.
+     */
+    EXPONENTIAL {
+        @Override
+        public double sample(Random random, double mean) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+    },
+    /**
+     * Times are log-normally distributed, with a shape of 1; this resembles the latencies of most real-world operations.
+     */
+    LOG_NORMAL {
+        @Override
+        public double sample(Random random, double mean) {
+            /*
+             * With a shape (sigma) of 1, a scale (mu) of ln(mean) - 1/2 yields the given mean
+             */
+            return Math.exp(Math.log(mean) - 0.5 + random.nextGaussian());
+        }
+    };
+
+    /**
+     * Get a distribution from its configured value. The comparison is case-insensitive.
+     * 
+     * @param value
+     *            The configured value from which to obtain the corresponding enumeration.
+     * @return A {@link ValueDistribution} enumeration corresponding to the given value.
+     * @throws IllegalArgumentException
+     *             If the given value is not known.
+     */
+    public static ValueDistribution fromMojoValue(String value) {
+        for (ValueDistribution distribution : values())
+            if (distribution.name().equalsIgnoreCase(value))
+                return distribution;
+
+        throw new IllegalArgumentException("Unrecognized value distribution: " + value);
+    }
+
+    /**
+     * Draw a time from this distribution.
+     * 
+     * @param random
+     *            The {@link Random} from which the time is to be drawn.
+     * @param mean
+     *            The mean, in milliseconds, of the distribution.
+     * @return A time, in milliseconds.
+     */
+    public abstract double sample(Random random, double mean);
+}
@@ -0,0 +1,122 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An export of summaries and timing file contents to one file per {@link ExportFormat}, all sharing the same base name within a directory. Each file is written by its own
+ * {@link AggregateExportWriter}, in UTF-8.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class AggregateExport implements TimingFileVisitor, Closeable {
+    private final List<AggregateExportWriter> writers = new ArrayList<AggregateExportWriter>();
+    private final List<File> files = new ArrayList<File>();
+
+    /**
+     * Create an export, creating (or replacing) its files.
+     * 
+     * @param directory
+     *            The directory to which the files are to be written. It will be created if it does not exist.
+     * @param baseName
+     *            The name, without extension, of each file.
+     * @param formats
+     *            A {@link Collection} of {@link ExportFormat} enumerations representing the formats to be written.
+     * @throws IOException
+     *             If any of the files cannot be created.
+     */
+    public AggregateExport(File directory, String baseName, Collection<ExportFormat> formats) throws IOException {
+        FileUtils.forceMkdir(directory);
+        try {
+            for (ExportFormat format : formats) {
+                final File file = new File(directory, baseName + format.getExtension());
+                final FileOutputStream output = new FileOutputStream(file);
+                writers.add(format.createWriter(new BufferedWriter(new OutputStreamWriter(output, "UTF-8"))));
+                files.add(file);
+            }
+        } catch (IOException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * Write the contents of a timing file in every format.
+     * 
+     * @param file
+     *            The timing {@link File} from which the aggregates were read.
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects representing the contents of the file.
+     * @throws IOException
+     *             If the contents cannot be written.
+     */
+    public void visit(File file, List<Aggregate> aggregates) throws IOException {
+        for (AggregateExportWriter writer : writers)
+            writer.visit(file, aggregates);
+    }
+
+    /**
+     * Write the summaries in every format.
+     * 
+     * @param summaries
+     *            A {@link Collection} of {@link Aggregate} objects representing the summaries to be written.
+     * @throws IOException
+     *             If the summaries cannot be written.
+     */
+    public void writeSummaries(Collection<? extends Aggregate> summaries) throws IOException {
+        for (AggregateExportWriter writer : writers)
+            writer.writeSummaries(summaries);
+    }
+
+    /**
+     * Get the files of this export.
+     * 
+     * @return A {@link List} of {@link File} objects representing the files written by this export.
+     */
+    public List<File> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Finish and close every file of this export.
+     * 
+     * @throws IOException
+     *             If any of the files cannot be finished.
+     */
+    public void close() throws IOException {
+        IOException failure = null;
+        for (AggregateExportWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = e;
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Close every file of this export, ignoring any failures.
+     */
+    public void closeQuietly() {
+        for (AggregateExportWriter writer : writers)
+            IOUtils.closeQuietly(writer);
+    }
+}
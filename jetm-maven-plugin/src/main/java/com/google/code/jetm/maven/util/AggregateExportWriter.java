@@ -0,0 +1,166 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A writer of summaries and timing file contents in a machine-readable format. The contents of each timing file are written as the file is visited, and the summaries are written once, after the
+ * last file; nothing is buffered beyond the row being written, so the memory used does not grow with the number of files or measurements exported. Times are written in milliseconds.
+ * <p />
+ * It is safe to use from several threads at once, although its output is only meaningful if the files are visited in a consistent order.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public abstract class AggregateExportWriter implements TimingFileVisitor, Closeable {
+    private final Writer writer;
+    private boolean summarized;
+    private boolean closed;
+
+    /**
+     * Create a writer.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the export is to be written; it is closed when this writer is closed.
+     * @throws IllegalArgumentException
+     *             If the given writer is {@code null}.
+     */
+    protected AggregateExportWriter(Writer writer) {
+        if (writer == null)
+            throw new IllegalArgumentException("Writer cannot be null.");
+
+        this.writer = writer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException
+     *             If the summaries have already been written.
+     */
+    public synchronized void visit(File file, List<Aggregate> aggregates) throws IOException {
+        if (summarized || closed)
+            throw new IllegalStateException("The summaries have already been written.");
+
+        writeFile(writer, file, sort(aggregates));
+    }
+
+    /**
+     * Write the summaries, after which no more files can be written.
+     * 
+     * @param summaries
+     *            A {@link Collection} of {@link Aggregate} objects representing the summaries to be written.
+     * @throws IOException
+     *             If the summaries cannot be written.
+     * @throws IllegalStateException
+     *             If the summaries have already been written.
+     */
+    public synchronized void writeSummaries(Collection<? extends Aggregate> summaries) throws IOException {
+        if (summarized || closed)
+            throw new IllegalStateException("The summaries have already been written.");
+
+        summarized = true;
+        writeSummaries(writer, sort(summaries));
+    }
+
+    /**
+     * Finish the export and close the underlying writer. If no summaries have been written, the export is finished without them.
+     * 
+     * @throws IOException
+     *             If the export cannot be finished.
+     */
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            finish(writer, summarized);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write the contents of a timing file.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the contents are to be written.
+     * @param file
+     *            The timing {@link File} from which the aggregates were read.
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects representing the contents of the file, sorted by name.
+     * @throws IOException
+     *             If the contents cannot be written.
+     */
+    protected abstract void writeFile(Writer writer, File file, List<? extends Aggregate> aggregates) throws IOException;
+
+    /**
+     * Write the summaries.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the summaries are to be written.
+     * @param summaries
+     *            A {@link List} of {@link Aggregate} objects representing the summaries, sorted by name.
+     * @throws IOException
+     *             If the summaries cannot be written.
+     */
+    protected abstract void writeSummaries(Writer writer, List<? extends Aggregate> summaries) throws IOException;
+
+    /**
+     * Finish the export.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the end of the export is to be written.
+     * @param summarized
+     *            {@code true} if the summaries were written.
+     * @throws IOException
+     *             If the export cannot be finished.
+     */
+    protected abstract void finish(Writer writer, boolean summarized) throws IOException;
+
+    /**
+     * Get the aggregates nested within an aggregate.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} whose children are to be retrieved.
+     * @return A {@link List} of {@link Aggregate} objects representing the children of the given aggregate, sorted by name.
+     */
+    @SuppressWarnings("unchecked")
+    protected List<? extends Aggregate> getChildren(Aggregate aggregate) {
+        return aggregate.hasChilds() ? sort((Collection<Aggregate>) aggregate.getChilds().values()) : Collections.<Aggregate> emptyList();
+    }
+
+    /**
+     * Format a time.
+     * 
+     * @param millis
+     *            The time, in milliseconds, to be formatted.
+     * @return The time as a decimal number; {@code null} if it is not a finite number.
+     */
+    protected String formatTime(double millis) {
+        return Double.isNaN(millis) || Double.isInfinite(millis) ? null : Double.toString(millis);
+    }
+
+    /**
+     * Sort aggregates by name.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be sorted.
+     * @return A {@link List} of the given aggregates, sorted by an {@link AggregateComparator}.
+     */
+    private List<? extends Aggregate> sort(Collection<? extends Aggregate> aggregates) {
+        final List<Aggregate> sorted = new ArrayList<Aggregate>(aggregates);
+        Collections.sort(sorted, new AggregateComparator());
+        return sorted;
+    }
+}
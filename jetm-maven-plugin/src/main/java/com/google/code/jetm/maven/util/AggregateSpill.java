@@ -0,0 +1,227 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A temporary file to which the contents of timing files are spilled as they are read, so that they can be replayed, one file at a time and in the order in which they were spilled, without
+ * holding all of them in memory. Each file's aggregates are stored in the compact format written by the {@link BinaryAggregateWriter}, and only the position of each file's contents is kept in
+ * memory, so the contents of any single file can also be {@link #read(int) read} on their own.
+ * <p />
+ * A spill must be {@link #close() closed} to delete its temporary file. Spilling is not thread-safe, but once a spill is {@link #finish() finished}, its contents may be read by several threads
+ * at once.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class AggregateSpill implements TimingFileVisitor, Closeable {
+    private final File spillFile;
+    private final BinaryAggregateWriter writer = new BinaryAggregateWriter();
+    private final List<File> files = new ArrayList<File>();
+    private long[] offsets = new long[16];
+    private CountingOutputStream counter;
+    private DataOutputStream output;
+
+    /**
+     * Create a spill.
+     * 
+     * @param directory
+     *            The directory in which the temporary file is to be created; if {@code null}, the default temporary directory is used. It is created if it does not exist.
+     * @throws IOException
+     *             If the temporary file cannot be created.
+     */
+    public AggregateSpill(File directory) throws IOException {
+        if (directory != null)
+            FileUtils.forceMkdir(directory);
+
+        spillFile = File.createTempFile("jetm-spill", ".tmp", directory);
+        counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+        output = new DataOutputStream(counter);
+    }
+
+    /**
+     * Spill the contents of a timing file.
+     * 
+     * @param file
+     *            The timing {@link File} that was read.
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects representing the timings read within the file.
+     * @throws IOException
+     *             If the contents cannot be written.
+     * @throws IllegalStateException
+     *             If the spill has already been finished or closed.
+     */
+    public void visit(File file, List<Aggregate> aggregates) throws IOException {
+        append(file, aggregates);
+    }
+
+    /**
+     * Spill the contents of a timing file.
+     * 
+     * @param file
+     *            The timing {@link File} that was read.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects representing the timings read within the file.
+     * @throws IOException
+     *             If the contents cannot be written.
+     * @throws IllegalStateException
+     *             If the spill has already been finished or closed.
+     */
+    public void append(File file, Collection<? extends Aggregate> aggregates) throws IOException {
+        if (output == null)
+            throw new IllegalStateException("The spill is no longer writable.");
+
+        final ByteArrayOutputStream block = new ByteArrayOutputStream();
+        writer.write(aggregates, block);
+
+        if (files.size() == offsets.length)
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[files.size()] = counter.getByteCount();
+        files.add(file);
+
+        output.writeUTF(file.getPath());
+        output.writeInt(block.size());
+        block.writeTo(output);
+    }
+
+    /**
+     * Finish spilling, so that the spilled contents can be read. Nothing more can be spilled afterwards; finishing a spill more than once has no further effect.
+     * 
+     * @throws IOException
+     *             If the spilled contents cannot be written out.
+     */
+    public synchronized void finish() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    /**
+     * Get a file whose contents were spilled.
+     * 
+     * @param index
+     *            The index of the file, in the order in which the files were spilled.
+     * @return The timing {@link File} whose contents were spilled at the given index.
+     * @throws IndexOutOfBoundsException
+     *             If no file was spilled at the given index.
+     */
+    public File getFile(int index) {
+        return files.get(index);
+    }
+
+    /**
+     * Read the spilled contents of a single file, {@link #finish() finishing} the spill if needed.
+     * 
+     * @param index
+     *            The index of the file, in the order in which the files were spilled.
+     * @return A {@link List} of {@link Aggregate} objects representing the timings read within the file.
+     * @throws IndexOutOfBoundsException
+     *             If no file was spilled at the given index.
+     * @throws IOException
+     *             If the spilled contents cannot be read.
+     */
+    public List<Aggregate> read(int index) throws IOException {
+        if (index < 0 || index >= files.size())
+            throw new IndexOutOfBoundsException("No file was spilled at index: " + index);
+
+        finish();
+        final RandomAccessFile input = new RandomAccessFile(spillFile, "r");
+        try {
+            input.seek(offsets[index]);
+            input.readUTF();
+            final byte[] block = new byte[input.readInt()];
+            input.readFully(block);
+            return readBlock(block);
+        } catch (EOFException e) {
+            throw new IOException("The spill file has been truncated: " + spillFile, e);
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Replay the spilled contents, one file at a time and in the order in which they were spilled, {@link #finish() finishing} the spill if needed. A spill can be replayed any number of
+     * times.
+     * 
+     * @param visitor
+     *            The {@link TimingFileVisitor} to which the contents of each file are to be passed.
+     * @throws IOException
+     *             If the spilled contents cannot be read, or the visitor fails.
+     */
+    public void replay(TimingFileVisitor visitor) throws IOException {
+        finish();
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)));
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                final File file = new File(input.readUTF());
+                final byte[] block = new byte[input.readInt()];
+                input.readFully(block);
+                visitor.visit(file, readBlock(block));
+            }
+        } catch (EOFException e) {
+            throw new IOException("The spill file has been truncated: " + spillFile, e);
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Get the number of files whose contents have been spilled.
+     * 
+     * @return The number of spilled files.
+     */
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * Delete the temporary file of this spill.
+     */
+    public synchronized void close() {
+        IOUtils.closeQuietly(output);
+        output = null;
+        FileUtils.deleteQuietly(spillFile);
+    }
+
+    /**
+     * Read the aggregates out of the spilled contents of a file.
+     * 
+     * @param block
+     *            The spilled contents of the file.
+     * @return A {@link List} of {@link Aggregate} objects representing the timings read within the file.
+     * @throws IOException
+     *             If the contents cannot be read.
+     */
+    private static List<Aggregate> readBlock(byte[] block) throws IOException {
+        final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+        new BinaryAggregateReader().read(new ByteArrayInputStream(block), new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+                aggregates.add(aggregate);
+            }
+        });
+        return aggregates;
+    }
+}
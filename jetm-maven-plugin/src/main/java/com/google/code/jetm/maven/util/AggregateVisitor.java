@@ -0,0 +1,21 @@
+package com.google.code.jetm.maven.util;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A callback that receives aggregates, one at a time, as they are read out of
+ * a timing file.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public interface AggregateVisitor {
+    /**
+     * Visit an aggregate.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} that was read.
+     */
+    void visit(Aggregate aggregate);
+}
@@ -0,0 +1,158 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A reader of the compact binary timing format written by the {@link BinaryAggregateWriter}. Each top-level aggregate is handed to an {@link AggregateVisitor}, along with the aggregates nested within it, as soon as it has been read.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BinaryAggregateReader {
+    /**
+     * The deepest nesting of aggregates that will be read, to guard against corrupt data.
+     */
+    private static final int MAX_DEPTH = 256;
+
+    /**
+     * The longest name, in bytes, that will be read, to guard against corrupt data.
+     */
+    private static final int MAX_NAME_LENGTH = 1 << 20;
+
+    /**
+     * The most names for which room is reserved before they are read; the dictionary grows beyond it only as names are actually read, so a corrupt count cannot exhaust the heap.
+     */
+    private static final int INITIAL_NAME_CAPACITY = 1024;
+
+    /**
+     * The most histogram buckets that a single aggregate can have.
+     */
+    private static final int MAX_BUCKETS = LatencyHistogram.MAX_INDEX - LatencyHistogram.MIN_INDEX + 1;
+
+    /**
+     * Read the aggregates out of the given binary data.
+     * 
+     * @param input
+     *            The {@link InputStream} from which the data is to be read. It is the responsibility of the caller to close it.
+     * @param visitor
+     *            The {@link AggregateVisitor} to which each aggregate is to be passed as it is read.
+     * @throws IOException
+     *             If the data cannot be read or is not in the binary timing format.
+     */
+    public void read(InputStream input, AggregateVisitor visitor) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != BinaryAggregateWriter.MAGIC)
+            throw new IOException("Data is not in the binary timing format.");
+
+        final int version = data.readInt();
+        if (version != BinaryAggregateWriter.VERSION)
+            throw new IOException("Unsupported binary timing format version: " + version);
+
+        final int nameCount = readCount(data, Integer.MAX_VALUE);
+        final List<String> names = new ArrayList<String>(Math.min(nameCount, INITIAL_NAME_CAPACITY));
+        for (int i = 0; i < nameCount; i++) {
+            final byte[] bytes = new byte[readCount(data, MAX_NAME_LENGTH)];
+            data.readFully(bytes);
+            names.add(new String(bytes, BinaryAggregateWriter.NAME_CHARSET));
+        }
+
+        final int records = readCount(data, Integer.MAX_VALUE);
+        for (int i = 0; i < records; i++)
+            visitor.visit(readRecord(data, names, i, 0));
+    }
+
+    /**
+     * Read a record, along with the records of all of the aggregates nested within it.
+     * 
+     * @param data
+     *            The {@link DataInputStream} from which the record is to be read.
+     * @param names
+     *            A {@link List} representing the dictionary of names.
+     * @param index
+     *            The index of the record among its siblings.
+     * @param depth
+     *            The nesting depth of the record; 0 for top-level records.
+     * @return An {@link Aggregate} representing the record.
+     * @throws IOException
+     *             If the record cannot be read or is invalid.
+     */
+    private Aggregate readRecord(DataInputStream data, List<String> names, int index, int depth) throws IOException {
+        final int nameIndex = data.readInt();
+        if (nameIndex < 0 || nameIndex >= names.size())
+            throw new IOException("Record " + index + " refers to an unknown name: " + nameIndex);
+
+        final double min = data.readDouble();
+        final double max = data.readDouble();
+        final double total = data.readDouble();
+        final long measurements = data.readLong();
+        final LatencyHistogram histogram = readHistogram(data);
+        final int childCount = readCount(data, Integer.MAX_VALUE);
+        if (childCount == 0 && histogram == null)
+            return new XmlAggregate(min, max, total, measurements, names.get(nameIndex));
+
+        if (depth >= MAX_DEPTH)
+            throw new IOException("Binary timing data is nested more than " + MAX_DEPTH + " levels deep.");
+
+        final TimingAggregate aggregate = new TimingAggregate(min, max, total, measurements, names.get(nameIndex));
+        aggregate.setHistogram(histogram);
+        for (int i = 0; i < childCount; i++)
+            aggregate.addChild(readRecord(data, names, i, depth + 1));
+        return aggregate;
+    }
+
+    /**
+     * Read a histogram.
+     * 
+     * @param data
+     *            The {@link DataInputStream} from which the histogram is to be read.
+     * @return A {@link LatencyHistogram} representing the histogram that was read; {@code null} if it was empty.
+     * @throws IOException
+     *             If the histogram cannot be read or is invalid.
+     */
+    private LatencyHistogram readHistogram(DataInputStream data) throws IOException {
+        final int buckets = readCount(data, MAX_BUCKETS);
+        if (buckets == 0)
+            return null;
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < buckets; i++) {
+            final int index = data.readInt();
+            final long count = data.readLong();
+            try {
+                histogram.recordIndex(index, count);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid histogram bucket in binary timing data: " + e.getMessage(), e);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Read a count or length.
+     * 
+     * @param data
+     *            The {@link DataInputStream} from which the value is to be read.
+     * @param max
+     *            The largest value that is valid.
+     * @return The value that was read.
+     * @throws IOException
+     *             If the value cannot be read, is negative or exceeds the given maximum.
+     */
+    private int readCount(DataInputStream data, int max) throws IOException {
+        final int count = data.readInt();
+        if (count < 0 || count > max)
+            throw new IOException("Invalid count in binary timing data: " + count);
+        return count;
+    }
+}
@@ -0,0 +1,162 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.code.jetm.maven.data.HistogramAggregate;
+import com.google.code.jetm.maven.data.LatencyHistogram;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A writer of the compact binary timing format. The format consists of:
+ * <ol>
+ * <li>a header made up of a magic number and a format version;</li>
+ * <li>a dictionary of every distinct measurement name, each written once as length-prefixed UTF-8;</li>
+ * <li>the number of top-level aggregates, followed by a record for each of them, made up of the index of its name within the dictionary, its minimum, maximum, total and number of measurements, its histogram (the number of non-empty buckets, followed by the index and count of each) and the number of aggregates nested within it; the records of the nested aggregates immediately follow that of their parent.</li>
+ * </ol>
+ * Files in this format are read by the {@link BinaryAggregateReader}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BinaryAggregateWriter {
+    /**
+     * The number identifying a file as being in this format.
+     */
+    static final int MAGIC = 0x4a45544d;
+
+    /**
+     * The version of the format written by this writer.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The character set in which measurement names are encoded.
+     */
+    static final Charset NAME_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Write aggregates, along with all of the aggregates nested within them.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be written.
+     * @param output
+     *            The {@link OutputStream} to which the aggregates are to be written. It is the responsibility of the caller to close it.
+     * @throws IOException
+     *             If any errors occur during the write-out.
+     */
+    public void write(Collection<? extends Aggregate> aggregates, OutputStream output) throws IOException {
+        final Map<String, Integer> dictionary = new LinkedHashMap<String, Integer>();
+        addNames(aggregates, dictionary);
+
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+
+        data.writeInt(dictionary.size());
+        for (String name : dictionary.keySet()) {
+            final byte[] bytes = name.getBytes(NAME_CHARSET);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+
+        data.writeInt(aggregates.size());
+        writeRecords(aggregates, dictionary, data);
+        data.flush();
+    }
+
+    /**
+     * Add the names of aggregates, and of all of the aggregates nested within them, to the dictionary.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects whose names are to be added.
+     * @param dictionary
+     *            A {@link Map} of names to their indices within the dictionary, to which the names are to be added.
+     */
+    private void addNames(Collection<? extends Aggregate> aggregates, Map<String, Integer> dictionary) {
+        for (Aggregate aggregate : aggregates) {
+            if (!dictionary.containsKey(aggregate.getName()))
+                dictionary.put(aggregate.getName(), Integer.valueOf(dictionary.size()));
+            if (aggregate.hasChilds())
+                addNames(getChilds(aggregate), dictionary);
+        }
+    }
+
+    /**
+     * Write the records of aggregates, each followed by the records of the aggregates nested within it.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be written.
+     * @param dictionary
+     *            A {@link Map} of names to their indices within the dictionary.
+     * @param data
+     *            The {@link DataOutputStream} to which the records are to be written.
+     * @throws IOException
+     *             If any errors occur during the write-out.
+     */
+    private void writeRecords(Collection<? extends Aggregate> aggregates, Map<String, Integer> dictionary, DataOutputStream data) throws IOException {
+        for (Aggregate aggregate : aggregates) {
+            final Collection<Aggregate> childs = aggregate.hasChilds() ? getChilds(aggregate) : Collections.<Aggregate> emptyList();
+            data.writeInt(dictionary.get(aggregate.getName()).intValue());
+            data.writeDouble(aggregate.getMin());
+            data.writeDouble(aggregate.getMax());
+            data.writeDouble(aggregate.getTotal());
+            data.writeLong(aggregate.getMeasurements());
+            writeHistogram(aggregate instanceof HistogramAggregate ? ((HistogramAggregate) aggregate).getHistogram() : null, data);
+            data.writeInt(childs.size());
+            writeRecords(childs, dictionary, data);
+        }
+    }
+
+    /**
+     * Write the non-empty buckets of a histogram.
+     * 
+     * @param histogram
+     *            The {@link LatencyHistogram} to be written; this may be {@code null}, in which case an empty histogram is written.
+     * @param data
+     *            The {@link DataOutputStream} to which the histogram is to be written.
+     * @throws IOException
+     *             If any errors occur during the write-out.
+     */
+    private void writeHistogram(LatencyHistogram histogram, DataOutputStream data) throws IOException {
+        if (histogram == null || histogram.isEmpty()) {
+            data.writeInt(0);
+            return;
+        }
+
+        int buckets = 0;
+        for (int index = histogram.getLowestIndex(); index <= histogram.getHighestIndex(); index++)
+            if (histogram.getCount(index) > 0)
+                buckets++;
+
+        data.writeInt(buckets);
+        for (int index = histogram.getLowestIndex(); index <= histogram.getHighestIndex(); index++) {
+            final long count = histogram.getCount(index);
+            if (count > 0) {
+                data.writeInt(index);
+                data.writeLong(count);
+            }
+        }
+    }
+
+    /**
+     * Get the aggregates nested within an aggregate.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} whose nested aggregates are to be retrieved.
+     * @return A {@link Collection} of the nested {@link Aggregate} objects.
+     */
+    @SuppressWarnings("unchecked")
+    private Collection<Aggregate> getChilds(Aggregate aggregate) {
+        return aggregate.getChilds().values();
+    }
+}
@@ -0,0 +1,57 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import etm.core.aggregation.Aggregate;
+import etm.core.renderer.MeasurementRenderer;
+
+/**
+ * A {@link MeasurementRenderer} that writes the measurements of an {@code EtmMonitor} in the compact binary timing format. It is used in the same way as the {@code BindingMeasurementRenderer}:
+ * 
+ * <pre>
+ * final OutputStream output = new FileOutputStream(&quot;target/jetm/timings.jetm&quot;);
+ * try {
+ *     monitor.render(new BinaryMeasurementRenderer(output));
+ * } finally {
+ *     output.close();
+ * }
+ * </pre>
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BinaryMeasurementRenderer implements MeasurementRenderer {
+    private final OutputStream output;
+    private final BinaryAggregateWriter writer = new BinaryAggregateWriter();
+
+    /**
+     * Create a renderer.
+     * 
+     * @param output
+     *            The {@link OutputStream} to which the measurements are to be written. It is the responsibility of the caller to close it.
+     */
+    public BinaryMeasurementRenderer(OutputStream output) {
+        this.output = output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    public void render(Map points) {
+        final Collection<Aggregate> aggregates = new ArrayList<Aggregate>(points.size());
+        for (Object point : points.values())
+            aggregates.add((Aggregate) point);
+
+        try {
+            writer.write(aggregates, output);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write aggregate data.", e);
+        }
+    }
+}
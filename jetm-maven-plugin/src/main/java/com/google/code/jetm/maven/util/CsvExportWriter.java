@@ -0,0 +1,135 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.google.code.jetm.maven.data.RegressionDetector;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An {@link AggregateExportWriter} that writes comma-separated values, one row per aggregate, with the columns:
+ * <ol>
+ * <li><code>scope</code>: <code>file</code> for the contents of a timing file, or <code>summary</code> for a summary</li>
+ * <li><code>file</code>: the path of the timing file; empty for a summary</li>
+ * <li><code>name</code>: the name of the aggregate, preceded by the names of the aggregates it is nested within, separated by {@value RegressionDetector#PATH_SEPARATOR}</li>
+ * <li><code>measurements</code>, <code>minimum</code>, <code>maximum</code>, <code>average</code> and <code>total</code></li>
+ * </ol>
+ * Values are quoted as described by RFC 4180 when necessary.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class CsvExportWriter extends AggregateExportWriter {
+    private boolean started;
+
+    /**
+     * Create a writer.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the rows are to be written; it is closed when this writer is closed.
+     */
+    public CsvExportWriter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    protected void writeFile(Writer writer, File file, List<? extends Aggregate> aggregates) throws IOException {
+        start(writer);
+        writeRows(writer, "file", file.getPath(), null, aggregates);
+    }
+
+    @Override
+    protected void writeSummaries(Writer writer, List<? extends Aggregate> summaries) throws IOException {
+        start(writer);
+        writeRows(writer, "summary", "", null, summaries);
+    }
+
+    @Override
+    protected void finish(Writer writer, boolean summarized) throws IOException {
+        start(writer);
+    }
+
+    /**
+     * Write the header row, if it has not yet been written.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the rows are written.
+     * @throws IOException
+     *             If the header cannot be written.
+     */
+    private void start(Writer writer) throws IOException {
+        if (started)
+            return;
+
+        started = true;
+        writer.write("scope,file,name,measurements,minimum,maximum,average,total\r\n");
+    }
+
+    /**
+     * Write the rows of aggregates, each followed by the rows of the aggregates nested within it.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the rows are to be written.
+     * @param scope
+     *            The scope of the rows.
+     * @param file
+     *            The path of the file from which the aggregates were read.
+     * @param parent
+     *            The path of the aggregate enclosing the given aggregates; {@code null} if they are not nested.
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects to be written.
+     * @throws IOException
+     *             If the rows cannot be written.
+     */
+    private void writeRows(Writer writer, String scope, String file, String parent, List<? extends Aggregate> aggregates) throws IOException {
+        for (Aggregate aggregate : aggregates) {
+            final String path = parent == null ? aggregate.getName() : parent + RegressionDetector.PATH_SEPARATOR + aggregate.getName();
+            writer.write(scope);
+            writer.write(',');
+            writeValue(writer, file);
+            writer.write(',');
+            writeValue(writer, path);
+            writer.write(',');
+            writer.write(Long.toString(aggregate.getMeasurements()));
+            writer.write(',');
+            writeValue(writer, formatTime(aggregate.getMin()));
+            writer.write(',');
+            writeValue(writer, formatTime(aggregate.getMax()));
+            writer.write(',');
+            writeValue(writer, formatTime(aggregate.getMeasurements() == 0 ? 0 : aggregate.getTotal() / aggregate.getMeasurements()));
+            writer.write(',');
+            writeValue(writer, formatTime(aggregate.getTotal()));
+            writer.write("\r\n");
+
+            writeRows(writer, scope, file, path, getChildren(aggregate));
+        }
+    }
+
+    /**
+     * Write a value, quoting it if it contains a comma, a quote or a line break.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the value is to be written.
+     * @param value
+     *            The value to be written; {@code null} is written as an empty value.
+     * @throws IOException
+     *             If the value cannot be written.
+     */
+    private void writeValue(Writer writer, String value) throws IOException {
+        if (value == null)
+            return;
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,106 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enumerations of the machine-readable formats in which summaries and timing file contents can be exported.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public enum ExportFormat {
+    /**
+     * A single JSON document, written by the {@link JsonExportWriter}.
+     */
+    JSON(".json") {
+        @Override
+        public AggregateExportWriter createWriter(Writer writer) {
+            return new JsonExportWriter(writer);
+        }
+    },
+    /**
+     * Comma-separated values, one row per measurement, written by the {@link CsvExportWriter}.
+     */
+    CSV(".csv") {
+        @Override
+        public AggregateExportWriter createWriter(Writer writer) {
+            return new CsvExportWriter(writer);
+        }
+    };
+
+    /**
+     * Get a format from its configured value. The comparison is case-insensitive.
+     * 
+     * @param value
+     *            The configured value from which to obtain the corresponding enumeration.
+     * @return An {@link ExportFormat} enumeration corresponding to the given value.
+     * @throws IllegalArgumentException
+     *             If the given value is not known.
+     */
+    public static ExportFormat fromMojoValue(String value) {
+        for (ExportFormat format : values())
+            if (format.name().equalsIgnoreCase(value))
+                return format;
+
+        throw new IllegalArgumentException("Unrecognized export format: " + value);
+    }
+
+    /**
+     * Get the formats named by a comma-separated list of configured values.
+     * 
+     * @param values
+     *            The configured values, separated by commas; this may be {@code null}.
+     * @return A {@link List} of {@link ExportFormat} enumerations corresponding to the given values, in the given order and without duplicates; empty if no values are given.
+     * @throws IllegalArgumentException
+     *             If any of the given values is not known.
+     * @see #fromMojoValue(String)
+     */
+    public static List<ExportFormat> fromMojoValues(String values) {
+        final List<ExportFormat> formats = new ArrayList<ExportFormat>();
+        if (values == null)
+            return formats;
+
+        for (String value : values.split(",")) {
+            if (value.trim().length() == 0)
+                continue;
+
+            final ExportFormat format = fromMojoValue(value.trim());
+            if (!formats.contains(format))
+                formats.add(format);
+        }
+        return formats;
+    }
+
+    private final String extension;
+
+    /**
+     * Create a format enumeration.
+     * 
+     * @param extension
+     *            The extension, including the leading period, of files written in this format.
+     */
+    private ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Create a writer of this format.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the export is to be written; it is closed when the returned writer is closed.
+     * @return An {@link AggregateExportWriter} that writes this format.
+     */
+    public abstract AggregateExportWriter createWriter(Writer writer);
+
+    /**
+     * Get the extension of files written in this format.
+     * 
+     * @return The extension, including the leading period.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,189 @@
+package com.google.code.jetm.maven.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.code.jetm.maven.data.LatencyHistogram;
+
+import etm.core.aggregation.Aggregate;
+import etm.core.aggregation.Aggregator;
+import etm.core.metadata.AggregatorMetaData;
+import etm.core.monitor.EtmMonitorContext;
+import etm.core.monitor.EtmPoint;
+import etm.core.renderer.MeasurementRenderer;
+
+/**
+ * An {@link Aggregator} that records a {@link LatencyHistogram} of the times
+ * of every measurement, by name and nesting, in addition to handing the
+ * measurement on to another aggregator. When rendered, the aggregates of the
+ * other aggregator are passed on as {@link TimingAggregate} objects carrying
+ * their histograms, so that renderers that write histograms, such as the
+ * {@link BinaryMeasurementRenderer} or the {@link StaxAggregateBinder}, can
+ * record them.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class HistogramAggregator implements Aggregator {
+    /**
+     * The character separating the names of nested measurements within the
+     * keys of the histograms.
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    private final Aggregator delegate;
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+
+    /**
+     * Create an aggregator.
+     * 
+     * @param delegate
+     *            The {@link Aggregator} to which every measurement is to be
+     *            handed on.
+     * @throws IllegalArgumentException
+     *             If the given aggregator is {@code null}.
+     */
+    public HistogramAggregator(Aggregator delegate) {
+        if (delegate == null)
+            throw new IllegalArgumentException("Delegate aggregator cannot be null.");
+
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void add(EtmPoint point) {
+        final String key = getKey(point);
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            final LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(key, created);
+            if (histogram == null)
+                histogram = created;
+        }
+
+        synchronized (histogram) {
+            histogram.record(point.getTransactionTime());
+        }
+        delegate.add(point);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void reset() {
+        histograms.clear();
+        delegate.reset();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void reset(String symbolicName) {
+        final String prefix = symbolicName + SEPARATOR;
+        for (String key : histograms.keySet())
+            if (key.equals(symbolicName) || key.startsWith(prefix))
+                histograms.remove(key);
+        delegate.reset(symbolicName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void render(final MeasurementRenderer renderer) {
+        delegate.render(new MeasurementRenderer() {
+            @SuppressWarnings("rawtypes")
+            public void render(Map points) {
+                renderer.render(withHistograms(points, ""));
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public AggregatorMetaData getMetaData() {
+        return delegate.getMetaData();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void init(EtmMonitorContext context) {
+        delegate.init(context);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void start() {
+        delegate.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void stop() {
+        delegate.stop();
+    }
+
+    /**
+     * Copy aggregates, attaching the histograms recorded for them.
+     * 
+     * @param points
+     *            A {@link Map} of names to the {@link Aggregate} objects to be
+     *            copied.
+     * @param prefix
+     *            The key prefix of the given aggregates; empty for top-level
+     *            aggregates.
+     * @return A {@link Map} of the names to {@link TimingAggregate} objects
+     *         representing the copied aggregates.
+     */
+    @SuppressWarnings("rawtypes")
+    private Map<String, Aggregate> withHistograms(Map points, String prefix) {
+        final Map<String, Aggregate> copies = new LinkedHashMap<String, Aggregate>();
+        for (Object point : points.values()) {
+            final Aggregate aggregate = (Aggregate) point;
+            final String key = prefix + aggregate.getName();
+            final TimingAggregate copy = new TimingAggregate(aggregate.getMin(), aggregate.getMax(), aggregate.getTotal(), aggregate.getMeasurements(), aggregate.getName());
+
+            final LatencyHistogram histogram = histograms.get(key);
+            if (histogram != null)
+                synchronized (histogram) {
+                    copy.setHistogram(histogram.copy());
+                }
+
+            if (aggregate.hasChilds())
+                for (Aggregate child : withHistograms(aggregate.getChilds(), key + SEPARATOR).values())
+                    copy.addChild(child);
+
+            copies.put(aggregate.getName(), copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Get the key of the histogram of a measurement.
+     * 
+     * @param point
+     *            The {@link EtmPoint} representing the measurement.
+     * @return The names of the measurement and of the measurements within
+     *         which it is nested, outermost first.
+     */
+    private String getKey(EtmPoint point) {
+        if (point.getParent() == null)
+            return point.getName();
+        return getKey(point.getParent()) + SEPARATOR + point.getName();
+    }
+}
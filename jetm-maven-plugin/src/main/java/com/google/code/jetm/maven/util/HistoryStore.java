@@ -0,0 +1,407 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+import com.google.code.jetm.maven.data.HistoryPoint;
+import com.google.code.jetm.maven.data.RegressionDetector;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An append-only store of the summaries of every recorded build, kept in a local directory across builds. It consists of two files:
+ * <ul>
+ * <li><code>history.dat</code>, holding, per build, its identifier and timestamp followed by a fixed-size entry for each of its summaries, made up of the number of its name and its figures</li>
+ * <li><code>history.idx</code>, holding, per build, its identifier, timestamp and the offset of its first entry in the data file, the names first recorded by the build, and the number of the name
+ * of each of its entries</li>
+ * </ul>
+ * Every name is written to the index only once, by the first build that records it, and is numbered in the order in which it was first recorded. As the entries of a build are of a fixed size
+ * and follow one another in the data file, the index needs only the number of each name to locate its entry. The index is read into memory as a series of build numbers and offsets per name, so
+ * that the history of a single name is read by seeking directly to its entries rather than by scanning the whole data file; once read, only the records appended since are read again. Nested
+ * summaries are recorded under their full path, with the names of the summaries enclosing them separated by {@value RegressionDetector#PATH_SEPARATOR}.
+ * <p />
+ * A build is committed by appending its index record once its data has been written; an index record that was only partially written (e.g., by an interrupted build) is discarded. Each build
+ * identifier may be recorded only once. Appends are guarded by a file lock, so separate processes can share a store, and the store is safe to use from several threads at once.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class HistoryStore {
+    private static final int DATA_MAGIC = 0x4a455448;
+    private static final int INDEX_MAGIC = 0x4a455449;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final int ENTRY_LENGTH = 36;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final List<String> buildIds = new ArrayList<String>();
+    private final Map<String, Integer> buildNumbers = new HashMap<String, Integer>();
+    private final List<Long> timestamps = new ArrayList<Long>();
+    private final Map<String, Integer> nameNumbers = new HashMap<String, Integer>();
+    private final List<Series> series = new ArrayList<Series>();
+    private long indexLength;
+    private long readLength = -1;
+
+    /**
+     * Create a store.
+     * 
+     * @param directory
+     *            The directory in which the history is stored. It will be created when the first build is appended.
+     * @throws IllegalArgumentException
+     *             If the given directory is {@code null}.
+     */
+    public HistoryStore(File directory) {
+        if (directory == null)
+            throw new IllegalArgumentException("Directory cannot be null.");
+
+        this.dataFile = new File(directory, "history.dat");
+        this.indexFile = new File(directory, "history.idx");
+    }
+
+    /**
+     * Append the summaries of a build.
+     * 
+     * @param buildId
+     *            The identifier of the build.
+     * @param timestamp
+     *            The time, in milliseconds since the epoch, at which the build is recorded.
+     * @param summaries
+     *            A {@link Collection} of {@link Aggregate} objects representing the summaries of the build.
+     * @return {@code true} if the build was appended; {@code false} if a build with the same identifier is already recorded, in which case nothing is written.
+     * @throws IOException
+     *             If the build cannot be appended.
+     */
+    public synchronized boolean append(String buildId, long timestamp, Collection<? extends Aggregate> summaries) throws IOException {
+        FileUtils.forceMkdir(dataFile.getParentFile());
+
+        final RandomAccessFile indexOutput = new RandomAccessFile(indexFile, "rw");
+        try {
+            final FileLock lock = indexOutput.getChannel().lock();
+            try {
+                readIndex();
+                if (buildNumbers.containsKey(buildId))
+                    return false;
+
+                final List<String> entryNames = new ArrayList<String>();
+                final List<Aggregate> entries = new ArrayList<Aggregate>();
+                flatten(null, summaries, entryNames, entries);
+
+                final List<String> newNames = new ArrayList<String>();
+                final int[] entryNumbers = new int[entryNames.size()];
+                final Map<String, Integer> pendingNumbers = new HashMap<String, Integer>();
+                for (int i = 0; i < entryNumbers.length; i++) {
+                    final String name = entryNames.get(i);
+                    Integer number = nameNumbers.get(name);
+                    if (number == null)
+                        number = pendingNumbers.get(name);
+                    if (number == null) {
+                        number = Integer.valueOf(series.size() + newNames.size());
+                        pendingNumbers.put(name, number);
+                        newNames.add(name);
+                    }
+                    entryNumbers[i] = number.intValue();
+                }
+
+                final RandomAccessFile dataOutput = new RandomAccessFile(dataFile, "rw");
+                final long firstEntry;
+                try {
+                    if (dataOutput.length() == 0) {
+                        dataOutput.writeInt(DATA_MAGIC);
+                        dataOutput.writeInt(VERSION);
+                    }
+
+                    final ByteArrayOutputStream dataBlock = new ByteArrayOutputStream();
+                    final DataOutputStream data = new DataOutputStream(dataBlock);
+                    data.writeLong(timestamp);
+                    data.writeUTF(buildId);
+                    final int headerSize = data.size();
+                    for (int i = 0; i < entryNumbers.length; i++) {
+                        final Aggregate entry = entries.get(i);
+                        data.writeInt(entryNumbers[i]);
+                        data.writeLong(entry.getMeasurements());
+                        data.writeDouble(entry.getMin());
+                        data.writeDouble(entry.getMax());
+                        data.writeDouble(entry.getTotal());
+                    }
+                    data.flush();
+
+                    final long start = dataOutput.length();
+                    firstEntry = start + headerSize;
+                    dataOutput.seek(start);
+                    dataOutput.write(dataBlock.toByteArray());
+                } finally {
+                    dataOutput.close();
+                }
+
+                final ByteArrayOutputStream indexBlock = new ByteArrayOutputStream();
+                final DataOutputStream record = new DataOutputStream(indexBlock);
+                record.writeLong(timestamp);
+                record.writeUTF(buildId);
+                record.writeLong(firstEntry);
+                record.writeInt(newNames.size());
+                for (String name : newNames)
+                    record.writeUTF(name);
+                record.writeInt(entryNumbers.length);
+                for (int number : entryNumbers)
+                    record.writeInt(number);
+                record.flush();
+
+                /*
+                 * Discard any partially-written record left behind by an interrupted build before committing this one
+                 */
+                if (indexLength == 0) {
+                    indexOutput.setLength(0);
+                    indexOutput.writeInt(INDEX_MAGIC);
+                    indexOutput.writeInt(VERSION);
+                    indexLength = HEADER_LENGTH;
+                } else
+                    indexOutput.setLength(indexLength);
+                indexOutput.seek(indexLength);
+                indexOutput.write(indexBlock.toByteArray());
+
+                addBuild(buildId, timestamp, firstEntry, newNames, entryNumbers);
+                indexLength = readLength = indexOutput.length();
+                return true;
+            } finally {
+                lock.release();
+            }
+        } finally {
+            indexOutput.close();
+        }
+    }
+
+    /**
+     * Get the number of recorded builds.
+     * 
+     * @return The number of builds in the history.
+     * @throws IOException
+     *             If the index cannot be read.
+     */
+    public synchronized int getBuildCount() throws IOException {
+        readIndex();
+        return buildIds.size();
+    }
+
+    /**
+     * Get the history of a measurement.
+     * 
+     * @param name
+     *            The name of the measurement, including the names of the measurements within which it is nested.
+     * @param builds
+     *            The number of most recent builds whose history is to be retrieved.
+     * @return A {@link List} of {@link HistoryPoint} objects representing the measurement in each of the given number of most recent builds in which it was recorded, from the oldest build to the
+     *         newest.
+     * @throws IOException
+     *             If the history cannot be read.
+     */
+    public synchronized List<HistoryPoint> getHistory(String name, int builds) throws IOException {
+        readIndex();
+        final Integer number = nameNumbers.get(name);
+        if (number == null)
+            return Collections.emptyList();
+
+        final Series nameSeries = series.get(number.intValue());
+        final int firstBuild = buildIds.size() - builds;
+        int first = nameSeries.size;
+        while (first > 0 && nameSeries.builds[first - 1] >= firstBuild)
+            first--;
+
+        final List<HistoryPoint> points = new ArrayList<HistoryPoint>(nameSeries.size - first);
+        if (first == nameSeries.size)
+            return points;
+
+        final RandomAccessFile input = new RandomAccessFile(dataFile, "r");
+        try {
+            for (int i = first; i < nameSeries.size; i++) {
+                input.seek(nameSeries.offsets[i]);
+                if (input.readInt() != number.intValue())
+                    throw new IOException("The history does not match its index: " + dataFile);
+
+                final int build = nameSeries.builds[i];
+                points.add(new HistoryPoint(buildIds.get(build), timestamps.get(build).longValue(), input.readLong(), input.readDouble(), input.readDouble(), input.readDouble()));
+            }
+        } finally {
+            input.close();
+        }
+        return points;
+    }
+
+    /**
+     * Flatten summaries into a list of entries, each followed by the entries of the summaries nested within it.
+     * 
+     * @param parent
+     *            The path of the summary enclosing the given summaries; {@code null} if they are not nested.
+     * @param summaries
+     *            A {@link Collection} of {@link Aggregate} objects to be flattened.
+     * @param paths
+     *            A {@link List} to which the path of each entry is added.
+     * @param entries
+     *            A {@link List} to which each entry is added.
+     */
+    @SuppressWarnings("unchecked")
+    private void flatten(String parent, Collection<? extends Aggregate> summaries, List<String> paths, List<Aggregate> entries) {
+        for (Aggregate summary : summaries) {
+            final String path = parent == null ? summary.getName() : parent + RegressionDetector.PATH_SEPARATOR + summary.getName();
+            paths.add(path);
+            entries.add(summary);
+
+            if (summary.hasChilds())
+                flatten(path, (Collection<Aggregate>) summary.getChilds().values(), paths, entries);
+        }
+    }
+
+    /**
+     * Read any part of the index that has not yet been read into memory. If the index has been cut short since it was last read, it is read again in full.
+     * 
+     * @throws IOException
+     *             If the index cannot be read.
+     */
+    private void readIndex() throws IOException {
+        final long length = indexFile.length();
+        if (length == readLength)
+            return;
+
+        readLength = length;
+        if (length < indexLength || indexLength < HEADER_LENGTH) {
+            buildIds.clear();
+            buildNumbers.clear();
+            timestamps.clear();
+            nameNumbers.clear();
+            series.clear();
+            indexLength = 0;
+            if (length < HEADER_LENGTH)
+                return;
+        }
+
+        final FileInputStream file = new FileInputStream(indexFile);
+        final CountingInputStream counter = new CountingInputStream(new BufferedInputStream(file));
+        final DataInputStream input = new DataInputStream(counter);
+        try {
+            long position = indexLength;
+            if (position == 0) {
+                if (input.readInt() != INDEX_MAGIC || input.readInt() != VERSION)
+                    throw new IOException("Unrecognized history index: " + indexFile);
+                position = HEADER_LENGTH;
+            } else
+                file.getChannel().position(position);
+
+            final long start = position - counter.getByteCount();
+            final List<String> newNames = new ArrayList<String>();
+            while (true) {
+                try {
+                    final long timestamp = input.readLong();
+                    final String buildId = input.readUTF();
+                    final long firstEntry = input.readLong();
+                    newNames.clear();
+                    final int nameCount = input.readInt();
+                    for (int i = 0; i < nameCount; i++)
+                        newNames.add(input.readUTF());
+                    final int[] entryNumbers = new int[input.readInt()];
+                    for (int i = 0; i < entryNumbers.length; i++)
+                        entryNumbers[i] = input.readInt();
+
+                    addBuild(buildId, timestamp, firstEntry, newNames, entryNumbers);
+                    position = start + counter.getByteCount();
+                } catch (EOFException e) {
+                    /*
+                     * The last record was not completely written, so it is ignored and will be overwritten by the next append
+                     */
+                    break;
+                }
+            }
+            indexLength = position;
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Add a build to the in-memory index.
+     * 
+     * @param buildId
+     *            The identifier of the build.
+     * @param timestamp
+     *            The time at which the build was recorded.
+     * @param firstEntry
+     *            The offset, within the data file, of the first entry of the build.
+     * @param newNames
+     *            A {@link List} of the names first recorded by the build, in the order in which they are numbered.
+     * @param entryNumbers
+     *            The number of the name of each entry of the build.
+     * @throws IOException
+     *             If an entry refers to a name that is not known.
+     */
+    private void addBuild(String buildId, long timestamp, long firstEntry, List<String> newNames, int[] entryNumbers) throws IOException {
+        for (String name : newNames) {
+            nameNumbers.put(name, Integer.valueOf(series.size()));
+            series.add(new Series());
+        }
+
+        final int build = buildIds.size();
+        buildIds.add(buildId);
+        buildNumbers.put(buildId, Integer.valueOf(build));
+        timestamps.add(Long.valueOf(timestamp));
+        for (int i = 0; i < entryNumbers.length; i++) {
+            if (entryNumbers[i] < 0 || entryNumbers[i] >= series.size())
+                throw new IOException("The history index refers to an unknown name: " + entryNumbers[i]);
+            series.get(entryNumbers[i]).add(build, firstEntry + (long) i * ENTRY_LENGTH);
+        }
+    }
+
+    /**
+     * The builds in which a name was recorded, with the offset of its entry in the data file of each, held in parallel arrays that grow as builds are appended.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private static class Series {
+        private int size;
+        private int[] builds = new int[4];
+        private long[] offsets = new long[4];
+
+        /**
+         * Add a build to the series.
+         * 
+         * @param build
+         *            The number of the build.
+         * @param offset
+         *            The offset, within the data file, of the name's entry in the build.
+         */
+        public void add(int build, long offset) {
+            if (size == builds.length) {
+                final int[] grownBuilds = new int[size * 2];
+                System.arraycopy(builds, 0, grownBuilds, 0, size);
+                builds = grownBuilds;
+
+                final long[] grownOffsets = new long[size * 2];
+                System.arraycopy(offsets, 0, grownOffsets, 0, size);
+                offsets = grownOffsets;
+            }
+
+            builds[size] = build;
+            offsets[size] = offset;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An {@link AggregateExportWriter} that writes a single JSON document of the form:
+ * 
+ * <pre>
+ * {
+ *   "files": [ { "file": "...", "aggregates": [ ... ] }, ... ],
+ *   "summaries": [ ... ]
+ * }
+ * </pre>
+ * 
+ * Each aggregate is an object holding its <code>name</code>, <code>measurements</code>, <code>minimum</code>, <code>maximum</code>, <code>average</code> and <code>total</code>, and the aggregates
+ * nested within it as <code>children</code>. The document is written as a stream, one aggregate at a time.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class JsonExportWriter extends AggregateExportWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private boolean started;
+    private boolean firstFile = true;
+
+    /**
+     * Create a writer.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the document is to be written; it is closed when this writer is closed.
+     */
+    public JsonExportWriter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    protected void writeFile(Writer writer, File file, List<? extends Aggregate> aggregates) throws IOException {
+        start(writer);
+        if (!firstFile)
+            writer.write(',');
+        firstFile = false;
+
+        writer.write("\n    {\"file\": ");
+        writeString(writer, file.getPath());
+        writer.write(", \"aggregates\": ");
+        writeAggregates(writer, aggregates);
+        writer.write('}');
+    }
+
+    @Override
+    protected void writeSummaries(Writer writer, List<? extends Aggregate> summaries) throws IOException {
+        start(writer);
+        writer.write(firstFile ? "],\n  \"summaries\": " : "\n  ],\n  \"summaries\": ");
+        writeAggregates(writer, summaries);
+    }
+
+    @Override
+    protected void finish(Writer writer, boolean summarized) throws IOException {
+        start(writer);
+        if (!summarized)
+            writer.write(firstFile ? "]" : "\n  ]");
+        writer.write("\n}\n");
+    }
+
+    /**
+     * Write the start of the document, if it has not yet been written.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the document is written.
+     * @throws IOException
+     *             If the start of the document cannot be written.
+     */
+    private void start(Writer writer) throws IOException {
+        if (started)
+            return;
+
+        started = true;
+        writer.write("{\n  \"files\": [");
+    }
+
+    /**
+     * Write an array of aggregates.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the aggregates are to be written.
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects to be written.
+     * @throws IOException
+     *             If the aggregates cannot be written.
+     */
+    private void writeAggregates(Writer writer, List<? extends Aggregate> aggregates) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < aggregates.size(); i++) {
+            if (i > 0)
+                writer.write(", ");
+
+            final Aggregate aggregate = aggregates.get(i);
+            writer.write("{\"name\": ");
+            writeString(writer, aggregate.getName());
+            writer.write(", \"measurements\": ");
+            writer.write(Long.toString(aggregate.getMeasurements()));
+            writer.write(", \"minimum\": ");
+            writer.write(String.valueOf(formatTime(aggregate.getMin())));
+            writer.write(", \"maximum\": ");
+            writer.write(String.valueOf(formatTime(aggregate.getMax())));
+            writer.write(", \"average\": ");
+            writer.write(String.valueOf(formatTime(aggregate.getMeasurements() == 0 ? 0 : aggregate.getTotal() / aggregate.getMeasurements())));
+            writer.write(", \"total\": ");
+            writer.write(String.valueOf(formatTime(aggregate.getTotal())));
+            writer.write(", \"children\": ");
+            writeAggregates(writer, getChildren(aggregate));
+            writer.write('}');
+        }
+        writer.write(']');
+    }
+
+    /**
+     * Write a JSON string.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the string is to be written.
+     * @param value
+     *            The value of the string.
+     * @throws IOException
+     *             If the string cannot be written.
+     */
+    private void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    writer.write("\\u00");
+                    writer.write(HEX[c >> 4]);
+                    writer.write(HEX[c & 0xf]);
+                } else
+                    writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,302 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An on-disk cache of the aggregates parsed out of timing files. Each timing
+ * file is stored in its own entry, which is keyed by the absolute path of the
+ * file and is only considered valid while the size and last-modified time of
+ * the file (and, optionally, a digest of its contents) are unchanged, and only
+ * for the character set in which the file was decoded.
+ * <p />
+ * The aggregates themselves are stored in the same compact format written by
+ * the {@link BinaryAggregateWriter}. The cache is best-effort: entries that cannot be read or written are simply
+ * treated as misses. It is safe to use from several threads at once.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class ParseCache {
+    private static final int MAGIC = 0x4a455443;
+    private static final int VERSION = 3;
+    private static final String ENTRY_SUFFIX = ".cache";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+    private final boolean hashContents;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Create a cache.
+     * 
+     * @param directory
+     *            The directory in which the cache entries are to be stored. It
+     *            will be created if it does not exist.
+     * @param hashContents
+     *            {@code true} if a digest of each file's contents is to be
+     *            stored and compared in addition to its size and
+     *            last-modified time.
+     * @throws IllegalArgumentException
+     *             If the given directory is {@code null}.
+     */
+    public ParseCache(File directory, boolean hashContents) {
+        if (directory == null)
+            throw new IllegalArgumentException("Directory cannot be null.");
+
+        this.directory = directory;
+        this.hashContents = hashContents;
+    }
+
+    /**
+     * Calculate the digest of a file's contents, if this cache compares
+     * digests. The digest is taken once, before the file is read, and handed
+     * to both {@link #get(File, Charset, byte[])} and
+     * {@link #put(File, Charset, long, long, byte[], Collection)}, so that a
+     * file is never read just to hash it more than once.
+     * 
+     * @param file
+     *            The {@link File} whose contents are to be digested.
+     * @return The digest of the file; {@code null} if this cache does not
+     *         compare digests or the file cannot be read.
+     */
+    public byte[] digest(File file) {
+        if (!hashContents)
+            return null;
+
+        final MessageDigest digest = newDigest();
+        InputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+                digest.update(buffer, 0, read);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Get the cached aggregates of a file.
+     * 
+     * @param file
+     *            The {@link File} whose aggregates are to be retrieved.
+     * @param charset
+     *            The {@link Charset} in which the file is to be decoded;
+     *            entries stored under another character set are not valid.
+     * @param digest
+     *            The digest of the file, as calculated by
+     *            {@link #digest(File)}; this is ignored if this cache does not
+     *            compare digests.
+     * @return A {@link List} of {@link Aggregate} objects representing the
+     *         cached contents of the file; {@code null} if there is no valid
+     *         entry for the file.
+     */
+    public List<Aggregate> get(File file, Charset charset, byte[] digest) {
+        final File entry = getEntry(file);
+        if (!entry.isFile()) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        try {
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(entry)));
+            try {
+                if (input.readInt() != MAGIC || input.readInt() != VERSION || !file.getAbsolutePath().equals(input.readUTF()) || !charset.name().equals(input.readUTF())
+                        || input.readLong() != file.length() || input.readLong() != file.lastModified()) {
+                    misses.incrementAndGet();
+                    return null;
+                }
+
+                final byte[] storedDigest = new byte[input.readInt()];
+                input.readFully(storedDigest);
+                if (hashContents && (digest == null || !Arrays.equals(storedDigest, digest))) {
+                    misses.incrementAndGet();
+                    return null;
+                }
+
+                final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+                new BinaryAggregateReader().read(input, new AggregateVisitor() {
+                    public void visit(Aggregate aggregate) {
+                        aggregates.add(aggregate);
+                    }
+                });
+                hits.incrementAndGet();
+                return aggregates;
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            FileUtils.deleteQuietly(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Store the aggregates of a file. The size and last-modified time of the
+     * file must be those it had before it was read, so that a file that
+     * changes while it is being read is never cached under its new state.
+     * 
+     * @param file
+     *            The {@link File} from which the aggregates were read.
+     * @param charset
+     *            The {@link Charset} in which the file was decoded.
+     * @param length
+     *            The size of the file before it was read.
+     * @param lastModified
+     *            The last-modified time of the file before it was read.
+     * @param digest
+     *            The digest of the file before it was read, as calculated by
+     *            {@link #digest(File)}; this is ignored if this cache does not
+     *            compare digests.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects representing
+     *            the contents of the file.
+     * @return {@code true} if the entry was stored; {@code false} if the file
+     *         has changed since it was read or the entry could not be
+     *         written.
+     */
+    public boolean put(File file, Charset charset, long length, long lastModified, byte[] digest, Collection<? extends Aggregate> aggregates) {
+        if (file.length() != length || file.lastModified() != lastModified || (hashContents && digest == null))
+            return false;
+
+        final File entry = getEntry(file);
+        File temporary = null;
+        try {
+            FileUtils.forceMkdir(directory);
+            temporary = File.createTempFile("entry", ".tmp", directory);
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+            try {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeUTF(file.getAbsolutePath());
+                output.writeUTF(charset.name());
+                output.writeLong(length);
+                output.writeLong(lastModified);
+                if (hashContents) {
+                    output.writeInt(digest.length);
+                    output.write(digest);
+                } else
+                    output.writeInt(0);
+
+                new BinaryAggregateWriter().write(aggregates, output);
+            } finally {
+                output.close();
+            }
+
+            FileUtils.deleteQuietly(entry);
+            if (!temporary.renameTo(entry))
+                return false;
+            temporary = null;
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            FileUtils.deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * Remove every entry that does not belong to one of the given files.
+     * 
+     * @param files
+     *            A {@link Collection} of {@link File} objects representing
+     *            the timing files whose entries are to be kept.
+     */
+    public void retain(Collection<File> files) {
+        final File[] entries = directory.listFiles();
+        if (entries == null)
+            return;
+
+        final Set<String> retained = new HashSet<String>(files.size());
+        for (File file : files)
+            retained.add(getEntry(file).getName());
+
+        for (File entry : entries)
+            if (entry.getName().endsWith(ENTRY_SUFFIX) && !retained.contains(entry.getName()))
+                FileUtils.deleteQuietly(entry);
+    }
+
+    /**
+     * Get the number of lookups that were answered from the cache.
+     * 
+     * @return The number of cache hits.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of lookups that could not be answered from the cache.
+     * 
+     * @return The number of cache misses.
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the cache entry for a file.
+     * 
+     * @param file
+     *            The timing {@link File} whose entry is to be located.
+     * @return A {@link File} reference to the (possibly non-existent) cache
+     *         entry of the given file.
+     */
+    private File getEntry(File file) {
+        final byte[] hash;
+        try {
+            hash = newDigest().digest(file.getAbsolutePath().getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is not supported.", e);
+        }
+
+        final StringBuilder name = new StringBuilder(hash.length * 2 + ENTRY_SUFFIX.length());
+        for (byte b : hash)
+            name.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        return new File(directory, name.append(ENTRY_SUFFIX).toString());
+    }
+
+    /**
+     * Create a digest.
+     * 
+     * @return A SHA-1 {@link MessageDigest}.
+     */
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported.", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.google.code.jetm.maven.util;
+
+import java.text.DecimalFormat;
+import java.util.Collection;
+
+import com.google.code.jetm.maven.data.HistogramAggregate;
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.maven.data.TimeUnit;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * The percentile columns shared by the timing report's tables and the plain-text summary, so that both show the same percentiles in the same way.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+final class PercentileColumns {
+    /**
+     * The percentiles shown for aggregates that carry histograms.
+     */
+    private static final int[] PERCENTILES = { 50, 95, 99 };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PercentileColumns() {
+    }
+
+    /**
+     * Determine whether the percentile columns are to be shown, which they are if any of the given aggregates, or of the aggregates nested within them, carries a histogram.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be inspected.
+     * @return {@code true} if at least one of the aggregates has a non-empty histogram.
+     */
+    @SuppressWarnings("unchecked")
+    static boolean isShown(Collection<? extends Aggregate> aggregates) {
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate instanceof HistogramAggregate) {
+                final LatencyHistogram histogram = ((HistogramAggregate) aggregate).getHistogram();
+                if (histogram != null && !histogram.isEmpty())
+                    return true;
+            }
+
+            if (aggregate.hasChilds() && isShown((Collection<Aggregate>) aggregate.getChilds().values()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the headers of the percentile columns.
+     * 
+     * @param timeUnit
+     *            The {@link TimeUnit} in which the percentiles are shown.
+     * @return An array of the headers, one per percentile.
+     */
+    static String[] getHeaders(TimeUnit timeUnit) {
+        final String[] headers = new String[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++)
+            headers[i] = "p" + PERCENTILES[i] + " (" + timeUnit.getDisplayName() + ")";
+        return headers;
+    }
+
+    /**
+     * Get the cells of the percentile columns for an aggregate.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} whose percentiles are to be shown.
+     * @param timeUnit
+     *            The {@link TimeUnit} in which the percentiles are shown.
+     * @param format
+     *            The {@link DecimalFormat} used to format the percentiles.
+     * @return An array of the cells, one per percentile; each is "-" if the aggregate carries no histogram.
+     */
+    static String[] getCells(Aggregate aggregate, TimeUnit timeUnit, DecimalFormat format) {
+        final LatencyHistogram histogram = aggregate instanceof HistogramAggregate ? ((HistogramAggregate) aggregate).getHistogram() : null;
+        final String[] cells = new String[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (histogram == null || histogram.isEmpty()) {
+                cells[i] = "-";
+                continue;
+            }
+
+            /*
+             * A bucket's representative time may lie slightly outside of the exact range of the times within it
+             */
+            final double millis = Math.max(aggregate.getMin(), Math.min(aggregate.getMax(), histogram.getPercentile(PERCENTILES[i])));
+            cells[i] = format.format(timeUnit.fromMilliseconds(millis));
+        }
+        return cells;
+    }
+}
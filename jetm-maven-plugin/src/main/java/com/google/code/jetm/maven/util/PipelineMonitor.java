@@ -0,0 +1,201 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import etm.core.aggregation.Aggregate;
+import etm.core.monitor.EtmMonitor;
+import etm.core.monitor.EtmPoint;
+import etm.core.monitor.FlatMonitor;
+import etm.core.renderer.MeasurementRenderer;
+
+/**
+ * A monitor of the phases of the plugin's own work (e.g., scanning for, reading and rendering timing files), measured with a JETM monitor of its own so that it does not interfere with any
+ * monitor of the project being built. Along with the time of each phase, it tracks the number and size of the timing files read, the number of distinct measurement names found, and the
+ * largest heap usage of the JVM sampled between the phases.
+ * <p />
+ * Phases may be measured from several threads at once, and the same phase may be measured more than once, in which case its measurements are totalled.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class PipelineMonitor {
+    private final EtmMonitor monitor = new FlatMonitor();
+    private final List<String> phases = new ArrayList<String>();
+    private final long started = System.currentTimeMillis();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong maxHeapUsed = new AtomicLong();
+    private volatile int files;
+    private volatile long bytes;
+    private volatile int distinctNames;
+
+    /**
+     * Create a monitor, and start measuring. The heap usage is sampled now and at the start of every phase, rather than read from the peak usage of the JVM's memory pools, as that peak is shared
+     * by everything running within the JVM and cannot be reset without affecting it. The monitor must be {@link #stop() stopped} once it is no longer needed.
+     */
+    public PipelineMonitor() {
+        sampleHeap();
+        monitor.start();
+    }
+
+    /**
+     * Start measuring a phase.
+     * 
+     * @param phase
+     *            The name of the phase.
+     * @return An {@link EtmPoint} that must be collected once the phase has finished.
+     */
+    public EtmPoint start(String phase) {
+        sampleHeap();
+        synchronized (phases) {
+            if (!phases.contains(phase))
+                phases.add(phase);
+        }
+        return monitor.createPoint(phase);
+    }
+
+    /**
+     * Record the timing files that were read.
+     * 
+     * @param files
+     *            A {@link Collection} of the timing files that were read.
+     */
+    public void setFiles(Collection<File> files) {
+        long size = 0;
+        for (File file : files)
+            size += file.length();
+
+        this.files = files.size();
+        this.bytes = size;
+    }
+
+    /**
+     * Record the number of distinct measurement names found.
+     * 
+     * @param distinctNames
+     *            The number of distinct measurement names, including those of nested measurements.
+     */
+    public void setDistinctNames(int distinctNames) {
+        this.distinctNames = distinctNames;
+    }
+
+    /**
+     * Get the measurements of each phase.
+     * 
+     * @return A {@link List} of {@link Aggregate} objects representing the measurements of each phase, in the order in which the phases were first started; the times are in milliseconds.
+     */
+    public List<Aggregate> getPhases() {
+        final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+        monitor.render(new MeasurementRenderer() {
+            @SuppressWarnings("rawtypes")
+            public void render(Map points) {
+                synchronized (phases) {
+                    for (String phase : phases) {
+                        final Object point = points.get(phase);
+                        if (point != null)
+                            aggregates.add((Aggregate) point);
+                    }
+                }
+            }
+        });
+        return aggregates;
+    }
+
+    /**
+     * Get the total time of a phase.
+     * 
+     * @param phase
+     *            The name of the phase.
+     * @return The total time, in milliseconds, of every measurement of the given phase; 0 if it was never measured.
+     */
+    public double getPhaseTime(String phase) {
+        for (Aggregate aggregate : getPhases())
+            if (aggregate.getName().equals(phase))
+                return aggregate.getTotal();
+        return 0;
+    }
+
+    /**
+     * Get the time that has elapsed since this monitor was created.
+     * 
+     * @return The elapsed time, in milliseconds.
+     */
+    public long getElapsedTime() {
+        return System.currentTimeMillis() - started;
+    }
+
+    /**
+     * Get the number of timing files read.
+     * 
+     * @return The number of timing files.
+     */
+    public int getFiles() {
+        return files;
+    }
+
+    /**
+     * Get the size of the timing files read.
+     * 
+     * @return The total size, in bytes, of the timing files as stored on disk.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the number of distinct measurement names found.
+     * 
+     * @return The number of distinct measurement names, including those of nested measurements.
+     */
+    public int getDistinctNames() {
+        return distinctNames;
+    }
+
+    /**
+     * Get the largest heap usage sampled between the phases.
+     * 
+     * @return The largest heap usage, in bytes, sampled when this monitor was created, at the start of each phase and now. Usage within a phase that is freed before the next sample is not
+     *         seen, and other work done by the JVM at the same time (e.g., other modules of a parallel build) is included.
+     */
+    public long getMaxSampledHeap() {
+        sampleHeap();
+        return maxHeapUsed.get();
+    }
+
+    /**
+     * Calculate a rate.
+     * 
+     * @param amount
+     *            The amount processed.
+     * @param millis
+     *            The time, in milliseconds, taken to process it.
+     * @return The amount processed per second; 0 if no time was taken.
+     */
+    public static double perSecond(double amount, double millis) {
+        return millis > 0 ? amount * 1000 / millis : 0;
+    }
+
+    /**
+     * Sample the heap usage, keeping the largest sample.
+     */
+    private void sampleHeap() {
+        final long used = memory.getHeapMemoryUsage().getUsed();
+        long max = maxHeapUsed.get();
+        while (used > max && !maxHeapUsed.compareAndSet(max, used))
+            max = maxHeapUsed.get();
+    }
+
+    /**
+     * Stop measuring.
+     */
+    public void stop() {
+        monitor.stop();
+    }
+}
@@ -0,0 +1,286 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An in-memory cache of the aggregates parsed out of timing files, meant to outlive a single build in long-lived Maven processes. Each timing file is stored in its own entry, which is keyed by
+ * the absolute path of the file and the character set in which it was decoded, and is only considered valid while the size and last-modified time of the file are unchanged.
+ * <p />
+ * The cache is bounded by the number of aggregates, including nested ones, that it holds; once the bound is exceeded, the least recently used entries are evicted. One instance is
+ * {@link #getShared(int) shared} by every build run within the same class loader; its bound is only ever raised, so that no build can shrink it beneath another build running alongside it.
+ * It is safe to use from several threads at once. The cached aggregates are shared by every reader, so they must not be modified.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class ResidentParseCache {
+    /**
+     * The default maximum number of aggregates held by the shared cache.
+     */
+    public static final int DEFAULT_MAX_AGGREGATES = 1000000;
+
+    private static ResidentParseCache shared;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private int maxAggregates;
+    private int size;
+    private int hits;
+    private int misses;
+
+    /**
+     * Get the cache shared by every build run within the same class loader.
+     * 
+     * @param maxAggregates
+     *            The maximum number of aggregates, including nested ones, that the caller needs the cache to hold. The cache is created with this bound, and an existing cache whose bound
+     *            is lower is raised to it.
+     * @return The shared {@link ResidentParseCache}.
+     * @throws IllegalArgumentException
+     *             If the given maximum is less than 1.
+     */
+    public static synchronized ResidentParseCache getShared(int maxAggregates) {
+        if (shared == null)
+            shared = new ResidentParseCache(maxAggregates);
+        else
+            shared.ensureCapacity(maxAggregates);
+        return shared;
+    }
+
+    /**
+     * Create a cache.
+     * 
+     * @param maxAggregates
+     *            The maximum number of aggregates, including nested ones, to be held.
+     * @throws IllegalArgumentException
+     *             If the given maximum is less than 1.
+     */
+    public ResidentParseCache(int maxAggregates) {
+        if (maxAggregates < 1)
+            throw new IllegalArgumentException("The cache must hold at least one aggregate: " + maxAggregates);
+
+        this.maxAggregates = maxAggregates;
+    }
+
+    /**
+     * Get the cached aggregates of a file.
+     * 
+     * @param file
+     *            The {@link File} whose aggregates are to be retrieved.
+     * @param charset
+     *            The {@link Charset} in which the file is to be decoded; entries of the file decoded in another character set are not returned.
+     * @return An unmodifiable {@link List} of {@link Aggregate} objects representing the cached contents of the file; {@code null} if there is no valid entry for the file.
+     */
+    public List<Aggregate> get(File file, Charset charset) {
+        final String key = getKey(file, charset);
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+
+            if (entry.length != length || entry.lastModified != lastModified) {
+                entries.remove(key);
+                size -= entry.weight;
+                misses++;
+                return null;
+            }
+
+            hits++;
+            return entry.aggregates;
+        }
+    }
+
+    /**
+     * Store the aggregates of a file, evicting the least recently used entries if the cache grows beyond its bound. Files with more aggregates than the cache can hold are not stored at all. The
+     * size and last-modified time of the file must be those it had before it was read, so that a file that changes while it is being read is never cached under its new state.
+     * 
+     * @param file
+     *            The {@link File} from which the aggregates were read.
+     * @param charset
+     *            The {@link Charset} in which the file was decoded.
+     * @param length
+     *            The size of the file before it was read.
+     * @param lastModified
+     *            The last-modified time of the file before it was read.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects representing the contents of the file. They must not be modified once they are stored.
+     * @return {@code true} if the entry was stored; {@code false} if the file has changed since it was read or it is too large to be held.
+     */
+    public boolean put(File file, Charset charset, long length, long lastModified, Collection<? extends Aggregate> aggregates) {
+        if (file.length() != length || file.lastModified() != lastModified)
+            return false;
+
+        final String key = getKey(file, charset);
+        final Entry entry = new Entry(length, lastModified, Collections.unmodifiableList(new ArrayList<Aggregate>(aggregates)), weigh(aggregates));
+        synchronized (entries) {
+            final Entry replaced = entries.remove(key);
+            if (replaced != null)
+                size -= replaced.weight;
+
+            if (entry.weight > maxAggregates)
+                return false;
+
+            entries.put(key, entry);
+            size += entry.weight;
+            trim();
+            return true;
+        }
+    }
+
+    /**
+     * Raise the maximum number of aggregates to be held. The bound is never lowered, so entries are never evicted by this.
+     * 
+     * @param maxAggregates
+     *            The maximum number of aggregates, including nested ones, to be held at the least.
+     * @throws IllegalArgumentException
+     *             If the given maximum is less than 1.
+     */
+    public void ensureCapacity(int maxAggregates) {
+        if (maxAggregates < 1)
+            throw new IllegalArgumentException("The cache must hold at least one aggregate: " + maxAggregates);
+
+        synchronized (entries) {
+            this.maxAggregates = Math.max(this.maxAggregates, maxAggregates);
+        }
+    }
+
+    /**
+     * Get the maximum number of aggregates to be held.
+     * 
+     * @return The maximum number of aggregates, including nested ones.
+     */
+    public int getMaxAggregates() {
+        synchronized (entries) {
+            return maxAggregates;
+        }
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Get the number of aggregates, including nested ones, that are held.
+     * 
+     * @return The number of cached aggregates.
+     */
+    public int size() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    /**
+     * Get the number of lookups that were answered from the cache since it was created.
+     * 
+     * @return The number of cache hits.
+     */
+    public int getHits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    /**
+     * Get the number of lookups that could not be answered from the cache since it was created.
+     * 
+     * @return The number of cache misses.
+     */
+    public int getMisses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    /**
+     * Evict the least recently used entries until the cache is within its bound. The caller must hold the lock on the entries.
+     */
+    private void trim() {
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while (size > maxAggregates && eldest.hasNext()) {
+            size -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Get the key of the entry of a file.
+     * 
+     * @param file
+     *            The {@link File} whose entry is to be located.
+     * @param charset
+     *            The {@link Charset} in which the file is decoded.
+     * @return The key of the entry.
+     */
+    private static String getKey(File file, Charset charset) {
+        return charset.name() + ':' + file.getAbsolutePath();
+    }
+
+    /**
+     * Count aggregates, including the ones nested within them.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be counted.
+     * @return The number of aggregates.
+     */
+    @SuppressWarnings("unchecked")
+    private static int weigh(Collection<? extends Aggregate> aggregates) {
+        int weight = aggregates.size();
+        for (Aggregate aggregate : aggregates)
+            if (aggregate.hasChilds())
+                weight += weigh((Collection<Aggregate>) aggregate.getChilds().values());
+        return weight;
+    }
+
+    /**
+     * The cached contents of a single file.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private static class Entry {
+        private final long length;
+        private final long lastModified;
+        private final List<Aggregate> aggregates;
+        private final int weight;
+
+        /**
+         * Create an entry.
+         * 
+         * @param length
+         *            The size of the file when it was read.
+         * @param lastModified
+         *            The last-modified time of the file when it was read.
+         * @param aggregates
+         *            The aggregates read out of the file.
+         * @param weight
+         *            The number of aggregates, including nested ones.
+         */
+        public Entry(long length, long lastModified, List<Aggregate> aggregates, int weight) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.aggregates = aggregates;
+            this.weight = weight;
+        }
+    }
+}
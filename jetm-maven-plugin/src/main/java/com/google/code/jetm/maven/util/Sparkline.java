@@ -0,0 +1,44 @@
+package com.google.code.jetm.maven.util;
+
+/**
+ * A renderer of a series of values as a line of Unicode block characters, one per value, whose heights are scaled between the lowest and the highest value of the series. Being plain text, it can be
+ * rendered by any Doxia sink as well as written to the console.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class Sparkline {
+    private static final char[] BARS = { '\u2581', '\u2582', '\u2583', '\u2584', '\u2585', '\u2586', '\u2587', '\u2588' };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Sparkline() {
+    }
+
+    /**
+     * Render a series of values.
+     * 
+     * @param values
+     *            The values to be rendered, in order.
+     * @return A {@link String} holding one block character per value; a series whose values are all the same is rendered at mid-height.
+     */
+    public static String render(double[] values) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        final StringBuilder line = new StringBuilder(values.length);
+        for (double value : values) {
+            if (max <= min)
+                line.append(BARS[BARS.length / 2 - 1]);
+            else
+                line.append(BARS[(int) Math.round((value - min) / (max - min) * (BARS.length - 1))]);
+        }
+        return line.toString();
+    }
+}
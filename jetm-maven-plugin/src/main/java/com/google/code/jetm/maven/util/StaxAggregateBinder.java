@@ -0,0 +1,152 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.google.code.jetm.maven.data.HistogramAggregate;
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.reporting.AggregateBinder;
+import com.google.code.jetm.reporting.BindingMeasurementRenderer;
+import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An {@link AggregateBinder} that writes the same XML format as the
+ * {@link XmlAggregateBinder}, extended with the measurements nested within
+ * each measurement and, for aggregates that carry one, a histogram of their
+ * times. The format is described by the {@link StaxAggregateReader}, which is
+ * also used to read it back. It can be used with a
+ * {@link BindingMeasurementRenderer}, together with a
+ * {@link HistogramAggregator}, to have tests write percentile data:
+ * 
+ * <pre>
+ * final EtmMonitor monitor = new NestedMonitor(new HistogramAggregator(new RootAggregator()));
+ * ...
+ * monitor.render(new BindingMeasurementRenderer(new StaxAggregateBinder(), writer));
+ * </pre>
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class StaxAggregateBinder implements AggregateBinder {
+    private static final String NAMESPACE = "http://code.google.com/p/jetm-reporting-utilities/jetm-measurement";
+
+    private final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException
+     *             If the aggregates cannot be written.
+     */
+    public void bind(Collection<? extends Aggregate> aggregates, Writer writer) {
+        try {
+            final XMLStreamWriter xml = factory.createXMLStreamWriter(writer);
+            xml.writeStartDocument();
+            xml.writeStartElement("measurements");
+            xml.writeDefaultNamespace(NAMESPACE);
+            writeMeasurements(aggregates, xml);
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to write aggregate data.", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException
+     *             If the aggregates cannot be read.
+     */
+    public Collection<Aggregate> unbind(Reader reader) {
+        final Collection<Aggregate> aggregates = new ArrayList<Aggregate>();
+        try {
+            new StaxAggregateReader().read(reader, new AggregateVisitor() {
+                public void visit(Aggregate aggregate) {
+                    aggregates.add(aggregate);
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read aggregate data.", e);
+        }
+        return aggregates;
+    }
+
+    /**
+     * Write measurements, along with the measurements nested within them.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be
+     *            written.
+     * @param xml
+     *            The {@link XMLStreamWriter} to which the measurements are to
+     *            be written.
+     * @throws XMLStreamException
+     *             If any errors occur during the write-out.
+     */
+    @SuppressWarnings("unchecked")
+    private void writeMeasurements(Collection<? extends Aggregate> aggregates, XMLStreamWriter xml) throws XMLStreamException {
+        for (Aggregate aggregate : aggregates) {
+            xml.writeStartElement("measurement");
+            writeElement(xml, "measurementName", aggregate.getName());
+            writeElement(xml, "min", Double.toString(aggregate.getMin()));
+            writeElement(xml, "max", Double.toString(aggregate.getMax()));
+            writeElement(xml, "total", Double.toString(aggregate.getTotal()));
+            writeElement(xml, "measurements", Long.toString(aggregate.getMeasurements()));
+
+            final LatencyHistogram histogram = aggregate instanceof HistogramAggregate ? ((HistogramAggregate) aggregate).getHistogram() : null;
+            if (histogram != null && !histogram.isEmpty()) {
+                xml.writeStartElement("histogram");
+                for (int index = histogram.getLowestIndex(); index <= histogram.getHighestIndex(); index++) {
+                    final long count = histogram.getCount(index);
+                    if (count == 0)
+                        continue;
+
+                    xml.writeStartElement("bucket");
+                    xml.writeAttribute("index", Integer.toString(index));
+                    xml.writeCharacters(Long.toString(count));
+                    xml.writeEndElement();
+                }
+                xml.writeEndElement();
+            }
+
+            if (aggregate.hasChilds()) {
+                xml.writeStartElement("childs");
+                writeMeasurements((Collection<Aggregate>) aggregate.getChilds().values(), xml);
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        }
+    }
+
+    /**
+     * Write an element containing only text.
+     * 
+     * @param xml
+     *            The {@link XMLStreamWriter} to which the element is to be
+     *            written.
+     * @param name
+     *            The name of the element.
+     * @param text
+     *            The text of the element.
+     * @throws XMLStreamException
+     *             If any errors occur during the write-out.
+     */
+    private void writeElement(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+}
@@ -0,0 +1,287 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A reader of the XML format written by {@link XmlAggregateBinder} that uses a
+ * pull parser, rather than a document tree, to read the data. Each measurement
+ * is handed to an {@link AggregateVisitor} as soon as it has been read, so the
+ * memory used to read a file does not grow with the size of the file.
+ * <p />
+ * In addition to the flat list of measurements written by that binder, a
+ * measurement may contain a {@code childs} element holding the measurements
+ * nested within it, in the same format, and a {@code histogram} element
+ * holding a {@code bucket} element, with an {@code index} attribute, for each
+ * non-empty bucket of a {@link LatencyHistogram} of its times. Such
+ * measurements are read as {@link TimingAggregate} objects, and are written
+ * by the {@link StaxAggregateBinder}.
+ * <p />
+ * Instances of this class are not thread-safe.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class StaxAggregateReader {
+    private static final String ROOT = "measurements";
+    private static final String MEASUREMENT = "measurement";
+    private static final String NAME = "measurementName";
+    private static final String MIN = "min";
+    private static final String MAX = "max";
+    private static final String TOTAL = "total";
+    private static final String COUNT = "measurements";
+    private static final String CHILDS = "childs";
+    private static final String HISTOGRAM = "histogram";
+    private static final String BUCKET = "bucket";
+    private static final String INDEX = "index";
+
+    private final XMLInputFactory factory;
+
+    /**
+     * Create a reader.
+     */
+    public StaxAggregateReader() {
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    /**
+     * Read the measurements out of the given XML data.
+     * 
+     * @param source
+     *            The {@link Reader} from which the XML data is to be read. It
+     *            is the responsibility of the caller to close it.
+     * @param visitor
+     *            The {@link AggregateVisitor} to which each measurement is to
+     *            be passed as it is read.
+     * @throws IOException
+     *             If the data cannot be read or is not well-formed.
+     */
+    public void read(Reader source, AggregateVisitor visitor) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(source);
+            reader.nextTag();
+            if (!ROOT.equals(reader.getLocalName()))
+                throw new IOException("Unexpected root element: " + reader.getLocalName());
+
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (MEASUREMENT.equals(reader.getLocalName()))
+                    visitor.visit(readMeasurement(reader));
+                else
+                    skipElement(reader);
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to read XML data: " + e.getMessage(), e);
+        } finally {
+            if (reader != null)
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    /*
+                     * Closing the stream reader leaves the underlying source
+                     * open, so there is nothing to be recovered here
+                     */
+                }
+        }
+    }
+
+    /**
+     * Read a single measurement.
+     * 
+     * @param reader
+     *            The {@link XMLStreamReader} positioned at the start of a
+     *            measurement element; when this method returns, it will be
+     *            positioned at the end of the element.
+     * @return An {@link Aggregate} representing the measurement.
+     * @throws IOException
+     *             If the measurement is incomplete or contains unparseable
+     *             values.
+     * @throws XMLStreamException
+     *             If the XML is not well-formed.
+     */
+    private Aggregate readMeasurement(XMLStreamReader reader) throws IOException, XMLStreamException {
+        final List<Aggregate> childs = new ArrayList<Aggregate>();
+        LatencyHistogram histogram = null;
+        String name = null;
+        String min = null;
+        String max = null;
+        String total = null;
+        String count = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            final String element = reader.getLocalName();
+            if (NAME.equals(element))
+                name = reader.getElementText();
+            else if (MIN.equals(element))
+                min = reader.getElementText();
+            else if (MAX.equals(element))
+                max = reader.getElementText();
+            else if (TOTAL.equals(element))
+                total = reader.getElementText();
+            else if (COUNT.equals(element))
+                count = reader.getElementText();
+            else if (CHILDS.equals(element))
+                readChilds(reader, childs);
+            else if (HISTOGRAM.equals(element))
+                histogram = readHistogram(reader);
+            else
+                skipElement(reader);
+        }
+
+        if (name == null)
+            throw new IOException("Measurement is missing element: " + NAME);
+
+        final double minValue;
+        final double maxValue;
+        final double totalValue;
+        final long countValue;
+        try {
+            minValue = parseDouble(MIN, min);
+            maxValue = parseDouble(MAX, max);
+            totalValue = parseDouble(TOTAL, total);
+            countValue = Long.parseLong(require(COUNT, count).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Unparseable value in measurement: " + name, e);
+        }
+
+        if (childs.isEmpty() && histogram == null)
+            return new XmlAggregate(minValue, maxValue, totalValue, countValue, name);
+
+        final TimingAggregate aggregate = new TimingAggregate(minValue, maxValue, totalValue, countValue, name);
+        aggregate.setHistogram(histogram);
+        for (Aggregate child : childs)
+            aggregate.addChild(child);
+        return aggregate;
+    }
+
+    /**
+     * Read the measurements nested within a measurement.
+     * 
+     * @param reader
+     *            The {@link XMLStreamReader} positioned at the start of a
+     *            childs element; when this method returns, it will be
+     *            positioned at the end of the element.
+     * @param childs
+     *            A {@link List} to which the nested measurements are to be
+     *            added.
+     * @throws IOException
+     *             If any of the nested measurements is incomplete or contains
+     *             unparseable values.
+     * @throws XMLStreamException
+     *             If the XML is not well-formed.
+     */
+    private void readChilds(XMLStreamReader reader, List<Aggregate> childs) throws IOException, XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (MEASUREMENT.equals(reader.getLocalName()))
+                childs.add(readMeasurement(reader));
+            else
+                skipElement(reader);
+        }
+    }
+
+    /**
+     * Read a histogram.
+     * 
+     * @param reader
+     *            The {@link XMLStreamReader} positioned at the start of a
+     *            histogram element; when this method returns, it will be
+     *            positioned at the end of the element.
+     * @return A {@link LatencyHistogram} representing the histogram; {@code
+     *         null} if it has no buckets.
+     * @throws IOException
+     *             If any of the buckets is invalid.
+     * @throws XMLStreamException
+     *             If the XML is not well-formed.
+     */
+    private LatencyHistogram readHistogram(XMLStreamReader reader) throws IOException, XMLStreamException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!BUCKET.equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            final String index = reader.getAttributeValue(null, INDEX);
+            if (index == null)
+                throw new IOException("Histogram bucket is missing attribute: " + INDEX);
+
+            final String count = reader.getElementText();
+            try {
+                histogram.recordIndex(Integer.parseInt(index.trim()), Long.parseLong(count.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid histogram bucket: " + e.getMessage(), e);
+            }
+        }
+        return histogram.isEmpty() ? null : histogram;
+    }
+
+    /**
+     * Parse a decimal value.
+     * 
+     * @param element
+     *            The name of the element from which the value was read.
+     * @param value
+     *            The value to be parsed.
+     * @return The parsed value.
+     * @throws IOException
+     *             If the value is missing.
+     */
+    private double parseDouble(String element, String value) throws IOException {
+        return Double.parseDouble(require(element, value).trim());
+    }
+
+    /**
+     * Require that a value has been read.
+     * 
+     * @param element
+     *            The name of the element from which the value should have
+     *            been read.
+     * @param value
+     *            The value that was read.
+     * @return The given value.
+     * @throws IOException
+     *             If the given value is {@code null}.
+     */
+    private String require(String element, String value) throws IOException {
+        if (value == null)
+            throw new IOException("Measurement is missing element: " + element);
+        return value;
+    }
+
+    /**
+     * Skip over an element and all of its content.
+     * 
+     * @param reader
+     *            The {@link XMLStreamReader} positioned at the start of the
+     *            element to be skipped; when this method returns, it will be
+     *            positioned at the end of that element.
+     * @throws XMLStreamException
+     *             If the XML is not well-formed.
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT)
+                depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT)
+                depth--;
+        }
+    }
+}
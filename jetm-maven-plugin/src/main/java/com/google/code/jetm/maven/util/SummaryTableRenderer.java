@@ -0,0 +1,136 @@
+package com.google.code.jetm.maven.util;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.codehaus.plexus.util.StringUtils;
+
+import com.google.code.jetm.maven.data.TimeUnit;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Renders aggregates as a table of a timing report: the measurements are sorted by name, nested measurements are indented beneath the measurements within which they were taken, and percentile
+ * columns are added if any of the aggregates carries a histogram. This class is thread-safe, so the tables of several pages may be rendered at the same time.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryTableRenderer {
+    /**
+     * The text by which the names of nested measurements are indented, per level of nesting.
+     */
+    private static final String NESTING_INDENT = "\u00a0\u00a0\u00a0\u00a0";
+
+    private final TimeUnit timeUnit;
+
+    /**
+     * Create a renderer.
+     * 
+     * @param timeUnit
+     *            The {@link TimeUnit} in which the times are to be rendered.
+     */
+    public SummaryTableRenderer(TimeUnit timeUnit) {
+        this.timeUnit = timeUnit;
+    }
+
+    /**
+     * Render a table containing information within a given set of aggregates.
+     * 
+     * @param sink
+     *            The {@link Sink} used to render out the table.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects representing the data to be written out.
+     */
+    public void render(Sink sink, Collection<? extends Aggregate> aggregates) {
+        sink.table();
+        sink.tableRows(null, false);
+        sink.tableRow();
+        tableHeaderCell(sink, "Name");
+        tableHeaderCell(sink, "Average (" + timeUnit.getDisplayName() + ")");
+        tableHeaderCell(sink, "Measurements");
+        tableHeaderCell(sink, "Minimum (" + timeUnit.getDisplayName() + ")");
+        tableHeaderCell(sink, "Maximum (" + timeUnit.getDisplayName() + ")");
+        tableHeaderCell(sink, "Total (" + timeUnit.getDisplayName() + ")");
+        final boolean percentiles = PercentileColumns.isShown(aggregates);
+        if (percentiles)
+            for (String header : PercentileColumns.getHeaders(timeUnit))
+                tableHeaderCell(sink, header);
+        sink.tableRow_();
+
+        renderRows(sink, aggregates, new DecimalFormat("0.00"), 0, percentiles);
+        sink.tableRows_();
+        sink.table_();
+    }
+
+    /**
+     * Render the rows of aggregates, each followed by the rows of the aggregates nested within it.
+     * 
+     * @param sink
+     *            The {@link Sink} to which the rows are to be rendered.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be rendered.
+     * @param decimalFormatter
+     *            The {@link DecimalFormat} used to format the times; it is created per table, as it is not thread-safe.
+     * @param depth
+     *            The nesting depth of the given aggregates; their names are indented by this many levels.
+     * @param percentiles
+     *            {@code true} if the percentiles of the aggregates' histograms are to be rendered.
+     */
+    @SuppressWarnings("unchecked")
+    private void renderRows(Sink sink, Collection<? extends Aggregate> aggregates, DecimalFormat decimalFormatter, int depth, boolean percentiles) {
+        final List<? extends Aggregate> sortedAggregates = new ArrayList<Aggregate>(aggregates);
+        Collections.sort(sortedAggregates, new AggregateComparator());
+
+        final String indent = StringUtils.repeat(NESTING_INDENT, depth);
+        for (Aggregate aggregate : sortedAggregates) {
+            sink.tableRow();
+            tableCell(sink, indent + aggregate.getName());
+            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getTotal() / aggregate.getMeasurements())));
+            tableCell(sink, Long.toString(aggregate.getMeasurements()));
+            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getMin())));
+            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getMax())));
+            tableCell(sink, decimalFormatter.format(timeUnit.fromMilliseconds(aggregate.getTotal())));
+            if (percentiles)
+                for (String cell : PercentileColumns.getCells(aggregate, timeUnit, decimalFormatter))
+                    tableCell(sink, cell);
+            sink.tableRow_();
+
+            if (aggregate.hasChilds())
+                renderRows(sink, (Collection<Aggregate>) aggregate.getChilds().values(), decimalFormatter, depth + 1, percentiles);
+        }
+    }
+
+    /**
+     * Create a table header cell.
+     * 
+     * @param sink
+     *            The {@link Sink} used to render out the header.
+     * @param text
+     *            The text to be printed within the table header.
+     */
+    private static void tableHeaderCell(Sink sink, String text) {
+        sink.tableHeaderCell();
+        sink.text(text);
+        sink.tableHeaderCell_();
+    }
+
+    /**
+     * Create a table cell.
+     * 
+     * @param sink
+     *            The {@link Sink} used to render out the table cell.
+     * @param text
+     *            The text to be written inside the cell.
+     */
+    private static void tableCell(Sink sink, String text) {
+        sink.tableCell();
+        sink.text(text);
+        sink.tableCell_();
+    }
+}
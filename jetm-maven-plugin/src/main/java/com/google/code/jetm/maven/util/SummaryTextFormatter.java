@@ -0,0 +1,102 @@
+package com.google.code.jetm.maven.util;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.code.jetm.maven.data.TimeUnit;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Formats aggregates as a plain-text table, with the same columns as the timing report: the measurements are sorted by name, nested measurements are indented beneath the measurements within
+ * which they were taken, and percentile columns are added if any of the aggregates carries a histogram. This class is not thread-safe.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryTextFormatter {
+    private static final String NESTING_INDENT = "  ";
+
+    private final DecimalFormat format = new DecimalFormat("0.00");
+    private final TimeUnit timeUnit;
+
+    /**
+     * Create a formatter.
+     * 
+     * @param timeUnit
+     *            The {@link TimeUnit} in which the times are to be formatted.
+     */
+    public SummaryTextFormatter(TimeUnit timeUnit) {
+        this.timeUnit = timeUnit;
+    }
+
+    /**
+     * Format aggregates as a table.
+     * 
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be formatted.
+     * @return A {@link List} of the lines of the table.
+     */
+    public List<String> format(Collection<? extends Aggregate> aggregates) {
+        final String unit = " (" + timeUnit.getDisplayName() + ")";
+        final boolean percentiles = PercentileColumns.isShown(aggregates);
+        final List<String> headers = new ArrayList<String>();
+        Collections.addAll(headers, "Measurement Point", "Average" + unit, "# of Measurements", "Minimum" + unit, "Maximum" + unit, "Total" + unit);
+        if (percentiles)
+            Collections.addAll(headers, PercentileColumns.getHeaders(timeUnit));
+
+        final TextTable table = new TextTable(headers.toArray(new String[headers.size()]));
+        addRows(table, aggregates, 0, percentiles);
+        return table.format();
+    }
+
+    /**
+     * Add a row for each aggregate, followed by the rows of the aggregates nested within it.
+     * 
+     * @param table
+     *            The {@link TextTable} to which the rows are to be added.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be added.
+     * @param depth
+     *            The depth at which the aggregates are nested.
+     * @param percentiles
+     *            {@code true} if the percentiles of the aggregates' histograms are to be added.
+     */
+    @SuppressWarnings("unchecked")
+    private void addRows(TextTable table, Collection<? extends Aggregate> aggregates, int depth, boolean percentiles) {
+        final List<Aggregate> sortedAggregates = new ArrayList<Aggregate>(aggregates);
+        Collections.sort(sortedAggregates, new AggregateComparator());
+
+        final StringBuilder indent = new StringBuilder(depth * NESTING_INDENT.length());
+        for (int i = 0; i < depth; i++)
+            indent.append(NESTING_INDENT);
+
+        final List<String> cells = new ArrayList<String>();
+        for (Aggregate aggregate : sortedAggregates) {
+            cells.clear();
+            Collections.addAll(cells, indent + aggregate.getName(), formatTime(aggregate.getMeasurements() == 0 ? 0 : aggregate.getTotal() / aggregate.getMeasurements()),
+                    Long.toString(aggregate.getMeasurements()), formatTime(aggregate.getMin()), formatTime(aggregate.getMax()), formatTime(aggregate.getTotal()));
+            if (percentiles)
+                Collections.addAll(cells, PercentileColumns.getCells(aggregate, timeUnit, format));
+            table.addRow(cells.toArray(new String[cells.size()]));
+
+            if (aggregate.hasChilds())
+                addRows(table, (Collection<Aggregate>) aggregate.getChilds().values(), depth + 1, percentiles);
+        }
+    }
+
+    /**
+     * Format a time.
+     * 
+     * @param millis
+     *            The time, in milliseconds.
+     * @return The time, formatted in the time unit of this formatter.
+     */
+    private String formatTime(double millis) {
+        return format.format(timeUnit.fromMilliseconds(millis));
+    }
+}
@@ -0,0 +1,114 @@
+package com.google.code.jetm.maven.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A table of text laid out in aligned, fixed-width columns, for output to a console or a plain text file.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TextTable {
+    private static final String COLUMN_SEPARATOR = "  ";
+
+    private final String[] headers;
+    private final List<String[]> rows = new ArrayList<String[]>();
+
+    /**
+     * Create a table.
+     * 
+     * @param headers
+     *            The headers of the columns of the table.
+     * @throws IllegalArgumentException
+     *             If no headers are given.
+     */
+    public TextTable(String... headers) {
+        if (headers.length == 0)
+            throw new IllegalArgumentException("A table must have at least one column.");
+
+        this.headers = headers.clone();
+    }
+
+    /**
+     * Add a row to the table.
+     * 
+     * @param cells
+     *            The text of the cells of the row, one per column.
+     * @throws IllegalArgumentException
+     *             If the number of cells does not match the number of columns.
+     */
+    public void addRow(String... cells) {
+        if (cells.length != headers.length)
+            throw new IllegalArgumentException("Expected " + headers.length + " cells, but got " + cells.length + ".");
+
+        rows.add(cells.clone());
+    }
+
+    /**
+     * Lay out the table. The first column is aligned to the left, and every other column to the right.
+     * 
+     * @return A {@link List} of the lines of the table: the headers, a rule, and then one line per row.
+     */
+    public List<String> format() {
+        final int[] widths = new int[headers.length];
+        measure(headers, widths);
+        for (String[] row : rows)
+            measure(row, widths);
+
+        final List<String> lines = new ArrayList<String>(rows.size() + 2);
+        lines.add(formatRow(headers, widths));
+
+        final StringBuilder rule = new StringBuilder();
+        for (int i = 0; i < widths.length; i++) {
+            if (i > 0)
+                rule.append(COLUMN_SEPARATOR);
+            for (int j = 0; j < widths[i]; j++)
+                rule.append('-');
+        }
+        lines.add(rule.toString());
+
+        for (String[] row : rows)
+            lines.add(formatRow(row, widths));
+        return lines;
+    }
+
+    /**
+     * Widen columns to fit the cells of a row.
+     * 
+     * @param row
+     *            The cells of the row.
+     * @param widths
+     *            The widths of the columns, which are widened as needed.
+     */
+    private void measure(String[] row, int[] widths) {
+        for (int i = 0; i < row.length; i++)
+            widths[i] = Math.max(widths[i], row[i].length());
+    }
+
+    /**
+     * Lay out a row.
+     * 
+     * @param row
+     *            The cells of the row.
+     * @param widths
+     *            The widths of the columns.
+     * @return The line representing the row.
+     */
+    private String formatRow(String[] row, int[] widths) {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0)
+                line.append(COLUMN_SEPARATOR);
+
+            if (i == 0)
+                line.append(row[i]);
+            for (int j = row[i].length(); j < widths[i]; j++)
+                line.append(' ');
+            if (i > 0)
+                line.append(row[i]);
+        }
+        return line.toString();
+    }
+}
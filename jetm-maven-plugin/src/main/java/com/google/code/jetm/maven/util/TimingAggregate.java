@@ -0,0 +1,142 @@
+package com.google.code.jetm.maven.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.code.jetm.maven.data.HistogramAggregate;
+import com.google.code.jetm.maven.data.LatencyHistogram;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * An {@link Aggregate} read out of, or to be written to, a timing file that
+ * carries the aggregates of the measurements nested within it and,
+ * optionally, a histogram of its times.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingAggregate implements HistogramAggregate {
+    private final String name;
+    private final double min;
+    private final double max;
+    private final double total;
+    private final long measurements;
+    private final Map<String, Aggregate> childs = new LinkedHashMap<String, Aggregate>();
+    private LatencyHistogram histogram;
+
+    /**
+     * Create an aggregate.
+     * 
+     * @param min
+     *            The minimum of the aggregate.
+     * @param max
+     *            The maximum of the aggregate.
+     * @param total
+     *            The total of the aggregate.
+     * @param measurements
+     *            The number of measurements in the aggregate.
+     * @param name
+     *            The name of the aggregate.
+     * @throws IllegalArgumentException
+     *             If the given name is {@code null}.
+     */
+    public TimingAggregate(double min, double max, double total, long measurements, String name) {
+        if (name == null)
+            throw new IllegalArgumentException("Name cannot be null.");
+
+        this.min = min;
+        this.max = max;
+        this.total = total;
+        this.measurements = measurements;
+        this.name = name;
+    }
+
+    /**
+     * Add a nested aggregate. A nested aggregate by the same name as one
+     * already added replaces it.
+     * 
+     * @param child
+     *            The {@link Aggregate} nested within this aggregate.
+     */
+    public void addChild(Aggregate child) {
+        childs.put(child.getName(), child);
+    }
+
+    /**
+     * Set the histogram of the aggregate's times.
+     * 
+     * @param histogram
+     *            A {@link LatencyHistogram} of the times that make up this
+     *            aggregate; this may be {@code null}.
+     */
+    public void setHistogram(LatencyHistogram histogram) {
+        this.histogram = histogram;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getAverage() {
+        return measurements == 0 ? 0 : total / measurements;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    public Map getChilds() {
+        return Collections.unmodifiableMap(childs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getMeasurements() {
+        return measurements;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean hasChilds() {
+        return !childs.isEmpty();
+    }
+}
@@ -0,0 +1,140 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Enumerations of the compression schemes, all supported by the JDK, in which timing files may be stored. A compressed timing file carries the extension of its {@link TimingFormat} followed by
+ * the extension of its compression (e.g., {@code timings.xml.gz}), and is decompressed as it is read or compressed as it is written.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public enum TimingCompression {
+    /**
+     * GZIP compression, as written by a {@link java.util.zip.GZIPOutputStream}.
+     */
+    GZIP(".gz") {
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return new GZIPInputStream(input, BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream output) throws IOException {
+            return new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+    },
+    /**
+     * Deflate compression in the zlib wrapper, as written by a {@link java.util.zip.DeflaterOutputStream}.
+     */
+    ZLIB(".zz") {
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return new InflaterInputStream(input);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream output) throws IOException {
+            return new DeflaterOutputStream(output);
+        }
+    },
+    /**
+     * No compression.
+     */
+    NONE("") {
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return input;
+        }
+
+        @Override
+        public OutputStream compress(OutputStream output) throws IOException {
+            return output;
+        }
+    };
+
+    /**
+     * The size of the buffer used while decompressing.
+     */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Get the compression of a file, as determined by its extension. The comparison is case-insensitive.
+     * 
+     * @param file
+     *            The {@link File} whose compression is to be determined.
+     * @return The {@link TimingCompression} of the file; {@link #NONE} if the file does not carry the extension of a known compression scheme.
+     */
+    public static TimingCompression forFile(File file) {
+        return forFileName(file.getName());
+    }
+
+    /**
+     * Get the compression of a file, as determined by the extension of its name.
+     * 
+     * @param fileName
+     *            The name of the file whose compression is to be determined.
+     * @return The {@link TimingCompression} of the file; {@link #NONE} if the name does not carry the extension of a known compression scheme.
+     * @see #forFile(File)
+     */
+    public static TimingCompression forFileName(String fileName) {
+        for (TimingCompression compression : values()) {
+            final String extension = compression.getExtension();
+            if (compression != NONE && fileName.regionMatches(true, fileName.length() - extension.length(), extension, 0, extension.length()))
+                return compression;
+        }
+
+        return NONE;
+    }
+
+    private final String extension;
+
+    /**
+     * Create a compression enumeration.
+     * 
+     * @param extension
+     *            The extension, including the leading period, that follows the format extension of files compressed with this scheme.
+     */
+    private TimingCompression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Wrap a stream of compressed data.
+     * 
+     * @param input
+     *            The {@link InputStream} from which the compressed data is to be read.
+     * @return An {@link InputStream} from which the decompressed data can be read.
+     * @throws IOException
+     *             If the header of the compressed data cannot be read.
+     */
+    public abstract InputStream decompress(InputStream input) throws IOException;
+
+    /**
+     * Wrap a stream to which data is to be written compressed.
+     * 
+     * @param output
+     *            The {@link OutputStream} to which the compressed data is to be written.
+     * @return An {@link OutputStream} to which the data to be compressed can be written. It must be closed for all of the compressed data to be written.
+     * @throws IOException
+     *             If the header of the compressed data cannot be written.
+     */
+    public abstract OutputStream compress(OutputStream output) throws IOException;
+
+    /**
+     * Get the extension of files compressed with this scheme.
+     * 
+     * @return The extension, including the leading period; an empty string for {@link #NONE}.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
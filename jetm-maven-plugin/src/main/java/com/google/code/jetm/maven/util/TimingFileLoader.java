@@ -0,0 +1,328 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A loader that reads timing files using a bounded pool of worker threads. Files are parsed concurrently, but the contents of each file are always handed on in the order in which the files
+ * were given.
+ * <p />
+ * The {@link TimingFormat} and {@link TimingCompression} of each file are chosen by its extension, and compressed files are decompressed as they are read. XML files are read with a
+ * {@link StaxAggregateReader}, so no file is ever held in memory as a whole document. If a {@link ParseCache} is supplied, files whose cache entries are still valid are not parsed at all; if a
+ * {@link ResidentParseCache} is supplied, files whose entries are still valid in memory are not even read.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFileLoader {
+    private final Charset charset;
+    private final int threads;
+    private final ParseCache cache;
+    private final ResidentParseCache residentCache;
+    private final AtomicInteger residentHits = new AtomicInteger();
+    private final BinaryAggregateReader binaryReader = new BinaryAggregateReader();
+    private final ThreadLocal<StaxAggregateReader> readers = new ThreadLocal<StaxAggregateReader>() {
+        @Override
+        protected StaxAggregateReader initialValue() {
+            return new StaxAggregateReader();
+        }
+    };
+
+    /**
+     * Create a loader.
+     * 
+     * @param charset
+     *            The {@link Charset} used to read the timing files.
+     * @param threads
+     *            The maximum number of files to be read at the same time.
+     * @throws IllegalArgumentException
+     *             If the given charset is {@code null} or the number of
+     *             threads is less than 1.
+     */
+    public TimingFileLoader(Charset charset, int threads) {
+        this(charset, threads, null);
+    }
+
+    /**
+     * Create a loader that consults a cache before parsing any file.
+     * 
+     * @param charset
+     *            The {@link Charset} used to read the timing files.
+     * @param threads
+     *            The maximum number of files to be read at the same time.
+     * @param cache
+     *            The {@link ParseCache} used to look up and store the parsed
+     *            contents of each file; this may be {@code null}.
+     * @throws IllegalArgumentException
+     *             If the given charset is {@code null} or the number of
+     *             threads is less than 1.
+     */
+    public TimingFileLoader(Charset charset, int threads, ParseCache cache) {
+        this(charset, threads, cache, null);
+    }
+
+    /**
+     * Create a loader that consults an in-memory cache, and then an on-disk
+     * cache, before parsing any file.
+     * 
+     * @param charset
+     *            The {@link Charset} used to read the timing files.
+     * @param threads
+     *            The maximum number of files to be read at the same time.
+     * @param cache
+     *            The {@link ParseCache} used to look up and store the parsed
+     *            contents of each file; this may be {@code null}.
+     * @param residentCache
+     *            The {@link ResidentParseCache} used to look up and store the
+     *            parsed contents of each file in memory; this may be
+     *            {@code null}.
+     * @throws IllegalArgumentException
+     *             If the given charset is {@code null} or the number of
+     *             threads is less than 1.
+     */
+    public TimingFileLoader(Charset charset, int threads, ParseCache cache, ResidentParseCache residentCache) {
+        if (charset == null)
+            throw new IllegalArgumentException("Charset cannot be null.");
+
+        if (threads < 1)
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+
+        this.charset = charset;
+        this.threads = threads;
+        this.cache = cache;
+        this.residentCache = residentCache;
+    }
+
+    /**
+     * Pass the aggregates contained in the given files to the given visitor
+     * without retaining them. Only a small window of files, in list order, is
+     * read at any time, so the memory used does not grow with the number of
+     * files.
+     * 
+     * @param files
+     *            A {@link List} of {@link File} objects representing the
+     *            timing files to be read.
+     * @param visitor
+     *            An {@link AggregateVisitor} to which every aggregate is passed
+     *            as soon as it is read. Because files are read concurrently,
+     *            the visitor must be thread-safe.
+     * @throws IllegalArgumentException
+     *             If the given visitor is {@code null}.
+     * @throws IOException
+     *             If any file cannot be read. The message of the exception
+     *             names the first file, in list order, that failed.
+     */
+    public void stream(List<File> files, AggregateVisitor visitor) throws IOException {
+        stream(files, visitor, null);
+    }
+
+    /**
+     * Pass the aggregates contained in the given files to the given visitor
+     * as soon as they are read, and then pass the contents of each file, in
+     * list order, to the given file visitor. Only a small window of files is
+     * read, or held for the file visitor, at any time, so the memory used does
+     * not grow with the number of files.
+     * 
+     * @param files
+     *            A {@link List} of {@link File} objects representing the
+     *            timing files to be read.
+     * @param visitor
+     *            An {@link AggregateVisitor} to which every aggregate is passed
+     *            as soon as it is read. Because files are read concurrently,
+     *            the visitor must be thread-safe.
+     * @param fileVisitor
+     *            A {@link TimingFileVisitor} to which the contents of each
+     *            file with timing data are passed, in list order, on the
+     *            calling thread; this may be {@code null}.
+     * @throws IllegalArgumentException
+     *             If the given visitor is {@code null}.
+     * @throws IOException
+     *             If any file cannot be read or the file visitor fails. The
+     *             message of the exception names the first file, in list
+     *             order, that failed.
+     */
+    public void stream(List<File> files, AggregateVisitor visitor, TimingFileVisitor fileVisitor) throws IOException {
+        if (visitor == null)
+            throw new IllegalArgumentException("Visitor cannot be null.");
+
+        if (files.isEmpty())
+            return;
+
+        final int window = threads * 2;
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        try {
+            final LinkedList<Future<List<Aggregate>>> pending = new LinkedList<Future<List<Aggregate>>>();
+            int submitted = 0;
+            for (int i = 0; i < files.size(); i++) {
+                while (submitted < files.size() && submitted - i < window)
+                    pending.add(executor.submit(new LoadTask(files.get(submitted++), visitor, fileVisitor != null)));
+
+                final List<Aggregate> aggregates = getResult(files.get(i), pending.removeFirst());
+                if (fileVisitor != null && !aggregates.isEmpty())
+                    fileVisitor.visit(files.get(i), aggregates);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the number of files whose aggregates were taken from the in-memory
+     * cache by this loader.
+     * 
+     * @return The number of in-memory cache hits.
+     */
+    public int getResidentHits() {
+        return residentHits.get();
+    }
+
+    /**
+     * Wait for the result of a single load.
+     * 
+     * @param file
+     *            The {@link File} that is being read.
+     * @param future
+     *            The {@link Future} representing the pending load.
+     * @return A {@link List} of {@link Aggregate} objects read from the file.
+     * @throws IOException
+     *             If the file could not be read or the wait was interrupted.
+     */
+    private List<Aggregate> getResult(File file, Future<List<Aggregate>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while reading file: " + file);
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Failed to read timing file: " + file, e.getCause());
+        }
+    }
+
+    /**
+     * A task that reads the aggregates out of a single file.
+     * 
+     * @author jrh3k5
+     * 
+     */
+
+    private class LoadTask implements Callable<List<Aggregate>>, AggregateVisitor {
+        private final File file;
+        private final AggregateVisitor visitor;
+        private final boolean retain;
+        private final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+
+        /**
+         * Create a task.
+         * 
+         * @param file
+         *            The {@link File} to be read.
+         * @param visitor
+         *            An {@link AggregateVisitor} to which each aggregate is to
+         *            be passed; this may be {@code null}.
+         * @param retain
+         *            {@code true} if the aggregates are to be returned by the
+         *            task for a {@link TimingFileVisitor}; if {@code false},
+         *            they are only kept for as long as is needed to cache
+         *            them.
+         */
+        public LoadTask(File file, AggregateVisitor visitor, boolean retain) {
+            this.file = file;
+            this.visitor = visitor;
+            this.retain = retain;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public List<Aggregate> call() throws IOException {
+            /*
+             * The state of the file is taken before it is read, so that a file
+             * changed while it is being read is not cached as unchanged
+             */
+            final long length = file.length();
+            final long lastModified = file.lastModified();
+            final List<Aggregate> resident = residentCache == null ? null : residentCache.get(file, charset);
+            if (resident != null) {
+                residentHits.incrementAndGet();
+                for (Aggregate aggregate : resident)
+                    visit(aggregate);
+                return getAggregates();
+            }
+
+            final byte[] digest = cache == null ? null : cache.digest(file);
+            final List<Aggregate> cached = cache == null ? null : cache.get(file, charset, digest);
+            if (cached != null) {
+                for (Aggregate aggregate : cached)
+                    visit(aggregate);
+                if (residentCache != null)
+                    residentCache.put(file, charset, length, lastModified, aggregates);
+                return getAggregates();
+            }
+
+            InputStream input = new FileInputStream(file);
+            try {
+                input = TimingCompression.forFile(file).decompress(input);
+                if (TimingFormat.forFile(file) == TimingFormat.BINARY)
+                    binaryReader.read(input, this);
+                else
+                    readers.get().read(new InputStreamReader(input, charset), this);
+            } catch (IOException e) {
+                throw new IOException("Failed to read timing file: " + file, e);
+            } catch (RuntimeException e) {
+                throw new IOException("Failed to read timing file: " + file, e);
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+
+            if (cache != null)
+                cache.put(file, charset, length, lastModified, digest, aggregates);
+            if (residentCache != null)
+                residentCache.put(file, charset, length, lastModified, aggregates);
+            return getAggregates();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void visit(Aggregate aggregate) {
+            if (retain || cache != null || residentCache != null)
+                aggregates.add(aggregate);
+            if (visitor != null)
+                visitor.visit(aggregate);
+        }
+
+        /**
+         * Get the result of this task.
+         * 
+         * @return A {@link List} of the {@link Aggregate} objects read from
+         *         the file; empty if they are not to be retained.
+         */
+        private List<Aggregate> getAggregates() {
+            return retain ? aggregates : Collections.<Aggregate> emptyList();
+        }
+    }
+}
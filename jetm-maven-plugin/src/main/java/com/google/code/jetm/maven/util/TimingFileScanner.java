@@ -0,0 +1,218 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * A scanner that finds timing files in a single walk of a directory tree.
+ * <p />
+ * A file is considered to be a timing file if it is in a known
+ * {@link TimingFormat}, is matched by at least one of the include patterns
+ * (if any are given) and is not matched by any of the exclude patterns. The
+ * patterns are matched against the path of each entry relative to the scanned
+ * directory just as Maven matches its own includes and excludes (see
+ * {@link SelectorUtils#matchPath(String, String)}), so {@code **} matches any
+ * number of directories, including none (e.g., {@code **}{@code /*.xml}
+ * matches every XML file, even one directly within the scanned directory). A
+ * directory that matches an exclude pattern, or that cannot contain any file
+ * matching an include pattern, is not descended into at all.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFileScanner {
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final int maxDepth;
+
+    /**
+     * Create a scanner that finds every timing file, at any depth.
+     */
+    public TimingFileScanner() {
+        this(null, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a scanner.
+     * 
+     * @param includes
+     *            The patterns of which a timing file must match at least one; this may be {@code null} or empty, in which case all
+     *            timing files are included.
+     * @param excludes
+     *            The patterns of files and directories to be skipped; this
+     *            may be {@code null}.
+     * @param maxDepth
+     *            The maximum number of directory levels below the scanned
+     *            directory that are to be visited; 1 visits only the files
+     *            directly within the scanned directory.
+     * @throws IllegalArgumentException
+     *             If the maximum depth is less than 1.
+     */
+    public TimingFileScanner(String[] includes, String[] excludes, int maxDepth) {
+        if (maxDepth < 1)
+            throw new IllegalArgumentException("Maximum depth must be at least 1: " + maxDepth);
+
+        this.includes = normalize(includes);
+        this.excludes = normalize(excludes);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Find the timing files within a directory.
+     * 
+     * @param directory
+     *            The directory to be scanned.
+     * @return A {@link List} of {@link File} objects representing the timing
+     *         files found, in the order in which they were visited; empty if
+     *         the directory does not exist.
+     * @throws IOException
+     *             If the directory cannot be walked.
+     */
+    public List<File> scan(File directory) throws IOException {
+        final List<File> files = new ArrayList<File>();
+        walk(directory, files, false);
+        return files;
+    }
+
+    /**
+     * Determine whether a directory contains any timing files, stopping at
+     * the first one found.
+     * 
+     * @param directory
+     *            The directory to be scanned.
+     * @return {@code true} if at least one timing file was found;
+     *         {@code false} if none was found or the directory does not
+     *         exist.
+     * @throws IOException
+     *             If the directory cannot be walked.
+     */
+    public boolean containsAny(File directory) throws IOException {
+        final List<File> files = new ArrayList<File>(1);
+        walk(directory, files, true);
+        return !files.isEmpty();
+    }
+
+    /**
+     * Walk a directory tree, collecting the timing files within it.
+     * 
+     * @param directory
+     *            The directory to be scanned.
+     * @param files
+     *            A {@link List} to which each timing file found is added, in
+     *            the order in which they are visited.
+     * @param firstOnly
+     *            {@code true} if the walk is to stop at the first timing file
+     *            found.
+     * @throws IOException
+     *             If the directory cannot be walked.
+     */
+    private void walk(File directory, final List<File> files, final boolean firstOnly) throws IOException {
+        if (!directory.isDirectory())
+            return;
+
+        final Path root = directory.toPath();
+        Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), maxDepth, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(root))
+                    return FileVisitResult.CONTINUE;
+
+                final String relative = root.relativize(dir).toString();
+                return matchesAny(excludes, relative) || !couldHoldIncluded(relative) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && TimingFormat.forFileName(file.getFileName().toString()) != null) {
+                    final String relative = root.relativize(file).toString();
+                    if ((includes.isEmpty() || matchesAny(includes, relative)) && !matchesAny(excludes, relative)) {
+                        files.add(file.toFile());
+                        if (firstOnly)
+                            return FileVisitResult.TERMINATE;
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                /*
+                 * Unreadable entries and symbolic link cycles are skipped, just
+                 * as they would be by a listing of the directory
+                 */
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Determine whether a directory could contain a file matching an include
+     * pattern.
+     * 
+     * @param directory
+     *            The path of the directory, relative to the scanned directory.
+     * @return {@code true} if there are no include patterns or the start of
+     *         any of them matches the directory.
+     */
+    private boolean couldHoldIncluded(String directory) {
+        if (includes.isEmpty())
+            return true;
+
+        for (String include : includes)
+            if (SelectorUtils.matchPatternStart(include, directory))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Determine whether a path matches any of the given patterns.
+     * 
+     * @param patterns
+     *            A {@link List} of normalized patterns.
+     * @param path
+     *            The path to be matched, relative to the scanned directory.
+     * @return {@code true} if any of the patterns matches the path.
+     */
+    private static boolean matchesAny(List<String> patterns, String path) {
+        for (String pattern : patterns)
+            if (SelectorUtils.matchPath(pattern, path))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Normalize patterns as Maven does: both <code>/</code> and
+     * <code>\</code> are taken to be separators, and a pattern ending with a
+     * separator matches everything beneath it.
+     * 
+     * @param patterns
+     *            The patterns to be normalized; this may be {@code null}.
+     * @return A {@link List} of the given patterns, using the platform's
+     *         separator.
+     */
+    private static List<String> normalize(String[] patterns) {
+        final List<String> normalized = new ArrayList<String>();
+        if (patterns != null)
+            for (String pattern : patterns) {
+                String path = pattern.trim().replace('/', File.separatorChar).replace('\\', File.separatorChar);
+                if (path.endsWith(File.separator))
+                    path += "**";
+                normalized.add(path);
+            }
+        return normalized;
+    }
+}
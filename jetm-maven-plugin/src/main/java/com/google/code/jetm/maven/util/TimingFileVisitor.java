@@ -0,0 +1,28 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A callback that receives the contents of timing files, one whole file at a time and in the order in which the files were given.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public interface TimingFileVisitor {
+    /**
+     * Visit the contents of a timing file.
+     * 
+     * @param file
+     *            The timing {@link File} that was read.
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects representing the timings read within the file; it is never empty.
+     * @throws IOException
+     *             If the contents cannot be processed.
+     */
+    void visit(File file, List<Aggregate> aggregates) throws IOException;
+}
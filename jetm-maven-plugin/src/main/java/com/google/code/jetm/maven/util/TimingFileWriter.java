@@ -0,0 +1,74 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A writer of timing files. The {@link TimingFormat} and {@link TimingCompression} in which a file is written are determined by its name; files whose names carry no known format extension are
+ * written in the XML format.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFileWriter {
+    /**
+     * The character set in which XML timing files are written.
+     */
+    private static final Charset XML_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Write aggregates to a file, replacing any existing contents. The aggregates are written to a temporary file in the same directory, which then replaces the file, so that a write that fails
+     * or is interrupted never leaves the file truncated.
+     * 
+     * @param file
+     *            The {@link File} to be written. Its parent directory is created if it does not exist.
+     * @param aggregates
+     *            A {@link Collection} of {@link Aggregate} objects to be written.
+     * @throws IOException
+     *             If any errors occur during the write-out.
+     */
+    public void write(File file, Collection<? extends Aggregate> aggregates) throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        FileUtils.forceMkdir(parent);
+
+        File temporary = File.createTempFile("timing", ".tmp", parent);
+        OutputStream output = null;
+        try {
+            output = new BufferedOutputStream(new FileOutputStream(temporary));
+            output = TimingCompression.forFile(file).compress(output);
+            if (TimingFormat.forFile(file) == TimingFormat.BINARY)
+                new BinaryAggregateWriter().write(aggregates, output);
+            else {
+                final Writer writer = new OutputStreamWriter(output, XML_CHARSET);
+                try {
+                    new StaxAggregateBinder().bind(aggregates, writer);
+                } catch (IllegalStateException e) {
+                    throw new IOException("Failed to write timing file: " + file, e);
+                }
+                writer.flush();
+            }
+            output.close();
+
+            FileUtils.deleteQuietly(file);
+            if (!temporary.renameTo(file))
+                throw new IOException("Failed to replace timing file: " + file);
+            temporary = null;
+        } finally {
+            IOUtils.closeQuietly(output);
+            FileUtils.deleteQuietly(temporary);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+
+/**
+ * Enumerations of the formats in which timing files can be written.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public enum TimingFormat {
+    /**
+     * The XML format written by the {@code XmlAggregateBinder}.
+     */
+    XML(".xml"),
+    /**
+     * The binary format written by the {@link BinaryAggregateWriter}.
+     */
+    BINARY(".jetm");
+
+    /**
+     * Get the format of a file, as determined by its extension. The comparison is case-insensitive, and any {@link TimingCompression compression} extension that follows the format extension is
+     * ignored.
+     * 
+     * @param file
+     *            The {@link File} whose format is to be determined.
+     * @return The {@link TimingFormat} of the file; {@code null} if the file is not in a known format.
+     */
+    public static TimingFormat forFile(File file) {
+        return forFileName(file.getName());
+    }
+
+    /**
+     * Get the format of a file, as determined by the extension of its name.
+     * 
+     * @param fileName
+     *            The name of the file whose format is to be determined.
+     * @return The {@link TimingFormat} of the file; {@code null} if the file is not in a known format.
+     * @see #forFile(File)
+     */
+    public static TimingFormat forFileName(String fileName) {
+        final int end = fileName.length() - TimingCompression.forFileName(fileName).getExtension().length();
+        for (TimingFormat format : values()) {
+            final String formatExtension = format.getExtension();
+            if (end >= formatExtension.length() && fileName.regionMatches(true, end - formatExtension.length(), formatExtension, 0, formatExtension.length()))
+                return format;
+        }
+
+        return null;
+    }
+
+    private final String extension;
+
+    /**
+     * Create a format enumeration.
+     * 
+     * @param extension
+     *            The extension, including the leading period, of files written in this format.
+     */
+    private TimingFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Get the extension of files written in this format.
+     * 
+     * @return The extension, including the leading period.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,228 @@
+package com.google.code.jetm.maven.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.code.jetm.maven.data.ValueDistribution;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * A generator of synthetic timing files, used to reproduce large sets of timings locally. Each file holds a number of measurement names drawn from a fixed pool of names, and each measurement may
+ * have measurements nested within it down to a given depth. The times of each measurement are drawn from a {@link ValueDistribution}; those of nested measurements have a proportionally smaller
+ * mean, so that they fit within the measurements enclosing them.
+ * <p />
+ * The contents of every file are determined only by the seed and the number of the file, so the same configuration always generates the same files, in any order.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingGenerator {
+    private int namesPerFile = 10;
+    private int nameCardinality = 100;
+    private int depth = 1;
+    private int childrenPerLevel = 2;
+    private ValueDistribution distribution = ValueDistribution.LOG_NORMAL;
+    private double meanTime = 10;
+    private int maxMeasurements = 100;
+    private long seed;
+
+    /**
+     * Set the number of measurement names in each file.
+     * 
+     * @param namesPerFile
+     *            The number of distinct, top-level measurement names in each file. The default is 10.
+     * @throws IllegalArgumentException
+     *             If the given number is less than one.
+     */
+    public void setNamesPerFile(int namesPerFile) {
+        if (namesPerFile < 1)
+            throw new IllegalArgumentException("Each file must have at least one name: " + namesPerFile);
+
+        this.namesPerFile = namesPerFile;
+    }
+
+    /**
+     * Set the number of measurement names from which the names of each file are drawn.
+     * 
+     * @param nameCardinality
+     *            The number of distinct top-level measurement names across all files. The default is 100.
+     * @throws IllegalArgumentException
+     *             If the given number is less than one.
+     */
+    public void setNameCardinality(int nameCardinality) {
+        if (nameCardinality < 1)
+            throw new IllegalArgumentException("There must be at least one name: " + nameCardinality);
+
+        this.nameCardinality = nameCardinality;
+    }
+
+    /**
+     * Set the nesting depth of the measurements.
+     * 
+     * @param depth
+     *            The number of levels of measurements; 1 generates no nested measurements. The default is 1.
+     * @param childrenPerLevel
+     *            The number of measurements nested within each measurement that is not at the deepest level. The default is 2.
+     * @throws IllegalArgumentException
+     *             If the given depth or number of children is less than one.
+     */
+    public void setDepth(int depth, int childrenPerLevel) {
+        if (depth < 1)
+            throw new IllegalArgumentException("The depth must be at least one: " + depth);
+
+        if (childrenPerLevel < 1)
+            throw new IllegalArgumentException("Each level must have at least one child: " + childrenPerLevel);
+
+        this.depth = depth;
+        this.childrenPerLevel = childrenPerLevel;
+    }
+
+    /**
+     * Set the distribution of the times of the top-level measurements.
+     * 
+     * @param distribution
+     *            The {@link ValueDistribution} from which times are drawn. The default is {@link ValueDistribution#LOG_NORMAL}.
+     * @param meanTime
+     *            The mean time, in milliseconds, of a top-level measurement. The default is 10.
+     * @throws IllegalArgumentException
+     *             If the given distribution is {@code null} or the mean is not positive.
+     */
+    public void setDistribution(ValueDistribution distribution, double meanTime) {
+        if (distribution == null)
+            throw new IllegalArgumentException("Distribution cannot be null.");
+
+        if (!(meanTime > 0))
+            throw new IllegalArgumentException("The mean time must be positive: " + meanTime);
+
+        this.distribution = distribution;
+        this.meanTime = meanTime;
+    }
+
+    /**
+     * Set the maximum number of times each measurement was taken in a file.
+     * 
+     * @param maxMeasurements
+     *            The maximum number of measurements of each name in a file; the number of each is drawn evenly between 1 and this. The default is 100.
+     * @throws IllegalArgumentException
+     *             If the given number is less than one.
+     */
+    public void setMaxMeasurements(int maxMeasurements) {
+        if (maxMeasurements < 1)
+            throw new IllegalArgumentException("There must be at least one measurement: " + maxMeasurements);
+
+        this.maxMeasurements = maxMeasurements;
+    }
+
+    /**
+     * Set the seed of the generated values.
+     * 
+     * @param seed
+     *            The seed from which the contents of every file are derived. The default is 0.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generate the contents of a file.
+     * 
+     * @param fileNumber
+     *            The number of the file whose contents are to be generated.
+     * @return A {@link List} of {@link Aggregate} objects representing the contents of the file.
+     * @throws IllegalStateException
+     *             If there are more names per file than there are names.
+     */
+    public List<Aggregate> generate(int fileNumber) {
+        if (namesPerFile > nameCardinality)
+            throw new IllegalStateException("Each file cannot have more names than there are: " + namesPerFile + " > " + nameCardinality);
+
+        final Random random = new Random(seed * 0x5DEECE66DL + fileNumber);
+        final List<Aggregate> aggregates = new ArrayList<Aggregate>(namesPerFile);
+        for (int name : pickNames(random))
+            aggregates.add(generate(random, "com.example.Service" + (name % 16) + ".operation" + name, 1 + random.nextInt(maxMeasurements), meanTime, 1));
+        return aggregates;
+    }
+
+    /**
+     * Generate and write a set of files.
+     * 
+     * @param directory
+     *            The directory to which the files are to be written.
+     * @param files
+     *            The number of files to be written.
+     * @param filesPerDirectory
+     *            The number of files written to each subdirectory of the given directory; if 0, all files are written to the given directory itself.
+     * @param extension
+     *            The extension of each file, which determines its {@link TimingFormat} and {@link TimingCompression} (e.g., <code>.xml</code> or <code>.xml.gz</code>).
+     * @return A {@link List} of {@link File} objects representing the written files.
+     * @throws IOException
+     *             If any of the files cannot be written.
+     */
+    public List<File> write(File directory, int files, int filesPerDirectory, String extension) throws IOException {
+        final TimingFileWriter writer = new TimingFileWriter();
+        final List<File> written = new ArrayList<File>(files);
+        for (int i = 0; i < files; i++) {
+            final File parent = filesPerDirectory > 0 ? new File(directory, String.format("group-%04d", i / filesPerDirectory)) : directory;
+            final File file = new File(parent, String.format("synthetic-%06d%s", i, extension));
+            writer.write(file, generate(i));
+            written.add(file);
+        }
+        return written;
+    }
+
+    /**
+     * Pick the names of a file.
+     * 
+     * @param random
+     *            The {@link Random} of the file.
+     * @return A {@link Set} of the numbers of the distinct names of the file, chosen evenly from all names without building the full set of names.
+     */
+    private Set<Integer> pickNames(Random random) {
+        final Set<Integer> names = new HashSet<Integer>(namesPerFile * 2);
+        for (int candidate = nameCardinality - namesPerFile; candidate < nameCardinality; candidate++) {
+            final Integer name = Integer.valueOf(random.nextInt(candidate + 1));
+            names.add(names.contains(name) ? Integer.valueOf(candidate) : name);
+        }
+        return names;
+    }
+
+    /**
+     * Generate a measurement and the measurements nested within it.
+     * 
+     * @param random
+     *            The {@link Random} of the file.
+     * @param name
+     *            The name of the measurement.
+     * @param measurements
+     *            The number of times the measurement was taken.
+     * @param mean
+     *            The mean time, in milliseconds, of the measurement.
+     * @param level
+     *            The nesting level of the measurement, starting from 1.
+     * @return A {@link TimingAggregate} representing the measurement.
+     */
+    private TimingAggregate generate(Random random, String name, long measurements, double mean, int level) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        double total = 0;
+        for (long i = 0; i < measurements; i++) {
+            final double time = distribution.sample(random, mean);
+            min = Math.min(min, time);
+            max = Math.max(max, time);
+            total += time;
+        }
+
+        final TimingAggregate aggregate = new TimingAggregate(min, max, total, measurements, name);
+        if (level < depth)
+            for (int child = 0; child < childrenPerLevel; child++)
+                aggregate.addChild(generate(random, name + ".step" + child, measurements, mean / (childrenPerLevel + 1), level + 1));
+        return aggregate;
+    }
+}
@@ -0,0 +1,322 @@
+package com.google.code.jetm.maven;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.ReportPlugin;
+import org.apache.maven.model.Reporting;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptorBuilder;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.path.DefaultPathTranslator;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.maven.util.AggregateVisitor;
+import com.google.code.jetm.maven.util.TimingFileWriter;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link ProjectTimingConfiguration}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class ProjectTimingConfigurationTest {
+    private static final String GROUP_ID = "com.google.code.jetm";
+    private static final String ARTIFACT_ID = "jetm-maven-plugin";
+
+    /**
+     * A {@link Rule} used to create the project's directories.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PluginDescriptor pluginDescriptor;
+
+    private File basedir;
+    private MavenProject project;
+    private Properties executionProperties;
+    private MavenSession session;
+
+    /**
+     * Create a project without any configuration of the plugin, within a session without any properties.
+     * 
+     * @throws Exception
+     *             If the descriptor of this plugin cannot be read.
+     */
+    @Before
+    public void setUp() throws Exception {
+        basedir = folder.getRoot();
+
+        final Build build = new Build();
+        build.setDirectory(new File(basedir, "target").getAbsolutePath());
+        final Model model = new Model();
+        model.setBuild(build);
+        model.setReporting(new Reporting());
+        model.setGroupId("com.example");
+        model.setArtifactId("example");
+        model.setVersion("1.0");
+        project = new MavenProject(model);
+        project.setFile(new File(basedir, "pom.xml"));
+
+        executionProperties = new Properties();
+        session = new MavenSession(null, null, null, null, null, Arrays.asList(project), null, executionProperties, new Date());
+        if (pluginDescriptor == null)
+            pluginDescriptor = readPluginDescriptor();
+    }
+
+    /**
+     * The timing files and the parse cache should be found in the locations configured for the project, relative to its base directory.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCreateTimingSource() throws Exception {
+        configureReport("<configuration><timings><timing>timing-files</timing></timings><parseCacheDirectory>timing-cache</parseCacheDirectory></configuration>");
+        new TimingFileWriter().write(new File(basedir, "timing-files/a.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "a")));
+        new TimingFileWriter().write(new File(basedir, "target/jetm/b.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "b")));
+
+        assertThat(stream(createConfiguration().createTimingSource(new SystemStreamLog()))).containsExactly("a");
+        assertThat(new File(basedir, "timing-cache").list()).isNotEmpty();
+        assertThat(new File(basedir, "target/jetm-cache")).doesNotExist();
+    }
+
+    /**
+     * The timing files and the parse cache should default to the locations within the build directory that the goals of this plugin default to.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCreateTimingSourceDefaults() throws Exception {
+        new TimingFileWriter().write(new File(basedir, "target/jetm/b.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "b")));
+
+        assertThat(stream(createConfiguration().createTimingSource(new SystemStreamLog()))).containsExactly("b");
+        assertThat(new File(basedir, "target/jetm-cache").list()).isNotEmpty();
+    }
+
+    /**
+     * The configuration in the reporting section should take precedence over the configuration in the build section.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCreateTimingSourceReportOverridesBuild() throws Exception {
+        configureBuild("<configuration><includes><include>**/a.xml</include></includes><parseCache>false</parseCache></configuration>");
+        configureReport("<configuration><includes><include>**/b.xml</include></includes></configuration>");
+        new TimingFileWriter().write(new File(basedir, "target/jetm/a.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "a")));
+        new TimingFileWriter().write(new File(basedir, "target/jetm/b.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "b")));
+
+        assertThat(stream(createConfiguration().createTimingSource(new SystemStreamLog()))).containsExactly("b");
+        assertThat(new File(basedir, "target/jetm-cache")).doesNotExist();
+    }
+
+    /**
+     * The configuration of an execution of the timing report within the build section should take precedence over the configuration of the plugin, while the executions of other goals
+     * should be ignored.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCreateTimingSourceExecution() throws Exception {
+        final Plugin plugin = configureBuild("<configuration><includes><include>**/a.xml</include></includes><parseCache>false</parseCache></configuration>");
+        plugin.addExecution(createExecution("report", "timing-report", "<configuration><includes><include>**/b.xml</include></includes></configuration>"));
+        plugin.addExecution(createExecution("check", "check", "<configuration><includes><include>**/c.xml</include></includes></configuration>"));
+        for (String name : new String[] { "a", "b", "c" })
+            new TimingFileWriter().write(new File(basedir, "target/jetm/" + name + ".xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, name)));
+
+        assertThat(stream(createConfiguration().createTimingSource(new SystemStreamLog()))).containsExactly("b");
+        assertThat(new File(basedir, "target/jetm-cache")).doesNotExist();
+    }
+
+    /**
+     * Parameters that are not configured should take their values from the properties of the build, and expressions within the configuration should be evaluated against the project.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCreateTimingSourceProperties() throws Exception {
+        executionProperties.setProperty("jetm.maxDepth", "1");
+        executionProperties.setProperty("cacheName", "timing-cache");
+        configureReport("<configuration><parseCacheDirectory>${project.build.directory}/${cacheName}</parseCacheDirectory></configuration>");
+        new TimingFileWriter().write(new File(basedir, "target/jetm/nested/a.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "a")));
+        new TimingFileWriter().write(new File(basedir, "target/jetm/b.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "b")));
+
+        assertThat(stream(createConfiguration().createTimingSource(new SystemStreamLog()))).containsExactly("b");
+        assertThat(new File(basedir, "target/timing-cache").list()).isNotEmpty();
+        assertThat(new File(basedir, "target/jetm-cache")).doesNotExist();
+    }
+
+    /**
+     * When the project enables the in-memory cache, its timing files should be read from the cache shared with the goals that already read them.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCreateTimingSourceResidentCache() throws Exception {
+        executionProperties.setProperty("jetm.residentCache", "true");
+        new TimingFileWriter().write(new File(basedir, "target/jetm/b.xml"), Arrays.asList(new XmlAggregate(1.0, 2.0, 3.0, 2, "b")));
+        stream(createConfiguration().createTimingSource(new SystemStreamLog()));
+
+        final Log log = mock(Log.class);
+        assertThat(stream(createConfiguration().createTimingSource(log))).containsExactly("b");
+        verify(log).info("Reused the in-memory contents of 1 of 1 timing files.");
+    }
+
+    /**
+     * A maximum depth that is not a number should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateTimingSourceInvalidMaxDepth() throws Exception {
+        configureReport("<configuration><maxDepth>deep</maxDepth></configuration>");
+        createConfiguration().createTimingSource(new SystemStreamLog());
+    }
+
+    /**
+     * Create the configuration of the project, as it is read by the aggregate report.
+     * 
+     * @return A {@link ProjectTimingConfiguration} of the project.
+     */
+    private ProjectTimingConfiguration createConfiguration() {
+        return new ProjectTimingConfiguration(session, new MojoExecution(pluginDescriptor.getMojo("timing-aggregate-report")), new DefaultPathTranslator(), project);
+    }
+
+    /**
+     * Configure the plugin in the project's build section.
+     * 
+     * @param configuration
+     *            The XML of the plugin's configuration.
+     * @return The configured {@link Plugin}.
+     * @throws Exception
+     *             If the configuration cannot be parsed.
+     */
+    private Plugin configureBuild(String configuration) throws Exception {
+        final Plugin plugin = new Plugin();
+        plugin.setGroupId(GROUP_ID);
+        plugin.setArtifactId(ARTIFACT_ID);
+        plugin.setConfiguration(parse(configuration));
+        project.getBuild().addPlugin(plugin);
+        return plugin;
+    }
+
+    /**
+     * Create an execution of the plugin.
+     * 
+     * @param id
+     *            The ID of the execution.
+     * @param goal
+     *            The goal run by the execution.
+     * @param configuration
+     *            The XML of the execution's configuration.
+     * @return The configured {@link PluginExecution}.
+     * @throws Exception
+     *             If the configuration cannot be parsed.
+     */
+    private static PluginExecution createExecution(String id, String goal, String configuration) throws Exception {
+        final PluginExecution execution = new PluginExecution();
+        execution.setId(id);
+        execution.addGoal(goal);
+        execution.setConfiguration(parse(configuration));
+        return execution;
+    }
+
+    /**
+     * Configure the plugin in the project's reporting section.
+     * 
+     * @param configuration
+     *            The XML of the plugin's configuration.
+     * @throws Exception
+     *             If the configuration cannot be parsed.
+     */
+    private void configureReport(String configuration) throws Exception {
+        final ReportPlugin plugin = new ReportPlugin();
+        plugin.setGroupId(GROUP_ID);
+        plugin.setArtifactId(ARTIFACT_ID);
+        plugin.setConfiguration(parse(configuration));
+        project.getModel().getReporting().addPlugin(plugin);
+    }
+
+    /**
+     * Parse a plugin's configuration.
+     * 
+     * @param configuration
+     *            The XML of the configuration.
+     * @return An {@link Xpp3Dom} representing the configuration.
+     * @throws Exception
+     *             If the configuration cannot be parsed.
+     */
+    private static Xpp3Dom parse(String configuration) throws Exception {
+        return Xpp3DomBuilder.build(new StringReader(configuration));
+    }
+
+    /**
+     * Read the descriptor of this plugin, as it is generated by the build.
+     * 
+     * @return A {@link PluginDescriptor} describing this plugin.
+     * @throws Exception
+     *             If the descriptor cannot be read.
+     */
+    private static PluginDescriptor readPluginDescriptor() throws Exception {
+        final Reader reader = new InputStreamReader(ProjectTimingConfigurationTest.class.getResourceAsStream("/META-INF/maven/plugin.xml"), "UTF-8");
+        try {
+            return new PluginDescriptorBuilder().build(reader);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Read the aggregates of a source.
+     * 
+     * @param source
+     *            The {@link TimingSource} to be read.
+     * @return A {@link List} of the names of the aggregates read from the source.
+     * @throws Exception
+     *             If the source cannot be read.
+     */
+    private static List<String> stream(TimingSource source) throws Exception {
+        final List<String> names = new ArrayList<String>();
+        source.stream(new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+                names.add(aggregate.getName());
+            }
+        });
+        return names;
+    }
+}
@@ -0,0 +1,96 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+/**
+ * Unit tests for {@link AggregateSummarizer}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class AggregateSummarizerTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * Aggregates by the same name should be folded into a single summary.
+     */
+    @Test
+    public void testVisit() {
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        summarizer.visit(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"));
+        summarizer.visit(new XmlAggregate(5.0, 6.0, 7.0, 8, "b"));
+        summarizer.visit(new XmlAggregate(0.5, 9.0, 10.0, 11, "a"));
+
+        final List<AggregateSummary> summaries = summarizer.getSummaries();
+        Collections.sort(summaries);
+        assertThat(summaries).hasSize(2);
+
+        final AggregateSummary a = summaries.get(0);
+        assertThat(a.getName()).isEqualTo("a");
+        assertThat(a.getMin()).isEqualTo(0.5);
+        assertThat(a.getMax()).isEqualTo(9.0);
+        assertThat(a.getTotal()).isEqualTo(13.0);
+        assertThat(a.getMeasurements()).isEqualTo(15L);
+
+        assertThat(summaries.get(1).getName()).isEqualTo("b");
+    }
+
+    /**
+     * Visits from several threads at once should not lose any data.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testVisitConcurrently() throws Exception {
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++)
+                        summarizer.visit(new XmlAggregate(1.0, 1.0, 1.0, 1, "point-" + (j % 10)));
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        final List<AggregateSummary> summaries = summarizer.getSummaries();
+        assertThat(summaries).hasSize(10);
+        for (AggregateSummary summary : summaries)
+            assertThat(summary.getMeasurements()).isEqualTo(400L);
+    }
+
+    /**
+     * Once the summaries have been collected, no more aggregates should be
+     * accepted.
+     */
+    @Test
+    public void testVisitAfterSummaries() {
+        final AggregateSummarizer summarizer = new AggregateSummarizer();
+        summarizer.visit(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"));
+        assertThat(summarizer.getSummaries()).hasSize(1);
+        assertThat(summarizer.getSummaries()).hasSize(1);
+
+        expected.expect(IllegalStateException.class);
+        expected.expectMessage("Summaries have already been collected.");
+        summarizer.visit(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"));
+    }
+}
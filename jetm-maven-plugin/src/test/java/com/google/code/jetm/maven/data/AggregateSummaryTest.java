@@ -8,6 +8,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.google.code.jetm.maven.util.TimingAggregate;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
 import etm.core.aggregation.Aggregate;
 
 /**
@@ -99,6 +102,67 @@ public class AggregateSummaryTest {
         assertThat(summary.getMeasurements()).isEqualTo(aggregateOne.getMeasurements() + aggregateTwo.getMeasurements());
     }
 
+    /**
+     * Merging should give the same result regardless of how the summaries are
+     * grouped.
+     */
+    @Test
+    public void testMerge() {
+        final AggregateSummary a = new AggregateSummary("merged", 1.0, 2.0, 3.0, 4, null);
+        final AggregateSummary b = new AggregateSummary("merged", 0.5, 1.5, 2.0, 1, null);
+        final AggregateSummary c = new AggregateSummary("merged", 3.0, 9.0, 12.0, 2, null);
+
+        final AggregateSummary left = new AggregateSummary("merged");
+        left.merge(a);
+        left.merge(b);
+        left.merge(c);
+
+        final AggregateSummary right = new AggregateSummary("merged");
+        b.merge(c);
+        right.merge(a);
+        right.merge(b);
+
+        for (AggregateSummary summary : new AggregateSummary[] { left, right }) {
+            assertThat(summary.getMin()).isEqualTo(0.5);
+            assertThat(summary.getMax()).isEqualTo(9.0);
+            assertThat(summary.getTotal()).isEqualTo(17.0);
+            assertThat(summary.getMeasurements()).isEqualTo(7L);
+        }
+    }
+
+    /**
+     * Nested aggregates should be summarized, by name, as children, both when
+     * added and when merged.
+     */
+    @Test
+    public void testAddNested() {
+        final TimingAggregate outer = new TimingAggregate(1.0, 5.0, 6.0, 2, "outer");
+        outer.addChild(new XmlAggregate(0.5, 2.0, 2.5, 2, "inner"));
+
+        final AggregateSummary summary = new AggregateSummary("outer");
+        summary.add(outer);
+        final AggregateSummary other = new AggregateSummary("outer");
+        other.add(outer);
+        summary.merge(other);
+
+        assertThat(summary.hasChilds()).isTrue();
+        assertThat(summary.getChilds()).hasSize(1);
+        final AggregateSummary inner = (AggregateSummary) summary.getChilds().get("inner");
+        assertThat(inner.getTotal()).isEqualTo(5.0);
+        assertThat(inner.getMeasurements()).isEqualTo(4L);
+        assertThat(inner.hasChilds()).isFalse();
+    }
+
+    /**
+     * Summaries by different names should not be merged.
+     */
+    @Test
+    public void testMergeDifferentName() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Cannot merge summary b into summary a.");
+        new AggregateSummary("a").merge(new AggregateSummary("b"));
+    }
+
     /**
      * Test the comparison of two {@link AggregateSummary} objects. Two
      * summaries by the same name should match; those with different names
@@ -0,0 +1,105 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Unit tests for {@link BudgetMatcher}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BudgetMatcherTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private final Budget exact = new Budget("Thread.A", Double.valueOf(150), Double.valueOf(500), null);
+    private final Budget prefix = new Budget("Thread.*", null, null, Double.valueOf(1000));
+    private final Budget everything = new Budget("*", null, Double.valueOf(10000), null);
+    private final Budget pattern = new Budget("*.?ao", Double.valueOf(1), null, null);
+
+    /**
+     * Names should be matched by exact budgets, prefix budgets and general patterns alike.
+     */
+    @Test
+    public void testMatch() {
+        final BudgetMatcher matcher = new BudgetMatcher(Arrays.asList(exact, prefix, everything, pattern));
+        assertThat(matcher.match("Thread.A")).containsOnly(exact, prefix, everything);
+        assertThat(matcher.match("Thread.B")).containsOnly(prefix, everything);
+        assertThat(matcher.match("Thread")).containsOnly(everything);
+        assertThat(matcher.match("com.Dao")).containsOnly(everything, pattern);
+        assertThat(matcher.match("com.Daos")).containsOnly(everything);
+        assertThat(matcher.match("Thread.A")).containsOnly(exact, prefix, everything);
+    }
+
+    /**
+     * Wildcards should only be recognized as such; other characters of a pattern should match literally.
+     */
+    @Test
+    public void testMatchLiteral() {
+        final BudgetMatcher matcher = new BudgetMatcher(Collections.singletonList(new Budget("a.b(c)*?", Double.valueOf(1), null, null)));
+        assertThat(matcher.match("a.b(c)xy")).hasSize(1);
+        assertThat(matcher.match("axb(c)xy")).isEmpty();
+        assertThat(matcher.match("a.b(c)")).isEmpty();
+    }
+
+    /**
+     * Every exceeded limit should be reported, including those of nested measurements.
+     */
+    @Test
+    public void testCheck() {
+        final SummaryTable table = new SummaryTable();
+        final int outer = table.add("Thread.A", 100.0, 600.0, 1200.0, 6);
+        table.add(outer, "Thread.B", 1.0, 1.0, 2.0, 2);
+        table.add("Other", 1.0, 20000.0, 20000.0, 1);
+
+        final List<BudgetViolation> violations = new BudgetMatcher(Arrays.asList(exact, prefix, everything)).check(table);
+        assertThat(violations).hasSize(4);
+
+        assertThat(violations.get(0).getName()).isEqualTo("Thread.A");
+        assertThat(violations.get(0).getBudget()).isSameAs(exact);
+        assertThat(violations.get(0).getMetric()).isEqualTo(Metric.AVERAGE);
+        assertThat(violations.get(0).getLimit()).isEqualTo(150.0);
+        assertThat(violations.get(0).getActual()).isEqualTo(200.0);
+
+        assertThat(violations.get(1).getBudget()).isSameAs(exact);
+        assertThat(violations.get(1).getMetric()).isEqualTo(Metric.MAXIMUM);
+
+        assertThat(violations.get(2).getBudget()).isSameAs(prefix);
+        assertThat(violations.get(2).getMetric()).isEqualTo(Metric.TOTAL);
+
+        assertThat(violations.get(3).getName()).isEqualTo("Other");
+        assertThat(violations.get(3).getBudget()).isSameAs(everything);
+    }
+
+    /**
+     * A budget without any limits should be rejected.
+     */
+    @Test
+    public void testConstructUnlimited() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("A budget must set at least one limit:");
+        new BudgetMatcher(Collections.singletonList(new Budget("a", null, null, null)));
+    }
+
+    /**
+     * A budget without a name should be rejected.
+     */
+    @Test
+    public void testConstructUnnamed() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("A budget must have a name:");
+        new BudgetMatcher(Collections.singletonList(new Budget(null, Double.valueOf(1), null, null)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.code.jetm.maven.util.TimingAggregate;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link HotspotSelector}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class HotspotSelectorTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * The highest-ranked aggregates should be selected for each metric, in order of rank.
+     */
+    @Test
+    public void testSelect() {
+        final List<Aggregate> aggregates = Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 100.0, 100, "many-small"), new XmlAggregate(40.0, 60.0, 50.0, 1, "one-slow"),
+                new XmlAggregate(5.0, 10.0, 30.0, 3, "average"), new XmlAggregate(0.1, 0.1, 0.1, 1, "trivial"));
+        final HotspotSelector selector = new HotspotSelector(2);
+
+        assertThat(getNames(selector.select(aggregates, Metric.TOTAL))).containsExactly("many-small", "one-slow");
+        assertThat(getNames(selector.select(aggregates, Metric.AVERAGE))).containsExactly("one-slow", "average");
+        assertThat(getNames(selector.select(aggregates, Metric.MAXIMUM))).containsExactly("one-slow", "average");
+    }
+
+    /**
+     * The selection should match a full sort of many aggregates, with ties ordered by name.
+     */
+    @Test
+    public void testSelectMatchesSort() {
+        final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+        for (int i = 0; i < 1000; i++)
+            aggregates.add(new XmlAggregate(1.0, 1.0, (i * 37) % 101, 1, String.format("point-%04d", i)));
+        Collections.shuffle(aggregates);
+
+        final List<Aggregate> sorted = new ArrayList<Aggregate>(aggregates);
+        Collections.sort(sorted, new Comparator<Aggregate>() {
+            public int compare(Aggregate o1, Aggregate o2) {
+                final int comparison = Double.compare(o2.getTotal(), o1.getTotal());
+                return comparison == 0 ? o1.getName().compareTo(o2.getName()) : comparison;
+            }
+        });
+
+        final List<Aggregate> selected = new ArrayList<Aggregate>();
+        for (Hotspot hotspot : new HotspotSelector(25).select(aggregates, Metric.TOTAL))
+            selected.add(hotspot.getAggregate());
+        assertThat(selected).isEqualTo(sorted.subList(0, 25));
+    }
+
+    /**
+     * Nested aggregates should be selected under their full names.
+     */
+    @Test
+    public void testSelectNested() {
+        final TimingAggregate root = new TimingAggregate(100.0, 100.0, 100.0, 1, "root");
+        final TimingAggregate slow = new TimingAggregate(60.0, 60.0, 60.0, 1, "slow");
+        slow.addChild(new XmlAggregate(50.0, 50.0, 50.0, 1, "slowest"));
+        root.addChild(slow);
+        root.addChild(new XmlAggregate(30.0, 30.0, 30.0, 1, "fast"));
+
+        assertThat(getNames(new HotspotSelector(3).select(Collections.singletonList(root), Metric.TOTAL))).containsExactly("root", "root > slow", "root > slow > slowest");
+    }
+
+    /**
+     * Asking for more aggregates than are available should select all of them.
+     */
+    @Test
+    public void testSelectFewerThanLimit() {
+        final List<Aggregate> aggregates = Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"), new XmlAggregate(1.0, 2.0, 5.0, 4, "b"));
+        assertThat(getNames(new HotspotSelector(10).select(aggregates, Metric.TOTAL))).containsExactly("b", "a");
+        assertThat(new HotspotSelector(10).select(Collections.<Aggregate> emptyList(), Metric.TOTAL)).isEmpty();
+    }
+
+    /**
+     * A selector must select at least one aggregate.
+     */
+    @Test
+    public void testConstructZeroLimit() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("At least one hotspot must be selected: 0");
+        new HotspotSelector(0);
+    }
+
+    /**
+     * Get the names of aggregates.
+     * 
+     * @param hotspots
+     *            A {@link List} of {@link Hotspot} objects whose names are to be retrieved.
+     * @return A {@link List} of the names of the given hotspots, in the same order.
+     */
+    private List<String> getNames(List<Hotspot> hotspots) {
+        final List<String> names = new ArrayList<String>(hotspots.size());
+        for (Hotspot hotspot : hotspots)
+            names.add(hotspot.getName());
+        return names;
+    }
+}
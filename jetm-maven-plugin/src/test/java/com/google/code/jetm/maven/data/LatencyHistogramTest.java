@@ -0,0 +1,102 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.fest.assertions.Delta;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class LatencyHistogramTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * Percentiles should be within the relative accuracy of the buckets.
+     */
+    @Test
+    public void testGetPercentile() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i);
+
+        assertThat(histogram.getCount()).isEqualTo(1000L);
+        assertThat(histogram.getPercentile(50)).isEqualTo(500.0, Delta.delta(500.0 * 0.04));
+        assertThat(histogram.getPercentile(95)).isEqualTo(950.0, Delta.delta(950.0 * 0.04));
+        assertThat(histogram.getPercentile(99)).isEqualTo(990.0, Delta.delta(990.0 * 0.04));
+        assertThat(histogram.getPercentile(100)).isEqualTo(1000.0, Delta.delta(1000.0 * 0.04));
+    }
+
+    /**
+     * Merging histograms should give the same counts as recording every time
+     * in one histogram.
+     */
+    @Test
+    public void testMerge() {
+        final LatencyHistogram low = new LatencyHistogram();
+        final LatencyHistogram high = new LatencyHistogram();
+        final LatencyHistogram all = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            low.record(i / 100.0);
+            high.record(i * 100.0);
+            all.record(i / 100.0);
+            all.record(i * 100.0);
+        }
+
+        low.merge(high);
+        assertThat(low.getCount()).isEqualTo(all.getCount());
+        assertThat(low.getLowestIndex()).isEqualTo(all.getLowestIndex());
+        assertThat(low.getHighestIndex()).isEqualTo(all.getHighestIndex());
+        for (int index = all.getLowestIndex(); index <= all.getHighestIndex(); index++)
+            assertThat(low.getCount(index)).isEqualTo(all.getCount(index));
+        assertThat(high.getCount()).isEqualTo(100L);
+    }
+
+    /**
+     * Times outside of the trackable range should be clamped to it, keeping
+     * the number of buckets bounded.
+     */
+    @Test
+    public void testRecordOutOfRange() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(-1);
+        histogram.record(Double.NaN);
+        histogram.record(Double.MAX_VALUE);
+
+        assertThat(histogram.getCount()).isEqualTo(4L);
+        assertThat(histogram.getCount(LatencyHistogram.MIN_INDEX)).isEqualTo(3L);
+        assertThat(histogram.getCount(LatencyHistogram.MAX_INDEX)).isEqualTo(1L);
+        assertThat(LatencyHistogram.MAX_INDEX - LatencyHistogram.MIN_INDEX).isLessThan(1000);
+    }
+
+    /**
+     * A bucket outside of the trackable range should be rejected.
+     */
+    @Test
+    public void testRecordIndexOutOfRange() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Bucket index out of range: " + (LatencyHistogram.MAX_INDEX + 1));
+        new LatencyHistogram().recordIndex(LatencyHistogram.MAX_INDEX + 1, 1);
+    }
+
+    /**
+     * An empty histogram should have no percentiles.
+     */
+    @Test
+    public void testGetPercentileEmpty() {
+        expected.expect(IllegalStateException.class);
+        expected.expectMessage("Histogram is empty.");
+        new LatencyHistogram().getPercentile(50);
+    }
+}
@@ -0,0 +1,79 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RegressionDetector}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class RegressionDetectorTest {
+    private final SummaryTable baseline = new SummaryTable();
+    private final SummaryTable current = new SummaryTable();
+    private final RegressionDetector detector = new RegressionDetector();
+
+    /**
+     * Set up the baseline: a top-level measurement with a nested one.
+     */
+    @Before
+    public void setUp() {
+        final int outer = baseline.add("outer", 1.0, 10.0, 40.0, 10);
+        baseline.add(outer, "inner", 1.0, 2.0, 10.0, 10);
+        baseline.add("steady", 1.0, 1.0, 1.0, 1);
+    }
+
+    /**
+     * Figures that grew beyond their thresholds should be reported, including those of nested measurements.
+     */
+    @Test
+    public void testDetect() {
+        detector.setThreshold(Metric.AVERAGE, new Threshold(Double.valueOf(10), null));
+        detector.setThreshold(Metric.MAXIMUM, new Threshold(null, Double.valueOf(5)));
+
+        final int outer = current.add("outer", 1.0, 14.0, 43.0, 10);
+        current.add(outer, "inner", 1.0, 2.0, 20.0, 10);
+        current.add("steady", 1.0, 1.0, 1.0, 1);
+
+        final List<Regression> regressions = detector.detect(baseline, current);
+        assertThat(regressions).hasSize(1);
+        final Regression regression = regressions.get(0);
+        assertThat(regression.getName()).isEqualTo("outer > inner");
+        assertThat(regression.getMetric()).isEqualTo(Metric.AVERAGE);
+        assertThat(regression.getBaseline()).isEqualTo(1.0);
+        assertThat(regression.getCurrent()).isEqualTo(2.0);
+        assertThat(regression.getIncreasePercent()).isEqualTo(100.0);
+        assertThat(detector.getUnmatched()).isZero();
+    }
+
+    /**
+     * Measurements that are not in the baseline, including those nested within them, should not be reported.
+     */
+    @Test
+    public void testDetectUnmatched() {
+        detector.setThreshold(Metric.TOTAL, new Threshold(Double.valueOf(0), null));
+
+        final int added = current.add("added", 1.0, 1.0, 100.0, 1);
+        current.add(added, "inner", 1.0, 1.0, 100.0, 1);
+        current.add("steady", 1.0, 1.0, 1.0, 1);
+
+        assertThat(detector.detect(baseline, current)).isEmpty();
+        assertThat(detector.getUnmatched()).isEqualTo(2);
+    }
+
+    /**
+     * A threshold with no limits should not be checked.
+     */
+    @Test
+    public void testDetectDisabledThreshold() {
+        detector.setThreshold(Metric.TOTAL, new Threshold(null, null));
+        current.add("steady", 100.0, 100.0, 100.0, 1);
+        assertThat(detector.detect(baseline, current)).isEmpty();
+    }
+}
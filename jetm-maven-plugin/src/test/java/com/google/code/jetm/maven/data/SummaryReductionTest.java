@@ -0,0 +1,52 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SummaryReduction}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryReductionTest {
+    /**
+     * Reducing many partials should give the same result as merging them in
+     * sequence.
+     */
+    @Test
+    public void testReduce() {
+        final List<SummaryTable> partials = new ArrayList<SummaryTable>();
+        for (int i = 0; i < 37; i++) {
+            final SummaryTable partial = new SummaryTable();
+            partial.add("shared", i, i, 1.0, 1);
+            partial.add("partial-" + i, 1.0, 1.0, i, 2);
+            partials.add(partial);
+        }
+
+        final SummaryTable reduced = SummaryReduction.reduce(partials);
+        assertThat(reduced.size()).isEqualTo(38);
+
+        final int shared = reduced.indexOf("shared");
+        assertThat(reduced.getMin(shared)).isEqualTo(0.0);
+        assertThat(reduced.getMax(shared)).isEqualTo(36.0);
+        assertThat(reduced.getTotal(shared)).isEqualTo(37.0);
+        assertThat(reduced.getMeasurements(shared)).isEqualTo(37L);
+        for (int i = 0; i < 37; i++)
+            assertThat(reduced.getTotal(reduced.indexOf("partial-" + i))).isEqualTo(i);
+    }
+
+    /**
+     * Reducing no partials should give an empty table.
+     */
+    @Test
+    public void testReduceEmpty() {
+        assertThat(SummaryReduction.reduce(Collections.<SummaryTable> emptyList()).size()).isZero();
+    }
+}
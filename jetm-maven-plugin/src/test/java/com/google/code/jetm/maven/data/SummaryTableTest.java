@@ -0,0 +1,184 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.code.jetm.maven.util.TimingAggregate;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+/**
+ * Unit tests for {@link SummaryTable}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryTableTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * Aggregates by the same name should be folded into a single summary.
+     */
+    @Test
+    public void testAdd() {
+        final SummaryTable table = new SummaryTable();
+        final int a = table.add(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"));
+        final int b = table.add(new XmlAggregate(5.0, 6.0, 7.0, 8, "b"));
+        assertThat(table.add(new XmlAggregate(0.5, 9.0, 10.0, 11, "a"))).isEqualTo(a);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getName(a)).isEqualTo("a");
+        assertThat(table.getMin(a)).isEqualTo(0.5);
+        assertThat(table.getMax(a)).isEqualTo(9.0);
+        assertThat(table.getTotal(a)).isEqualTo(13.0);
+        assertThat(table.getMeasurements(a)).isEqualTo(15L);
+        assertThat(table.getName(b)).isEqualTo("b");
+        assertThat(table.getMeasurements(b)).isEqualTo(8L);
+    }
+
+    /**
+     * The table should keep every name distinct as it grows.
+     */
+    @Test
+    public void testAddManyNames() {
+        final SummaryTable table = new SummaryTable();
+        for (int round = 0; round < 2; round++)
+            for (int i = 0; i < 10000; i++)
+                table.add("point-" + i, i, i, 1.0, 1);
+
+        assertThat(table.size()).isEqualTo(10000);
+        for (int i = 0; i < 10000; i++) {
+            final int id = table.indexOf("point-" + i);
+            assertThat(table.getName(id)).isEqualTo("point-" + i);
+            assertThat(table.getMeasurements(id)).isEqualTo(2L);
+            assertThat(table.getMin(id)).isEqualTo(i);
+        }
+        assertThat(table.indexOf("point-10000")).isEqualTo(-1);
+    }
+
+    /**
+     * A {@code null} name should be rejected.
+     */
+    @Test
+    public void testAddNullName() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Name cannot be null.");
+        new SummaryTable().add(null, 1.0, 1.0, 1.0, 1);
+    }
+
+    /**
+     * An id outside of the table should be rejected.
+     */
+    @Test
+    public void testGetUnknownId() {
+        expected.expect(IndexOutOfBoundsException.class);
+        expected.expectMessage("Unknown summary id: 0");
+        new SummaryTable().getName(0);
+    }
+
+    /**
+     * Merging should fold every summary of the other table into this one.
+     */
+    @Test
+    public void testMerge() {
+        final SummaryTable table = new SummaryTable();
+        table.add(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"));
+        final SummaryTable other = new SummaryTable();
+        other.add(new XmlAggregate(0.5, 1.5, 2.0, 1, "a"));
+        other.add(new XmlAggregate(5.0, 6.0, 7.0, 8, "b"));
+
+        table.merge(other);
+        assertThat(table.size()).isEqualTo(2);
+        final int a = table.indexOf("a");
+        assertThat(table.getMin(a)).isEqualTo(0.5);
+        assertThat(table.getMax(a)).isEqualTo(2.0);
+        assertThat(table.getTotal(a)).isEqualTo(5.0);
+        assertThat(table.getMeasurements(a)).isEqualTo(5L);
+        assertThat(table.getMeasurements(table.indexOf("b"))).isEqualTo(8L);
+        assertThat(other.size()).isEqualTo(2);
+    }
+
+    /**
+     * The table should be materialized as one summary per name.
+     */
+    @Test
+    public void testToSummaries() {
+        final SummaryTable table = new SummaryTable();
+        table.add(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"));
+        table.add(new XmlAggregate(5.0, 6.0, 7.0, 8, "b"));
+
+        final List<AggregateSummary> summaries = table.toSummaries();
+        assertThat(summaries).hasSize(2);
+        final AggregateSummary b = summaries.get(1);
+        assertThat(b.getName()).isEqualTo("b");
+        assertThat(b.getMin()).isEqualTo(5.0);
+        assertThat(b.getMax()).isEqualTo(6.0);
+        assertThat(b.getTotal()).isEqualTo(7.0);
+        assertThat(b.getMeasurements()).isEqualTo(8L);
+    }
+
+    /**
+     * Nested aggregates should be summarized beneath their parents, and
+     * merged beneath the same parents of another table.
+     */
+    @Test
+    public void testNested() {
+        final TimingAggregate outer = new TimingAggregate(1.0, 5.0, 6.0, 2, "outer");
+        outer.addChild(new XmlAggregate(0.5, 2.0, 2.5, 2, "inner"));
+        final TimingAggregate other = new TimingAggregate(2.0, 3.0, 5.0, 2, "other");
+        other.addChild(new XmlAggregate(1.0, 1.0, 1.0, 1, "inner"));
+
+        final SummaryTable table = new SummaryTable();
+        final int outerId = table.add(outer);
+        table.add(other);
+        final SummaryTable partial = new SummaryTable();
+        partial.add(outer);
+        table.merge(partial);
+
+        assertThat(table.size()).isEqualTo(4);
+        assertThat(table.indexOf("inner")).isEqualTo(-1);
+        final int innerId = table.indexOf(outerId, "inner");
+        assertThat(table.getParent(innerId)).isEqualTo(outerId);
+        assertThat(table.getTotal(innerId)).isEqualTo(5.0);
+        assertThat(table.getMeasurements(innerId)).isEqualTo(4L);
+        assertThat(table.getTotal(table.indexOf(table.indexOf("other"), "inner"))).isEqualTo(1.0);
+
+        final List<AggregateSummary> summaries = table.toSummaries();
+        assertThat(summaries).hasSize(2);
+        assertThat(summaries.get(0).hasChilds()).isTrue();
+        assertThat(((AggregateSummary) summaries.get(0).getChilds().get("inner")).getTotal()).isEqualTo(5.0);
+    }
+
+    /**
+     * Histograms should be merged by summary, both when added and when
+     * merged from another table.
+     */
+    @Test
+    public void testHistograms() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1.0);
+        final TimingAggregate aggregate = new TimingAggregate(1.0, 1.0, 1.0, 1, "timed");
+        aggregate.setHistogram(histogram);
+
+        final SummaryTable table = new SummaryTable();
+        final int id = table.add(aggregate);
+        table.add(new XmlAggregate(1.0, 1.0, 1.0, 1, "untimed"));
+        final SummaryTable partial = new SummaryTable();
+        partial.add(aggregate);
+        table.merge(partial);
+
+        assertThat(table.getHistogram(id).getCount()).isEqualTo(2L);
+        assertThat(table.getHistogram(table.indexOf("untimed"))).isNull();
+        assertThat(histogram.getCount()).isEqualTo(1L);
+        assertThat(table.toSummaries().get(0).getHistogram().getCount()).isEqualTo(2L);
+    }
+}
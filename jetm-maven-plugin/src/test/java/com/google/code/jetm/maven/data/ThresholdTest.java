@@ -0,0 +1,77 @@
+package com.google.code.jetm.maven.data;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Unit tests for {@link Threshold}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class ThresholdTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * A relative threshold should be exceeded only by a larger relative increase.
+     */
+    @Test
+    public void testIsExceededRelative() {
+        final Threshold threshold = new Threshold(Double.valueOf(10), null);
+        assertThat(threshold.isExceeded(100, 110)).isFalse();
+        assertThat(threshold.isExceeded(100, 111)).isTrue();
+        assertThat(threshold.isExceeded(100, 50)).isFalse();
+        assertThat(threshold.isExceeded(0, 1)).isTrue();
+    }
+
+    /**
+     * An absolute threshold should be exceeded only by a larger absolute increase.
+     */
+    @Test
+    public void testIsExceededAbsolute() {
+        final Threshold threshold = new Threshold(null, Double.valueOf(5));
+        assertThat(threshold.isExceeded(100, 105)).isFalse();
+        assertThat(threshold.isExceeded(100, 106)).isTrue();
+    }
+
+    /**
+     * With both limits, only exceeding both should exceed the threshold.
+     */
+    @Test
+    public void testIsExceededBoth() {
+        final Threshold threshold = new Threshold(Double.valueOf(50), Double.valueOf(5));
+        assertThat(threshold.isExceeded(1, 2)).isFalse();
+        assertThat(threshold.isExceeded(1000, 1010)).isFalse();
+        assertThat(threshold.isExceeded(100, 104)).isFalse();
+        assertThat(threshold.isExceeded(10, 20)).isTrue();
+        assertThat(threshold.isExceeded(0, 6)).isTrue();
+    }
+
+    /**
+     * An absolute limit should keep a large relative increase of a tiny time from exceeding the threshold.
+     */
+    @Test
+    public void testIsExceededNoiseFloor() {
+        final Threshold threshold = new Threshold(Double.valueOf(10), Double.valueOf(1));
+        assertThat(threshold.isExceeded(0.1, 0.2)).isFalse();
+        assertThat(threshold.isExceeded(10, 12)).isTrue();
+    }
+
+    /**
+     * A negative limit should be rejected.
+     */
+    @Test
+    public void testConstructNegative() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Relative threshold cannot be negative: -1.0");
+        new Threshold(Double.valueOf(-1), null);
+    }
+}
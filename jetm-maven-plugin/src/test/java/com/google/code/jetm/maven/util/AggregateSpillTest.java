@@ -0,0 +1,131 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link AggregateSpill}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class AggregateSpillTest {
+    /**
+     * A {@link Rule} used to create the spill directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * Spilled contents should be replayed in the order in which they were spilled, and the temporary file should be deleted on close.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReplay() throws Exception {
+        final File directory = new File(folder.getRoot(), "spill");
+        final AggregateSpill spill = new AggregateSpill(directory);
+        final TimingAggregate nested = new TimingAggregate(1.0, 2.0, 3.0, 2, "outer");
+        nested.addChild(new XmlAggregate(0.5, 0.5, 0.5, 1, "inner"));
+        spill.append(new File("first.xml"), Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"), new XmlAggregate(5.0, 6.0, 7.0, 8, "b")));
+        spill.visit(new File("second.xml"), Arrays.<Aggregate> asList(nested));
+        assertThat(spill.size()).isEqualTo(2);
+
+        final List<String> replayed = new ArrayList<String>();
+        final TimingFileVisitor visitor = new TimingFileVisitor() {
+            public void visit(File file, List<Aggregate> aggregates) {
+                replayed.add(file.getName());
+                for (Aggregate aggregate : aggregates)
+                    replayed.add(aggregate.getName() + ":" + aggregate.getMeasurements() + ":" + aggregate.getChilds().size());
+            }
+        };
+        spill.replay(visitor);
+        assertThat(replayed).containsExactly("first.xml", "a:4:0", "b:8:0", "second.xml", "outer:2:1");
+
+        replayed.clear();
+        spill.replay(visitor);
+        assertThat(replayed).hasSize(5);
+
+        assertThat(directory.list()).hasSize(1);
+        spill.close();
+        assertThat(directory.list()).isEmpty();
+    }
+
+    /**
+     * Nothing should be spilled once the spill has been replayed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAppendAfterReplay() throws Exception {
+        final AggregateSpill spill = new AggregateSpill(folder.getRoot());
+        try {
+            spill.replay(new TimingFileVisitor() {
+                public void visit(File file, List<Aggregate> aggregates) {
+                }
+            });
+
+            expected.expect(IllegalStateException.class);
+            expected.expectMessage("The spill is no longer writable.");
+            spill.append(new File("late.xml"), Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 3.0, 4, "a")));
+        } finally {
+            spill.close();
+        }
+    }
+
+    /**
+     * Once finished, the contents of each spilled file should be readable by index, in any order.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRead() throws Exception {
+        final AggregateSpill spill = new AggregateSpill(folder.getRoot());
+        try {
+            spill.append(new File("first.xml"), Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"), new XmlAggregate(5.0, 6.0, 7.0, 8, "b")));
+            spill.append(new File("second.xml"), Arrays.<Aggregate> asList(new XmlAggregate(0.5, 0.5, 0.5, 1, "c")));
+            spill.finish();
+
+            assertThat(spill.getFile(0).getName()).isEqualTo("first.xml");
+            assertThat(spill.getFile(1).getName()).isEqualTo("second.xml");
+
+            final List<Aggregate> second = spill.read(1);
+            assertThat(second).hasSize(1);
+            assertThat(second.get(0).getName()).isEqualTo("c");
+
+            final List<Aggregate> first = spill.read(0);
+            assertThat(first).hasSize(2);
+            assertThat(first.get(0).getName()).isEqualTo("a");
+            assertThat(first.get(1).getMeasurements()).isEqualTo(8L);
+
+            expected.expect(IndexOutOfBoundsException.class);
+            expected.expectMessage("No file was spilled at index: 2");
+            spill.read(2);
+        } finally {
+            spill.close();
+        }
+    }
+}
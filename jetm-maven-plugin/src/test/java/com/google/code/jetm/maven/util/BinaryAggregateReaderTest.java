@@ -0,0 +1,250 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.code.jetm.maven.data.HistogramAggregate;
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+import etm.core.monitor.EtmMonitor;
+import etm.core.monitor.EtmPoint;
+import etm.core.monitor.NestedMonitor;
+
+/**
+ * Unit tests for {@link BinaryAggregateReader}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class BinaryAggregateReaderTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private final BinaryAggregateReader reader = new BinaryAggregateReader();
+
+    /**
+     * Data written by a {@link BinaryAggregateWriter} should be read back, in order, with the same values.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRead() throws Exception {
+        final List<Aggregate> written = Arrays.<Aggregate> asList(new XmlAggregate(1.5, 2.5, 10.0, 4, "first é point"), new XmlAggregate(0.1, 0.2, 0.3, 3, "second"),
+                new XmlAggregate(7.0, 8.0, 9.0, 1, "first é point"));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryAggregateWriter().write(written, output);
+
+        final List<Aggregate> read = read(output.toByteArray());
+        assertThat(read).hasSize(written.size());
+        for (int i = 0; i < written.size(); i++) {
+            final Aggregate expectedAggregate = written.get(i);
+            final Aggregate actual = read.get(i);
+            assertThat(actual.getName()).isEqualTo(expectedAggregate.getName());
+            assertThat(actual.getMin()).isEqualTo(expectedAggregate.getMin());
+            assertThat(actual.getMax()).isEqualTo(expectedAggregate.getMax());
+            assertThat(actual.getTotal()).isEqualTo(expectedAggregate.getTotal());
+            assertThat(actual.getMeasurements()).isEqualTo(expectedAggregate.getMeasurements());
+        }
+    }
+
+    /**
+     * The measurements of a monitor rendered by a {@link BinaryMeasurementRenderer} should be readable.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadRenderedMonitor() throws Exception {
+        final EtmMonitor monitor = new NestedMonitor();
+        monitor.start();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < 3; i++) {
+                final EtmPoint point = monitor.createPoint("rendered");
+                point.collect();
+            }
+            monitor.render(new BinaryMeasurementRenderer(output));
+        } finally {
+            monitor.stop();
+        }
+
+        final List<Aggregate> read = read(output.toByteArray());
+        assertThat(read).hasSize(1);
+        assertThat(read.get(0).getName()).isEqualTo("rendered");
+        assertThat(read.get(0).getMeasurements()).isEqualTo(3L);
+    }
+
+    /**
+     * Nested measurements of a monitor rendered by a {@link BinaryMeasurementRenderer} should be read as nested within their parents.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadNested() throws Exception {
+        final EtmMonitor monitor = new NestedMonitor();
+        monitor.start();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final EtmPoint outer = monitor.createPoint("outer");
+                for (int j = 0; j < 3; j++)
+                    monitor.createPoint("inner").collect();
+                outer.collect();
+            }
+            monitor.render(new BinaryMeasurementRenderer(output));
+        } finally {
+            monitor.stop();
+        }
+
+        final List<Aggregate> read = read(output.toByteArray());
+        assertThat(read).hasSize(1);
+        final Aggregate outer = read.get(0);
+        assertThat(outer.getName()).isEqualTo("outer");
+        assertThat(outer.getMeasurements()).isEqualTo(2L);
+        assertThat(outer.getChilds()).hasSize(1);
+        assertThat(((Aggregate) outer.getChilds().get("inner")).getMeasurements()).isEqualTo(6L);
+    }
+
+    /**
+     * The histogram of an aggregate should be read back with the same counts.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadHistogram() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0.25);
+        histogram.record(40.0);
+        histogram.record(40.0);
+        final TimingAggregate aggregate = new TimingAggregate(0.25, 40.0, 80.25, 3, "histogram");
+        aggregate.setHistogram(histogram);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryAggregateWriter().write(Collections.singletonList(aggregate), output);
+
+        final List<Aggregate> read = read(output.toByteArray());
+        assertThat(read).hasSize(1);
+        final LatencyHistogram readHistogram = ((HistogramAggregate) read.get(0)).getHistogram();
+        assertThat(readHistogram.getCount()).isEqualTo(3L);
+        assertThat(readHistogram.getCount(LatencyHistogram.indexOf(0.25))).isEqualTo(1L);
+        assertThat(readHistogram.getCount(LatencyHistogram.indexOf(40.0))).isEqualTo(2L);
+    }
+
+    /**
+     * Data that is not in the binary format should fail to be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadNotBinary() throws Exception {
+        expected.expect(IOException.class);
+        expected.expectMessage("Data is not in the binary timing format.");
+        read("<measurements />".getBytes("UTF-8"));
+    }
+
+    /**
+     * Truncated data should fail to be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadTruncated() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryAggregateWriter().write(Collections.singletonList(new XmlAggregate(1, 2, 3, 4, "truncated")), output);
+        final byte[] bytes = output.toByteArray();
+
+        expected.expect(IOException.class);
+        read(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    /**
+     * A corrupt header announcing more names than could ever be read should fail to be read, rather than exhaust the heap.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadCorruptNameCount() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(BinaryAggregateWriter.MAGIC);
+        data.writeInt(BinaryAggregateWriter.VERSION);
+        data.writeInt(Integer.MAX_VALUE);
+        data.writeInt(Integer.MAX_VALUE);
+        data.close();
+
+        expected.expect(IOException.class);
+        expected.expectMessage("Invalid count in binary timing data: " + Integer.MAX_VALUE);
+        read(output.toByteArray());
+    }
+
+    /**
+     * A corrupt histogram announcing more buckets than a histogram can hold should fail to be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadCorruptBucketCount() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(BinaryAggregateWriter.MAGIC);
+        data.writeInt(BinaryAggregateWriter.VERSION);
+        data.writeInt(1);
+        data.writeInt(1);
+        data.write('a');
+        data.writeInt(1);
+        data.writeInt(0);
+        data.writeDouble(1.0);
+        data.writeDouble(2.0);
+        data.writeDouble(3.0);
+        data.writeLong(2);
+        data.writeInt(Integer.MAX_VALUE);
+        data.close();
+
+        expected.expect(IOException.class);
+        expected.expectMessage("Invalid count in binary timing data: " + Integer.MAX_VALUE);
+        read(output.toByteArray());
+    }
+
+    /**
+     * Read the given binary data.
+     * 
+     * @param bytes
+     *            The data to be read.
+     * @return A {@link List} of the {@link Aggregate} objects read, in order.
+     * @throws IOException
+     *             If any errors occur during the read.
+     */
+    private List<Aggregate> read(byte[] bytes) throws IOException {
+        final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+        reader.read(new ByteArrayInputStream(bytes), new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+                aggregates.add(aggregate);
+            }
+        });
+        return aggregates;
+    }
+}
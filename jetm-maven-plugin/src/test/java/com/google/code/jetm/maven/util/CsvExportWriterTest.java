@@ -0,0 +1,44 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link CsvExportWriter}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class CsvExportWriterTest {
+    /**
+     * Each aggregate should be written as a row, with nested aggregates named by their path and values containing commas quoted.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final TimingAggregate outer = new TimingAggregate(1.0, 4.0, 6.0, 2, "outer");
+        outer.addChild(new XmlAggregate(0.5, 0.5, 0.5, 1, "in,ner"));
+
+        final StringWriter output = new StringWriter();
+        final CsvExportWriter writer = new CsvExportWriter(output);
+        writer.visit(new File("first.xml"), Arrays.<Aggregate> asList(outer));
+        writer.writeSummaries(Arrays.asList(new XmlAggregate(1.0, 3.0, 4.0, 2, "a")));
+        writer.close();
+
+        assertThat(output.toString()).isEqualTo(
+                "scope,file,name,measurements,minimum,maximum,average,total\r\n" + "file,first.xml,outer,2,1.0,4.0,3.0,6.0\r\n" + "file,first.xml,\"outer > in,ner\",1,0.5,0.5,0.5,0.5\r\n"
+                        + "summary,,a,2,1.0,3.0,2.0,4.0\r\n");
+    }
+}
@@ -0,0 +1,141 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.maven.data.HistoryPoint;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link HistoryStore}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class HistoryStoreTest {
+    /**
+     * A {@link Rule} used to create the history directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The history of a name should cover only the most recent builds, from oldest to newest, and survive being read by another store.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetHistory() throws Exception {
+        final File directory = new File(folder.getRoot(), "history");
+        final HistoryStore store = new HistoryStore(directory);
+        for (int i = 1; i <= 5; i++) {
+            final TimingAggregate outer = new TimingAggregate(1.0, 2.0, 10.0 * i, 5, "outer");
+            outer.addChild(new XmlAggregate(0.5, 0.5, i, 1, "inner"));
+            store.append("build-" + i, 1000L * i, i % 2 == 0 ? Arrays.<Aggregate> asList(outer, new XmlAggregate(1.0, 1.0, 1.0, 1, "even")) : Arrays.<Aggregate> asList(outer));
+        }
+        assertThat(store.getBuildCount()).isEqualTo(5);
+
+        final List<HistoryPoint> outer = store.getHistory("outer", 3);
+        assertThat(outer).hasSize(3);
+        assertThat(outer.get(0).getBuildId()).isEqualTo("build-3");
+        assertThat(outer.get(0).getTimestamp()).isEqualTo(3000L);
+        assertThat(outer.get(0).getAverage()).isEqualTo(6.0);
+        assertThat(outer.get(2).getBuildId()).isEqualTo("build-5");
+        assertThat(outer.get(2).getTotal()).isEqualTo(50.0);
+
+        final List<HistoryPoint> even = new HistoryStore(directory).getHistory("even", 3);
+        assertThat(even).hasSize(1);
+        assertThat(even.get(0).getBuildId()).isEqualTo("build-4");
+
+        final List<HistoryPoint> inner = new HistoryStore(directory).getHistory("outer > inner", 10);
+        assertThat(inner).hasSize(5);
+        assertThat(inner.get(4).getTotal()).isEqualTo(5.0);
+
+        assertThat(store.getHistory("missing", 10)).isEmpty();
+    }
+
+    /**
+     * A build whose identifier is already recorded should not be recorded again.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAppendDuplicateBuild() throws Exception {
+        final File directory = folder.getRoot();
+        assertThat(new HistoryStore(directory).append("build", 1L, Arrays.<Aggregate> asList(new XmlAggregate(1.0, 1.0, 1.0, 1, "a")))).isTrue();
+
+        final HistoryStore store = new HistoryStore(directory);
+        assertThat(store.append("build", 2L, Arrays.<Aggregate> asList(new XmlAggregate(2.0, 2.0, 2.0, 1, "a")))).isFalse();
+        assertThat(store.getBuildCount()).isEqualTo(1);
+        assertThat(store.getHistory("a", 10).get(0).getTotal()).isEqualTo(1.0);
+    }
+
+    /**
+     * Each name should be written to the index only once, and the builds appended by another store should be read without reading the whole index again.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testIndexNamesOnce() throws Exception {
+        final File directory = folder.getRoot();
+        final String name = "com.example.SomeRatherLongServiceName.someRatherLongOperationName";
+        final HistoryStore reader = new HistoryStore(directory);
+        final HistoryStore writer = new HistoryStore(directory);
+        writer.append("build-1", 1L, Arrays.<Aggregate> asList(new XmlAggregate(1.0, 1.0, 1.0, 1, name)));
+        assertThat(reader.getHistory(name, 10)).hasSize(1);
+
+        final File index = new File(directory, "history.idx");
+        final long firstLength = index.length();
+        writer.append("build-2", 2L, Arrays.<Aggregate> asList(new XmlAggregate(2.0, 2.0, 2.0, 1, name)));
+        assertThat(index.length() - firstLength).isLessThan(name.length());
+
+        final List<HistoryPoint> history = reader.getHistory(name, 10);
+        assertThat(history).hasSize(2);
+        assertThat(history.get(1).getBuildId()).isEqualTo("build-2");
+        assertThat(history.get(1).getTotal()).isEqualTo(2.0);
+    }
+
+    /**
+     * A partially-written index record should be ignored, and overwritten by the next build.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAppendAfterTruncatedIndex() throws Exception {
+        final File directory = folder.getRoot();
+        new HistoryStore(directory).append("first", 1L, Arrays.<Aggregate> asList(new XmlAggregate(1.0, 1.0, 1.0, 1, "a")));
+        new HistoryStore(directory).append("second", 2L, Arrays.<Aggregate> asList(new XmlAggregate(2.0, 2.0, 2.0, 1, "a")));
+
+        final RandomAccessFile index = new RandomAccessFile(new File(directory, "history.idx"), "rw");
+        try {
+            index.setLength(index.length() - 3);
+        } finally {
+            index.close();
+        }
+
+        final HistoryStore store = new HistoryStore(directory);
+        assertThat(store.getBuildCount()).isEqualTo(1);
+
+        store.append("third", 3L, Arrays.<Aggregate> asList(new XmlAggregate(3.0, 3.0, 3.0, 1, "a")));
+        final List<HistoryPoint> history = new HistoryStore(directory).getHistory("a", 10);
+        assertThat(history).hasSize(2);
+        assertThat(history.get(0).getBuildId()).isEqualTo("first");
+        assertThat(history.get(1).getBuildId()).isEqualTo("third");
+        assertThat(history.get(1).getTotal()).isEqualTo(3.0);
+    }
+}
@@ -0,0 +1,87 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link JsonExportWriter}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class JsonExportWriterTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * Files should be written before the summaries, with nested aggregates written as children and names escaped.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final TimingAggregate outer = new TimingAggregate(1.0, 4.0, 6.0, 2, "outer");
+        outer.addChild(new XmlAggregate(0.5, 0.5, 0.5, 1, "in\"ner"));
+
+        final StringWriter output = new StringWriter();
+        final JsonExportWriter writer = new JsonExportWriter(output);
+        writer.visit(new File("first.xml"), Arrays.<Aggregate> asList(outer));
+        writer.visit(new File("second.xml"), Collections.<Aggregate> emptyList());
+        writer.writeSummaries(Arrays.asList(new XmlAggregate(2.0, 2.0, 2.0, 1, "b"), new XmlAggregate(1.0, 3.0, 4.0, 2, "a")));
+        writer.close();
+
+        assertThat(output.toString()).isEqualTo(
+                "{\n  \"files\": [\n"
+                        + "    {\"file\": \"first.xml\", \"aggregates\": [{\"name\": \"outer\", \"measurements\": 2, \"minimum\": 1.0, \"maximum\": 4.0, \"average\": 3.0, \"total\": 6.0, \"children\": "
+                        + "[{\"name\": \"in\\\"ner\", \"measurements\": 1, \"minimum\": 0.5, \"maximum\": 0.5, \"average\": 0.5, \"total\": 0.5, \"children\": []}]}]},\n"
+                        + "    {\"file\": \"second.xml\", \"aggregates\": []}\n"
+                        + "  ],\n  \"summaries\": [{\"name\": \"a\", \"measurements\": 2, \"minimum\": 1.0, \"maximum\": 3.0, \"average\": 2.0, \"total\": 4.0, \"children\": []}, "
+                        + "{\"name\": \"b\", \"measurements\": 1, \"minimum\": 2.0, \"maximum\": 2.0, \"average\": 2.0, \"total\": 2.0, \"children\": []}]\n}\n");
+    }
+
+    /**
+     * An export with nothing written should still be a complete document.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWriteEmpty() throws Exception {
+        final StringWriter output = new StringWriter();
+        new JsonExportWriter(output).close();
+        assertThat(output.toString()).isEqualTo("{\n  \"files\": []\n}\n");
+    }
+
+    /**
+     * No files should be written once the summaries have been written.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testVisitAfterSummaries() throws Exception {
+        final JsonExportWriter writer = new JsonExportWriter(new StringWriter());
+        writer.writeSummaries(Collections.<Aggregate> emptyList());
+
+        expected.expect(IllegalStateException.class);
+        expected.expectMessage("The summaries have already been written.");
+        writer.visit(new File("late.xml"), Collections.<Aggregate> emptyList());
+    }
+}
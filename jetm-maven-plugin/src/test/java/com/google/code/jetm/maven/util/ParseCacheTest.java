@@ -0,0 +1,186 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link ParseCache}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class ParseCacheTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * A {@link Rule} used to create the timing files and cache directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheDirectory;
+    private File timingFile;
+    private final List<Aggregate> aggregates = Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"), new XmlAggregate(5.0, 6.0, 7.0, 8, "b"));
+
+    /**
+     * Create the timing file to be cached.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        cacheDirectory = new File(folder.getRoot(), "cache");
+        timingFile = folder.newFile("timing.xml");
+        FileUtils.writeStringToFile(timingFile, "<measurements />", "UTF-8");
+    }
+
+    /**
+     * A stored entry should be returned while the file is unchanged.
+     */
+    @Test
+    public void testGet() {
+        final ParseCache cache = new ParseCache(cacheDirectory, false);
+        assertThat(cache.get(timingFile, UTF_8, null)).isNull();
+        assertThat(put(cache, timingFile, aggregates)).isTrue();
+
+        final List<Aggregate> cached = cache.get(timingFile, UTF_8, null);
+        assertThat(cached).hasSize(2);
+        assertThat(cached.get(1).getName()).isEqualTo("b");
+        assertThat(cached.get(1).getMin()).isEqualTo(5.0);
+        assertThat(cached.get(1).getMax()).isEqualTo(6.0);
+        assertThat(cached.get(1).getTotal()).isEqualTo(7.0);
+        assertThat(cached.get(1).getMeasurements()).isEqualTo(8L);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    /**
+     * A change in the size of the file should invalidate its entry.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetModifiedFile() throws Exception {
+        final ParseCache cache = new ParseCache(cacheDirectory, false);
+        put(cache, timingFile, aggregates);
+        FileUtils.writeStringToFile(timingFile, "<measurements></measurements>", "UTF-8");
+        assertThat(cache.get(timingFile, UTF_8, null)).isNull();
+    }
+
+    /**
+     * A file that changed while it was being read should not be cached under
+     * its new state.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testPutChangedWhileRead() throws Exception {
+        final ParseCache cache = new ParseCache(cacheDirectory, false);
+        final long length = timingFile.length();
+        final long lastModified = timingFile.lastModified();
+        FileUtils.writeStringToFile(timingFile, "<measurements></measurements>", "UTF-8");
+
+        assertThat(cache.put(timingFile, UTF_8, length, lastModified, null, aggregates)).isFalse();
+        assertThat(cache.get(timingFile, UTF_8, null)).isNull();
+    }
+
+    /**
+     * When contents are hashed, a change in the contents should invalidate the
+     * entry even if the size and last-modified time are unchanged.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetHashedContents() throws Exception {
+        final ParseCache cache = new ParseCache(cacheDirectory, true);
+        put(cache, timingFile, aggregates);
+        assertThat(cache.get(timingFile, UTF_8, cache.digest(timingFile))).hasSize(2);
+        assertThat(cache.get(timingFile, UTF_8, null)).isNull();
+
+        final long lastModified = timingFile.lastModified();
+        FileUtils.writeStringToFile(timingFile, "<measurementz />", "UTF-8");
+        assertThat(timingFile.setLastModified(lastModified)).isTrue();
+        assertThat(cache.get(timingFile, UTF_8, cache.digest(timingFile))).isNull();
+        assertThat(new ParseCache(cacheDirectory, false).get(timingFile, UTF_8, null)).hasSize(2);
+    }
+
+    /**
+     * The digest taken before a file is read should be the one stored with its entry, and none should be taken unless contents are hashed.
+     */
+    @Test
+    public void testPutDigest() {
+        final ParseCache cache = new ParseCache(cacheDirectory, true);
+        final byte[] digest = cache.digest(timingFile);
+        assertThat(cache.put(timingFile, UTF_8, timingFile.length(), timingFile.lastModified(), digest, aggregates)).isTrue();
+        assertThat(cache.get(timingFile, UTF_8, digest)).hasSize(2);
+        assertThat(cache.put(timingFile, UTF_8, timingFile.length(), timingFile.lastModified(), null, aggregates)).isFalse();
+        assertThat(new ParseCache(cacheDirectory, false).digest(timingFile)).isNull();
+    }
+
+    /**
+     * An entry should only be valid for the character set in which the file was decoded.
+     */
+    @Test
+    public void testGetOtherCharset() {
+        final ParseCache cache = new ParseCache(cacheDirectory, false);
+        put(cache, timingFile, aggregates);
+        assertThat(cache.get(timingFile, Charset.forName("ISO-8859-1"), null)).isNull();
+        assertThat(cache.get(timingFile, UTF_8, null)).hasSize(2);
+    }
+
+    /**
+     * Entries of files that are no longer present should be removed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRetain() throws Exception {
+        final File otherFile = folder.newFile("other.xml");
+        final ParseCache cache = new ParseCache(cacheDirectory, false);
+        put(cache, timingFile, aggregates);
+        put(cache, otherFile, Collections.<Aggregate> emptyList());
+        assertThat(cacheDirectory.list()).hasSize(2);
+
+        cache.retain(Collections.singleton(otherFile));
+        assertThat(cacheDirectory.list()).hasSize(1);
+        assertThat(cache.get(timingFile, UTF_8, null)).isNull();
+        assertThat(cache.get(otherFile, UTF_8, null)).isEmpty();
+    }
+
+    /**
+     * Store the aggregates of a file as they were read from its current state.
+     * 
+     * @param cache
+     *            The {@link ParseCache} in which the aggregates are to be stored.
+     * @param file
+     *            The {@link File} from which the aggregates were read.
+     * @param aggregates
+     *            The {@link Aggregate} objects read from the file.
+     * @return The result of {@link ParseCache#put(File, Charset, long, long, byte[], Collection)}.
+     */
+    private boolean put(ParseCache cache, File file, Collection<? extends Aggregate> aggregates) {
+        return cache.put(file, UTF_8, file.length(), file.lastModified(), cache.digest(file), aggregates);
+    }
+}
@@ -0,0 +1,117 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link PipelineMonitor}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class PipelineMonitorTest {
+    /**
+     * A {@link Rule} used to create the timing files.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Phases should be listed in the order in which they were first started, with repeated measurements totalled.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetPhases() throws Exception {
+        final PipelineMonitor monitor = new PipelineMonitor();
+        try {
+            monitor.start("scan").collect();
+            monitor.start("read").collect();
+            monitor.start("scan").collect();
+
+            final List<Aggregate> phases = monitor.getPhases();
+            assertThat(phases).hasSize(2);
+            assertThat(phases.get(0).getName()).isEqualTo("scan");
+            assertThat(phases.get(0).getMeasurements()).isEqualTo(2L);
+            assertThat(phases.get(1).getName()).isEqualTo("read");
+            assertThat(monitor.getPhaseTime("read")).isEqualTo(phases.get(1).getTotal());
+            assertThat(monitor.getPhaseTime("render")).isEqualTo(0.0);
+            assertThat(monitor.getMaxSampledHeap()).isGreaterThan(0L);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    /**
+     * Monitoring should not reset the peak heap usage that is shared by everything running within the JVM.
+     */
+    @Test
+    public void testPeakHeapNotReset() {
+        final Map<String, Long> peaks = new HashMap<String, Long>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null)
+                peaks.put(pool.getName(), Long.valueOf(pool.getPeakUsage().getUsed()));
+
+        final PipelineMonitor monitor = new PipelineMonitor();
+        try {
+            monitor.start("phase").collect();
+            assertThat(monitor.getMaxSampledHeap()).isGreaterThan(0L);
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+                if (peaks.containsKey(pool.getName()))
+                    assertThat(pool.getPeakUsage().getUsed()).isGreaterThanOrEqualTo(peaks.get(pool.getName()).longValue());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    /**
+     * The number and total size of the timing files should be recorded.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testSetFiles() throws Exception {
+        final File first = new File(folder.getRoot(), "first.xml");
+        final File second = new File(folder.getRoot(), "second.xml");
+        FileUtils.writeStringToFile(first, "1234");
+        FileUtils.writeStringToFile(second, "123456");
+
+        final PipelineMonitor monitor = new PipelineMonitor();
+        try {
+            monitor.setFiles(Arrays.asList(first, second));
+            monitor.setDistinctNames(3);
+            assertThat(monitor.getFiles()).isEqualTo(2);
+            assertThat(monitor.getBytes()).isEqualTo(10L);
+            assertThat(monitor.getDistinctNames()).isEqualTo(3);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    /**
+     * Rates should be expressed per second, and be 0 when no time was taken.
+     */
+    @Test
+    public void testPerSecond() {
+        assertThat(PipelineMonitor.perSecond(10, 500)).isEqualTo(20.0);
+        assertThat(PipelineMonitor.perSecond(10, 0)).isEqualTo(0.0);
+    }
+}
@@ -0,0 +1,198 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link ResidentParseCache}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class ResidentParseCacheTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * A {@link Rule} used to create the timing files.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private File timingFile;
+    private final List<Aggregate> aggregates = Arrays.<Aggregate> asList(new XmlAggregate(1.0, 2.0, 3.0, 4, "a"), new XmlAggregate(5.0, 6.0, 7.0, 8, "b"));
+
+    /**
+     * Create the timing file to be cached.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        timingFile = folder.newFile("timing.xml");
+        FileUtils.writeStringToFile(timingFile, "<measurements />", "UTF-8");
+    }
+
+    /**
+     * A stored entry should be returned while the file is unchanged.
+     */
+    @Test
+    public void testGet() {
+        final ResidentParseCache cache = new ResidentParseCache(10);
+        assertThat(cache.get(timingFile, UTF_8)).isNull();
+        assertThat(put(cache, timingFile, aggregates)).isTrue();
+
+        assertThat(cache.get(timingFile, UTF_8)).isEqualTo(aggregates);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    /**
+     * A change in the size of the file should invalidate its entry.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetModifiedFile() throws Exception {
+        final ResidentParseCache cache = new ResidentParseCache(10);
+        put(cache, timingFile, aggregates);
+        FileUtils.writeStringToFile(timingFile, "<measurements></measurements>", "UTF-8");
+        assertThat(cache.get(timingFile, UTF_8)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    /**
+     * The least recently used entries should be evicted once the cache holds too many aggregates, counting nested ones.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testPutEvicts() throws Exception {
+        final File otherFile = folder.newFile("other.xml");
+        final File nestedFile = folder.newFile("nested.xml");
+        final TimingAggregate nested = new TimingAggregate(1.0, 1.0, 1.0, 1, "outer");
+        nested.addChild(new XmlAggregate(1.0, 1.0, 1.0, 1, "inner"));
+
+        final ResidentParseCache cache = new ResidentParseCache(4);
+        put(cache, timingFile, aggregates);
+        put(cache, otherFile, Collections.<Aggregate> singletonList(new XmlAggregate(1.0, 1.0, 1.0, 1, "c")));
+        assertThat(cache.get(timingFile, UTF_8)).hasSize(2);
+
+        put(cache, nestedFile, Collections.<Aggregate> singletonList(nested));
+        assertThat(cache.size()).isEqualTo(4);
+        assertThat(cache.get(otherFile, UTF_8)).isNull();
+        assertThat(cache.get(timingFile, UTF_8)).hasSize(2);
+        assertThat(cache.get(nestedFile, UTF_8)).hasSize(1);
+
+    }
+
+    /**
+     * The bound should only ever be raised, so that no entries are evicted by a lower one.
+     */
+    @Test
+    public void testEnsureCapacity() {
+        final ResidentParseCache cache = new ResidentParseCache(1);
+        assertThat(put(cache, timingFile, aggregates)).isFalse();
+
+        cache.ensureCapacity(2);
+        assertThat(put(cache, timingFile, aggregates)).isTrue();
+        cache.ensureCapacity(1);
+        assertThat(cache.getMaxAggregates()).isEqualTo(2);
+        assertThat(cache.get(timingFile, UTF_8)).isEqualTo(aggregates);
+    }
+
+    /**
+     * A file that changed while it was being read should not be cached under its new state.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testPutChangedWhileRead() throws Exception {
+        final ResidentParseCache cache = new ResidentParseCache(10);
+        final long length = timingFile.length();
+        final long lastModified = timingFile.lastModified();
+        FileUtils.writeStringToFile(timingFile, "<measurements></measurements>", "UTF-8");
+
+        assertThat(cache.put(timingFile, UTF_8, length, lastModified, aggregates)).isFalse();
+        assertThat(cache.get(timingFile, UTF_8)).isNull();
+    }
+
+    /**
+     * An entry should only be returned for the character set in which the file was decoded, as the cache is shared by projects that may read the same file in different encodings.
+     */
+    @Test
+    public void testGetOtherCharset() {
+        final ResidentParseCache cache = new ResidentParseCache(10);
+        put(cache, timingFile, aggregates);
+        final Charset latin1 = Charset.forName("ISO-8859-1");
+        assertThat(cache.get(timingFile, latin1)).isNull();
+
+        final List<Aggregate> decoded = Collections.<Aggregate> singletonList(new XmlAggregate(1.0, 1.0, 1.0, 1, "latin"));
+        assertThat(cache.put(timingFile, latin1, timingFile.length(), timingFile.lastModified(), decoded)).isTrue();
+        assertThat(cache.get(timingFile, latin1)).isEqualTo(decoded);
+        assertThat(cache.get(timingFile, UTF_8)).isEqualTo(aggregates);
+    }
+
+    /**
+     * Files with more aggregates than the cache can hold should not be stored.
+     */
+    @Test
+    public void testPutTooLarge() {
+        final ResidentParseCache cache = new ResidentParseCache(1);
+        assertThat(put(cache, timingFile, aggregates)).isFalse();
+        assertThat(cache.get(timingFile, UTF_8)).isNull();
+    }
+
+    /**
+     * A bound of less than one aggregate should be rejected.
+     */
+    @Test
+    public void testConstructInvalidBound() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("The cache must hold at least one aggregate: 0");
+        new ResidentParseCache(0);
+    }
+
+    /**
+     * Store the aggregates of a file as they were read from its current state.
+     * 
+     * @param cache
+     *            The {@link ResidentParseCache} in which the aggregates are to be stored.
+     * @param file
+     *            The {@link File} from which the aggregates were read.
+     * @param aggregates
+     *            The {@link Aggregate} objects read from the file.
+     * @return The result of {@link ResidentParseCache#put(File, Charset, long, long, Collection)}.
+     */
+    private boolean put(ResidentParseCache cache, File file, Collection<? extends Aggregate> aggregates) {
+        return cache.put(file, UTF_8, file.length(), file.lastModified(), aggregates);
+    }
+}
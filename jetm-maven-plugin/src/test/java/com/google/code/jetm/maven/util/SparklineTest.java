@@ -0,0 +1,31 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Sparkline}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SparklineTest {
+    /**
+     * Values should be scaled between the lowest and the highest bar.
+     */
+    @Test
+    public void testRender() {
+        assertThat(Sparkline.render(new double[] { 1.0, 8.0, 4.5 })).isEqualTo("▁█▅");
+    }
+
+    /**
+     * A series with no variation should be rendered at mid-height.
+     */
+    @Test
+    public void testRenderFlat() {
+        assertThat(Sparkline.render(new double[] { 2.0, 2.0 })).isEqualTo("▄▄");
+        assertThat(Sparkline.render(new double[0])).isEmpty();
+    }
+}
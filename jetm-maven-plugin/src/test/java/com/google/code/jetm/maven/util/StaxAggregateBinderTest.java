@@ -0,0 +1,97 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.code.jetm.maven.data.HistogramAggregate;
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.reporting.BindingMeasurementRenderer;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+import etm.core.aggregation.RootAggregator;
+import etm.core.monitor.EtmMonitor;
+import etm.core.monitor.EtmPoint;
+import etm.core.monitor.NestedMonitor;
+
+/**
+ * Unit tests for {@link StaxAggregateBinder}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class StaxAggregateBinderTest {
+    private final StaxAggregateBinder binder = new StaxAggregateBinder();
+
+    /**
+     * Aggregates, along with their nested aggregates and histograms, should be
+     * read back as they were written.
+     */
+    @Test
+    public void testBind() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1.5);
+        histogram.record(2.5);
+        final TimingAggregate outer = new TimingAggregate(1.5, 2.5, 4.0, 2, "outer <&> point");
+        outer.setHistogram(histogram);
+        outer.addChild(new XmlAggregate(0.5, 0.5, 0.5, 1, "inner"));
+
+        final StringWriter writer = new StringWriter();
+        binder.bind(Arrays.<Aggregate> asList(outer, new XmlAggregate(0.1, 0.2, 0.3, 3, "second")), writer);
+        final List<Aggregate> read = new ArrayList<Aggregate>(binder.unbind(new StringReader(writer.toString())));
+
+        assertThat(read).hasSize(2);
+        final Aggregate readOuter = read.get(0);
+        assertThat(readOuter.getName()).isEqualTo("outer <&> point");
+        assertThat(readOuter.getTotal()).isEqualTo(4.0);
+        assertThat(readOuter.getMeasurements()).isEqualTo(2L);
+        assertThat(((Aggregate) readOuter.getChilds().get("inner")).getTotal()).isEqualTo(0.5);
+
+        final LatencyHistogram readHistogram = ((HistogramAggregate) readOuter).getHistogram();
+        assertThat(readHistogram.getCount()).isEqualTo(2L);
+        assertThat(readHistogram.getCount(LatencyHistogram.indexOf(1.5))).isEqualTo(1L);
+        assertThat(readHistogram.getCount(LatencyHistogram.indexOf(2.5))).isEqualTo(1L);
+
+        assertThat(read.get(1).getName()).isEqualTo("second");
+        assertThat(read.get(1).hasChilds()).isFalse();
+    }
+
+    /**
+     * The histograms recorded by a {@link HistogramAggregator} should be
+     * written for every measurement, including nested ones.
+     */
+    @Test
+    public void testBindMonitor() {
+        final EtmMonitor monitor = new NestedMonitor(new HistogramAggregator(new RootAggregator()));
+        monitor.start();
+        final StringWriter writer = new StringWriter();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final EtmPoint outer = monitor.createPoint("outer");
+                for (int j = 0; j < 3; j++)
+                    monitor.createPoint("inner").collect();
+                outer.collect();
+            }
+            monitor.render(new BindingMeasurementRenderer(binder, writer));
+        } finally {
+            monitor.stop();
+        }
+
+        final Collection<Aggregate> read = binder.unbind(new StringReader(writer.toString()));
+        assertThat(read).hasSize(1);
+        final Aggregate outer = read.iterator().next();
+        assertThat(((HistogramAggregate) outer).getHistogram().getCount()).isEqualTo(2L);
+        final Aggregate inner = (Aggregate) outer.getChilds().get("inner");
+        assertThat(inner.getMeasurements()).isEqualTo(6L);
+        assertThat(((HistogramAggregate) inner).getHistogram().getCount()).isEqualTo(6L);
+    }
+}
@@ -0,0 +1,146 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link StaxAggregateReader}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class StaxAggregateReaderTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private final StaxAggregateReader reader = new StaxAggregateReader();
+
+    /**
+     * Data written by {@link XmlAggregateBinder} should be read back, in
+     * order, with the same values.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRead() throws Exception {
+        final List<Aggregate> written = Arrays.<Aggregate> asList(new XmlAggregate(1.5, 2.5, 10.0, 4, "first <&> point"), new XmlAggregate(0.1, 0.2, 0.3, 3, "second"));
+        final StringWriter writer = new StringWriter();
+        new XmlAggregateBinder().bind(written, writer);
+
+        final List<Aggregate> read = read(writer.toString());
+        assertThat(read).hasSize(written.size());
+        for (int i = 0; i < written.size(); i++) {
+            final Aggregate expectedAggregate = written.get(i);
+            final Aggregate actual = read.get(i);
+            assertThat(actual.getName()).isEqualTo(expectedAggregate.getName());
+            assertThat(actual.getMin()).isEqualTo(expectedAggregate.getMin());
+            assertThat(actual.getMax()).isEqualTo(expectedAggregate.getMax());
+            assertThat(actual.getTotal()).isEqualTo(expectedAggregate.getTotal());
+            assertThat(actual.getMeasurements()).isEqualTo(expectedAggregate.getMeasurements());
+        }
+    }
+
+    /**
+     * Measurements within a childs element should be read as nested within
+     * their parent.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadNested() throws Exception {
+        final List<Aggregate> read = read("<measurements><measurement><measurementName>outer</measurementName><min>1</min><max>5</max><total>6</total><measurements>2</measurements>"
+                + "<childs><measurement><measurementName>inner</measurementName><min>0.5</min><max>2</max><total>2.5</total><measurements>2</measurements></measurement></childs>"
+                + "</measurement></measurements>");
+        assertThat(read).hasSize(1);
+
+        final Aggregate outer = read.get(0);
+        assertThat(outer.getName()).isEqualTo("outer");
+        assertThat(outer.getTotal()).isEqualTo(6.0);
+        assertThat(outer.hasChilds()).isTrue();
+
+        final Aggregate inner = (Aggregate) outer.getChilds().get("inner");
+        assertThat(inner.getTotal()).isEqualTo(2.5);
+        assertThat(inner.getMeasurements()).isEqualTo(2L);
+        assertThat(inner.hasChilds()).isFalse();
+    }
+
+    /**
+     * Elements that are not known to the reader should be skipped.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadSkipsUnknownElements() throws Exception {
+        final List<Aggregate> read = read("<measurements><extra><measurement /></extra><measurement><measurementName>a</measurementName><unknown><x>1</x></unknown>"
+                + "<min>1</min><max>2</max><total>3</total><measurements>2</measurements></measurement></measurements>");
+        assertThat(read).hasSize(1);
+        assertThat(read.get(0).getName()).isEqualTo("a");
+        assertThat(read.get(0).getMeasurements()).isEqualTo(2L);
+    }
+
+    /**
+     * A measurement missing one of its values should fail to be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadMissingElement() throws Exception {
+        expected.expect(IOException.class);
+        expected.expectMessage("Measurement is missing element: total");
+        read("<measurements><measurement><measurementName>a</measurementName><min>1</min><max>2</max><measurements>2</measurements></measurement></measurements>");
+    }
+
+    /**
+     * Malformed XML should fail to be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadMalformed() throws Exception {
+        expected.expect(IOException.class);
+        read("<measurements><measurement>");
+    }
+
+    /**
+     * Read the given XML.
+     * 
+     * @param xml
+     *            The XML to be read.
+     * @return A {@link List} of the {@link Aggregate} objects read, in order.
+     * @throws IOException
+     *             If any errors occur during the read.
+     */
+    private List<Aggregate> read(String xml) throws IOException {
+        final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+        reader.read(new StringReader(xml), new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+                aggregates.add(aggregate);
+            }
+        });
+        return aggregates;
+    }
+}
@@ -0,0 +1,86 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.doxia.module.xhtml.XhtmlSinkFactory;
+import org.apache.maven.doxia.sink.Sink;
+import org.junit.Test;
+
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.maven.data.TimeUnit;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link SummaryTableRenderer}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryTableRendererTest {
+    /**
+     * The aggregates should be sorted by name, with nested aggregates indented beneath their parents.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRender() throws Exception {
+        final TimingAggregate outer = new TimingAggregate(1000.0, 3000.0, 4000.0, 2, "b");
+        outer.addChild(new XmlAggregate(500.0, 500.0, 500.0, 1, "inner"));
+
+        final String table = render(TimeUnit.SECONDS, Arrays.<Aggregate> asList(outer, new XmlAggregate(1.0, 2.0, 3.0, 2, "a")));
+        assertThat(table).contains("<th>Total (sec)</th>");
+        assertThat(table).excludes("<th>p50");
+        assertThat(table.indexOf("<td>a</td>")).isLessThan(table.indexOf("<td>b</td>"));
+        assertThat(table).contains("<td>b</td><td>2.00</td><td>2</td><td>1.00</td><td>3.00</td><td>4.00</td>");
+        assertThat(table).contains("<td>\u00a0\u00a0\u00a0\u00a0inner</td>");
+    }
+
+    /**
+     * Percentile columns should be added if any aggregate carries a histogram.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRenderPercentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10.0);
+        final TimingAggregate withHistogram = new TimingAggregate(10.0, 10.0, 10.0, 1, "a");
+        withHistogram.setHistogram(histogram);
+
+        final String table = render(TimeUnit.MILLISECONDS, Arrays.<Aggregate> asList(withHistogram, new XmlAggregate(1.0, 2.0, 3.0, 2, "b")));
+        assertThat(table).contains("<th>p50 (ms)</th><th>p95 (ms)</th><th>p99 (ms)</th>");
+        assertThat(table).contains("<td>10.00</td><td>10.00</td><td>10.00</td></tr>");
+        assertThat(table).contains("<td>-</td><td>-</td><td>-</td></tr>");
+    }
+
+    /**
+     * Render aggregates as an XHTML table.
+     * 
+     * @param timeUnit
+     *            The {@link TimeUnit} in which the times are to be rendered.
+     * @param aggregates
+     *            A {@link List} of the {@link Aggregate} objects to be rendered.
+     * @return The XHTML of the table.
+     * @throws Exception
+     *             If the table cannot be rendered.
+     */
+    private String render(TimeUnit timeUnit, List<Aggregate> aggregates) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final Sink sink = new XhtmlSinkFactory().createSink(output);
+        try {
+            new SummaryTableRenderer(timeUnit).render(sink, aggregates);
+        } finally {
+            sink.close();
+        }
+        return output.toString("UTF-8");
+    }
+}
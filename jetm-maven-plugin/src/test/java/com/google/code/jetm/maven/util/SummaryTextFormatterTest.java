@@ -0,0 +1,58 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.code.jetm.maven.data.LatencyHistogram;
+import com.google.code.jetm.maven.data.TimeUnit;
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link SummaryTextFormatter}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class SummaryTextFormatterTest {
+    /**
+     * The aggregates should be sorted by name, with nested aggregates indented beneath their parents.
+     */
+    @Test
+    public void testFormat() {
+        final TimingAggregate outer = new TimingAggregate(1000.0, 3000.0, 4000.0, 2, "b");
+        outer.addChild(new XmlAggregate(500.0, 500.0, 500.0, 1, "inner"));
+        final List<Aggregate> aggregates = Arrays.<Aggregate> asList(outer, new XmlAggregate(1.0, 2.0, 3.0, 2, "a"));
+
+        final List<String> lines = new SummaryTextFormatter(TimeUnit.SECONDS).format(aggregates);
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0).startsWith("Measurement Point")).isTrue();
+        assertThat(lines.get(0).endsWith("Total (sec)")).isTrue();
+        assertThat(Arrays.asList(lines.get(2).split(" +"))).containsExactly("a", "0.00", "2", "0.00", "0.00", "0.00");
+        assertThat(Arrays.asList(lines.get(3).split(" +"))).containsExactly("b", "2.00", "2", "1.00", "3.00", "4.00");
+        assertThat(lines.get(4).startsWith("  inner ")).isTrue();
+    }
+
+    /**
+     * Percentile columns should be added if any aggregate carries a histogram.
+     */
+    @Test
+    public void testFormatPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10.0);
+        final TimingAggregate withHistogram = new TimingAggregate(10.0, 10.0, 10.0, 1, "a");
+        withHistogram.setHistogram(histogram);
+        final List<Aggregate> aggregates = Arrays.<Aggregate> asList(withHistogram, new XmlAggregate(1.0, 2.0, 3.0, 2, "b"));
+
+        final List<String> lines = new SummaryTextFormatter(TimeUnit.MILLISECONDS).format(aggregates);
+        assertThat(lines.get(0).endsWith("p99 (ms)")).isTrue();
+        assertThat(lines.get(2).endsWith("10.00")).isTrue();
+        assertThat(lines.get(3).endsWith("-")).isTrue();
+    }
+}
@@ -0,0 +1,47 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Unit tests for {@link TextTable}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TextTableTest {
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * The columns should be aligned to the widest cell within them.
+     */
+    @Test
+    public void testFormat() {
+        final TextTable table = new TextTable("Name", "Total");
+        table.addRow("a longer name", "1.00");
+        table.addRow("b", "1000.00");
+
+        final List<String> lines = table.format();
+        assertThat(lines).containsExactly("Name             Total", "-------------  -------", "a longer name     1.00", "b              1000.00");
+    }
+
+    /**
+     * A row with the wrong number of cells should be rejected.
+     */
+    @Test
+    public void testAddRowWrongSize() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Expected 2 cells, but got 1.");
+        new TextTable("Name", "Total").addRow("a");
+    }
+}
@@ -0,0 +1,342 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.util.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+import com.google.code.jetm.reporting.xml.XmlAggregateBinder;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link TimingFileLoader}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFileLoaderTest {
+    /**
+     * A {@link Rule} used to create the timing files to be read.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private final Charset charset = Charset.forName("UTF-8");
+
+    /**
+     * Construction with fewer than one thread should fail.
+     */
+    @Test
+    public void testConstructNoThreads() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Thread count must be at least 1: 0");
+        new TimingFileLoader(charset, 0);
+    }
+
+    /**
+     * The contents of the files should be passed on in the order in which
+     * they were given, regardless of the number of threads used to read them; files
+     * without any timings should be omitted.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamPreservesOrder() throws Exception {
+        final List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 20; i++)
+            files.add(write("timing-" + i + ".xml", new XmlAggregate(i, i, i, 1, "point-" + i)));
+        final File empty = write("empty.xml");
+        files.add(10, empty);
+
+        final Map<File, List<Aggregate>> loaded = load(new TimingFileLoader(charset, 4), files);
+        final List<File> expectedFiles = new ArrayList<File>(files);
+        expectedFiles.remove(empty);
+        assertThat(new ArrayList<File>(loaded.keySet())).isEqualTo(expectedFiles);
+
+        int index = 0;
+        for (List<Aggregate> aggregates : loaded.values()) {
+            assertThat(aggregates).hasSize(1);
+            assertThat(aggregates.get(0).getName()).isEqualTo("point-" + index++);
+        }
+    }
+
+    /**
+     * A failure to read a file should name the file that could not be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamMalformedFirstFile() throws Exception {
+        final File good = write("good.xml", new XmlAggregate(1, 2, 3, 4, "good"));
+        final File bad = folder.newFile("bad.xml");
+        FileUtils.writeStringToFile(bad, "<measurements><measurement>", "UTF-8");
+
+        expected.expect(IOException.class);
+        expected.expectMessage(bad.toString());
+        load(new TimingFileLoader(charset, 2), Arrays.asList(good, bad));
+    }
+
+    /**
+     * Streaming should pass every aggregate of every file to the visitor, even
+     * when there are many more files than threads.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStream() throws Exception {
+        final List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 50; i++)
+            files.add(write("timing-" + i + ".xml", new XmlAggregate(i, i, i, 1, "point-" + i)));
+
+        final List<String> names = Collections.synchronizedList(new ArrayList<String>());
+        new TimingFileLoader(charset, 3).stream(files, new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+                names.add(aggregate.getName());
+            }
+        });
+        assertThat(names).hasSize(50);
+        for (int i = 0; i < 50; i++)
+            assertThat(names).contains("point-" + i);
+    }
+
+    /**
+     * Streaming with a file visitor should pass the contents of each file
+     * with timings to it, in list order.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamFiles() throws Exception {
+        final List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 20; i++)
+            files.add(write("timing-" + i + ".xml", new XmlAggregate(i, i, i, 1, "point-" + i)));
+        final File empty = write("empty.xml");
+        files.add(10, empty);
+
+        final List<File> visited = new ArrayList<File>();
+        new TimingFileLoader(charset, 4).stream(files, new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+            }
+        }, new TimingFileVisitor() {
+            public void visit(File file, List<Aggregate> aggregates) {
+                assertThat(aggregates).hasSize(1);
+                assertThat(aggregates.get(0).getName()).isEqualTo("point-" + visited.size());
+                visited.add(file);
+            }
+        });
+
+        final List<File> expectedFiles = new ArrayList<File>(files);
+        expectedFiles.remove(empty);
+        assertThat(visited).isEqualTo(expectedFiles);
+    }
+
+    /**
+     * A failure to stream a file should name the first file, in list order,
+     * that could not be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamMalformedFile() throws Exception {
+        final List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 10; i++)
+            files.add(write("timing-" + i + ".xml", new XmlAggregate(i, i, i, 1, "point-" + i)));
+        final File bad = folder.newFile("bad.xml");
+        FileUtils.writeStringToFile(bad, "<measurements><measurement>", "UTF-8");
+        files.add(5, bad);
+
+        expected.expect(IOException.class);
+        expected.expectMessage(bad.toString());
+        new TimingFileLoader(charset, 2).stream(files, new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+            }
+        });
+    }
+
+    /**
+     * Files should be read in the format indicated by their extensions.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamBinaryFile() throws Exception {
+        final File xmlFile = write("timings.xml", new XmlAggregate(1, 2, 3, 4, "xml"));
+        final File binaryFile = folder.newFile("timings.jetm");
+        final OutputStream output = new FileOutputStream(binaryFile);
+        try {
+            new BinaryAggregateWriter().write(Collections.singletonList(new XmlAggregate(5, 6, 7, 8, "binary")), output);
+        } finally {
+            output.close();
+        }
+
+        final Map<File, List<Aggregate>> loaded = load(new TimingFileLoader(charset, 2), Arrays.asList(xmlFile, binaryFile));
+        assertThat(loaded.get(xmlFile).get(0).getName()).isEqualTo("xml");
+        assertThat(loaded.get(binaryFile).get(0).getName()).isEqualTo("binary");
+        assertThat(loaded.get(binaryFile).get(0).getMeasurements()).isEqualTo(8L);
+    }
+
+    /**
+     * Compressed files should be decompressed as they are read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamCompressedFiles() throws Exception {
+        final File gzipFile = folder.newFile("timings.xml.gz");
+        final Writer gzipWriter = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(gzipFile)), charset);
+        try {
+            new XmlAggregateBinder().bind(Collections.singletonList(new XmlAggregate(1, 2, 3, 4, "gzip")), gzipWriter);
+        } finally {
+            gzipWriter.close();
+        }
+
+        final File zlibFile = folder.newFile("timings.jetm.zz");
+        final OutputStream zlibOutput = new DeflaterOutputStream(new FileOutputStream(zlibFile));
+        try {
+            new BinaryAggregateWriter().write(Collections.singletonList(new XmlAggregate(5, 6, 7, 8, "zlib")), zlibOutput);
+        } finally {
+            zlibOutput.close();
+        }
+
+        final Map<File, List<Aggregate>> loaded = load(new TimingFileLoader(charset, 2), Arrays.asList(gzipFile, zlibFile));
+        assertThat(loaded.get(gzipFile).get(0).getName()).isEqualTo("gzip");
+        assertThat(loaded.get(zlibFile).get(0).getName()).isEqualTo("zlib");
+    }
+
+    /**
+     * A file whose cache entry is still valid should not be parsed again.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamFromCache() throws Exception {
+        final File file = write("cached.xml", new XmlAggregate(1, 2, 3, 4, "cached"));
+        final ParseCache cache = new ParseCache(folder.newFolder("cache"), false);
+        final TimingFileLoader loader = new TimingFileLoader(charset, 1, cache);
+        assertThat(load(loader, Collections.singletonList(file)).get(file)).hasSize(1);
+
+        /*
+         * Overwrite the file with unparseable data of the same length, so that
+         * only the cache can produce a result
+         */
+        final long lastModified = file.lastModified();
+        FileUtils.writeStringToFile(file, StringUtils.repeat("x", (int) file.length()), "UTF-8");
+        assertThat(file.setLastModified(lastModified)).isTrue();
+
+        final List<Aggregate> cached = load(loader, Collections.singletonList(file)).get(file);
+        assertThat(cached).hasSize(1);
+        assertThat(cached.get(0).getName()).isEqualTo("cached");
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    /**
+     * A file whose in-memory cache entry is still valid should not be read
+     * again, even if the on-disk cache no longer knows it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStreamFromResidentCache() throws Exception {
+        final File file = write("resident.xml", new XmlAggregate(1, 2, 3, 4, "resident"));
+        final File cacheDirectory = folder.newFolder("cache");
+        final ResidentParseCache residentCache = new ResidentParseCache(10);
+        assertThat(load(new TimingFileLoader(charset, 1, new ParseCache(cacheDirectory, false), residentCache), Collections.singletonList(file)).get(file)).hasSize(1);
+
+        final long lastModified = file.lastModified();
+        FileUtils.writeStringToFile(file, StringUtils.repeat("x", (int) file.length()), "UTF-8");
+        assertThat(file.setLastModified(lastModified)).isTrue();
+        FileUtils.cleanDirectory(cacheDirectory);
+
+        final TimingFileLoader loader = new TimingFileLoader(charset, 1, new ParseCache(cacheDirectory, false), residentCache);
+        final List<Aggregate> cached = load(loader, Collections.singletonList(file)).get(file);
+        assertThat(cached).hasSize(1);
+        assertThat(cached.get(0).getName()).isEqualTo("resident");
+        assertThat(loader.getResidentHits()).isEqualTo(1);
+    }
+
+    /**
+     * Stream files through a loader, collecting the contents of each file.
+     * 
+     * @param loader
+     *            The {@link TimingFileLoader} used to read the files.
+     * @param files
+     *            A {@link List} of the {@link File} objects to be read.
+     * @return A {@link Map} of each file with timings, in list order, to the
+     *         {@link Aggregate} objects read within it.
+     * @throws IOException
+     *             If any file cannot be read.
+     */
+    private Map<File, List<Aggregate>> load(TimingFileLoader loader, List<File> files) throws IOException {
+        final Map<File, List<Aggregate>> loaded = new LinkedHashMap<File, List<Aggregate>>();
+        loader.stream(files, new AggregateVisitor() {
+            public void visit(Aggregate aggregate) {
+            }
+        }, new TimingFileVisitor() {
+            public void visit(File file, List<Aggregate> aggregates) {
+                loaded.put(file, aggregates);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Write out a timing file.
+     * 
+     * @param fileName
+     *            The name of the file to be written.
+     * @param aggregates
+     *            The {@link Aggregate} objects to be written to the file.
+     * @return A {@link File} reference to the written file.
+     * @throws IOException
+     *             If any errors occur during the write-out.
+     */
+    private File write(String fileName, Aggregate... aggregates) throws IOException {
+        final File file = folder.newFile(fileName);
+        final FileWriter writer = new FileWriter(file);
+        try {
+            new XmlAggregateBinder().bind(aggregates.length == 0 ? Collections.<Aggregate> emptyList() : Arrays.asList(aggregates), writer);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+}
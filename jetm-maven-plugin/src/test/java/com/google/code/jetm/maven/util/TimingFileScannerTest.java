@@ -0,0 +1,190 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link TimingFileScanner}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFileScannerTest {
+    /**
+     * A {@link Rule} used to create the directory tree to be scanned.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private File root;
+
+    /**
+     * Create the directory tree to be scanned.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        root = folder.newFolder("jetm");
+        touch("top.xml");
+        touch("notes.txt");
+        touch("a/nested.XML");
+        touch("a/b/deep.jetm.gz");
+        touch("old/stale.xml");
+    }
+
+    /**
+     * By default, every timing file at any depth should be found.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScan() throws Exception {
+        assertThat(names(new TimingFileScanner().scan(root))).containsOnly("top.xml", "nested.XML", "deep.jetm.gz", "stale.xml");
+    }
+
+    /**
+     * Only files matched by an include pattern should be found.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScanIncludes() throws Exception {
+        final TimingFileScanner scanner = new TimingFileScanner(new String[] { "**/*.gz", "*.xml" }, null, Integer.MAX_VALUE);
+        assertThat(names(scanner.scan(root))).containsOnly("top.xml", "deep.jetm.gz");
+    }
+
+    /**
+     * A leading {@code **} should match no directories at all, as it does in
+     * Maven's own patterns, so that a file directly within the scanned
+     * directory is found.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScanIncludesRootFile() throws Exception {
+        touch("FooTest.xml");
+        touch("a/BarTest.xml");
+        final TimingFileScanner scanner = new TimingFileScanner(new String[] { "**/*Test.xml" }, null, Integer.MAX_VALUE);
+        assertThat(names(scanner.scan(root))).containsOnly("FooTest.xml", "BarTest.xml");
+    }
+
+    /**
+     * A pattern ending with a separator should match everything beneath it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScanIncludesDirectory() throws Exception {
+        final TimingFileScanner scanner = new TimingFileScanner(new String[] { "a/" }, null, Integer.MAX_VALUE);
+        assertThat(names(scanner.scan(root))).containsOnly("nested.XML", "deep.jetm.gz");
+    }
+
+    /**
+     * Excluded files and the contents of excluded directories should not be
+     * found.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScanExcludes() throws Exception {
+        final TimingFileScanner scanner = new TimingFileScanner(null, new String[] { "old", "**/*.gz" }, Integer.MAX_VALUE);
+        assertThat(names(scanner.scan(root))).containsOnly("top.xml", "nested.XML");
+    }
+
+    /**
+     * Files below the maximum depth should not be found.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScanMaxDepth() throws Exception {
+        assertThat(names(new TimingFileScanner(null, null, 1).scan(root))).containsOnly("top.xml");
+        assertThat(names(new TimingFileScanner(null, null, 2).scan(root))).containsOnly("top.xml", "nested.XML", "stale.xml");
+    }
+
+    /**
+     * Whether a directory contains any timing files should respect the same
+     * patterns as a full scan.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testContainsAny() throws Exception {
+        assertThat(new TimingFileScanner().containsAny(root)).isTrue();
+        assertThat(new TimingFileScanner(new String[] { "**/*.gz" }, null, Integer.MAX_VALUE).containsAny(root)).isTrue();
+        assertThat(new TimingFileScanner(new String[] { "**/*.gz" }, null, 2).containsAny(root)).isFalse();
+        assertThat(new TimingFileScanner().containsAny(new File(root, "missing"))).isFalse();
+    }
+
+    /**
+     * A directory that does not exist should yield no files.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testScanMissingDirectory() throws Exception {
+        assertThat(new TimingFileScanner().scan(new File(root, "missing"))).isEmpty();
+    }
+
+    /**
+     * A maximum depth of less than 1 should be rejected.
+     */
+    @Test
+    public void testConstructInvalidMaxDepth() {
+        expected.expect(IllegalArgumentException.class);
+        expected.expectMessage("Maximum depth must be at least 1: 0");
+        new TimingFileScanner(null, null, 0);
+    }
+
+    /**
+     * Create an empty file within the scanned directory.
+     * 
+     * @param path
+     *            The path of the file, relative to the scanned directory.
+     * @throws Exception
+     *             If the file cannot be created.
+     */
+    private void touch(String path) throws Exception {
+        FileUtils.touch(new File(root, path));
+    }
+
+    /**
+     * Get the names of files.
+     * 
+     * @param files
+     *            The {@link File} objects whose names are to be retrieved.
+     * @return An array of the names of the given files.
+     */
+    private String[] names(List<File> files) {
+        final String[] names = new String[files.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = files.get(i).getName();
+        return names;
+    }
+}
@@ -0,0 +1,97 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.reporting.xml.XmlAggregate;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link TimingFileWriter}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFileWriterTest {
+    /**
+     * A {@link Rule} used to create the files to be written.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Files in every format and compression should be read back as they were written.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final TimingAggregate outer = new TimingAggregate(1.0, 2.0, 3.0, 2, "outer");
+        outer.addChild(new XmlAggregate(0.5, 0.5, 0.5, 1, "inner"));
+        final List<Aggregate> written = Arrays.<Aggregate> asList(outer, new XmlAggregate(5.0, 6.0, 7.0, 8, "other"));
+
+        final TimingFileWriter writer = new TimingFileWriter();
+        final TimingFileLoader loader = new TimingFileLoader(Charset.forName("UTF-8"), 2);
+        for (String name : new String[] { "nested/plain.xml", "compressed.xml.gz", "binary.jetm.zz", "unknown.txt" }) {
+            final File file = new File(folder.getRoot(), name);
+            writer.write(file, written);
+
+            final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+            loader.stream(Arrays.asList(file), new AggregateVisitor() {
+                public void visit(Aggregate aggregate) {
+                }
+            }, new TimingFileVisitor() {
+                public void visit(File file, List<Aggregate> read) {
+                    aggregates.addAll(read);
+                }
+            });
+            assertThat(aggregates).hasSize(2);
+            assertThat(aggregates.get(0).getName()).isEqualTo("outer");
+            assertThat(((Aggregate) aggregates.get(0).getChilds().get("inner")).getTotal()).isEqualTo(0.5);
+            assertThat(aggregates.get(1).getMeasurements()).isEqualTo(8L);
+        }
+    }
+
+    /**
+     * A write that fails should leave the existing contents of the file, and no temporary files, behind.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWriteFailed() throws Exception {
+        final File file = new File(folder.getRoot(), "baseline.xml");
+        final TimingFileWriter writer = new TimingFileWriter();
+        writer.write(file, Collections.singletonList(new XmlAggregate(1.0, 2.0, 3.0, 2, "kept")));
+        final long length = file.length();
+
+        final Aggregate broken = mock(Aggregate.class);
+        when(broken.getName()).thenThrow(new IllegalStateException("broken"));
+        try {
+            writer.write(file, Collections.singletonList(broken));
+            fail("The write should have failed.");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).contains(file.toString());
+        }
+
+        assertThat(file.length()).isEqualTo(length);
+        assertThat(folder.getRoot().list()).containsOnly(file.getName());
+    }
+}
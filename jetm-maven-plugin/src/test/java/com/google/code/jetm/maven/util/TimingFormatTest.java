@@ -0,0 +1,41 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TimingFormat} and {@link TimingCompression}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingFormatTest {
+    /**
+     * The format of a file should be determined by its extension, regardless of case or compression.
+     */
+    @Test
+    public void testForFile() {
+        assertThat(TimingFormat.forFile(new File("a.xml"))).isEqualTo(TimingFormat.XML);
+        assertThat(TimingFormat.forFile(new File("a.XML.GZ"))).isEqualTo(TimingFormat.XML);
+        assertThat(TimingFormat.forFile(new File("a.xml.zz"))).isEqualTo(TimingFormat.XML);
+        assertThat(TimingFormat.forFile(new File("a.jetm"))).isEqualTo(TimingFormat.BINARY);
+        assertThat(TimingFormat.forFile(new File("a.jetm.gz"))).isEqualTo(TimingFormat.BINARY);
+        assertThat(TimingFormat.forFile(new File("a.gz"))).isNull();
+        assertThat(TimingFormat.forFile(new File("a.txt"))).isNull();
+        assertThat(TimingFormat.forFile(new File("xml"))).isNull();
+    }
+
+    /**
+     * The compression of a file should be determined by its extension.
+     */
+    @Test
+    public void testCompressionForFile() {
+        assertThat(TimingCompression.forFile(new File("a.xml"))).isEqualTo(TimingCompression.NONE);
+        assertThat(TimingCompression.forFile(new File("a.xml.GZ"))).isEqualTo(TimingCompression.GZIP);
+        assertThat(TimingCompression.forFile(new File("a.jetm.zz"))).isEqualTo(TimingCompression.ZLIB);
+    }
+}
@@ -0,0 +1,162 @@
+package com.google.code.jetm.maven.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.code.jetm.maven.data.ValueDistribution;
+
+import etm.core.aggregation.Aggregate;
+
+/**
+ * Unit tests for {@link TimingGenerator}.
+ * 
+ * @author jrh3k5
+ * 
+ */
+
+public class TimingGeneratorTest {
+    /**
+     * A {@link Rule} used to create the output directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A {@link Rule} used to test for thrown exceptions.
+     */
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    /**
+     * Each file should hold distinct names from the pool, nested to the configured depth, and be the same for the same seed.
+     */
+    @Test
+    public void testGenerate() {
+        final TimingGenerator generator = new TimingGenerator();
+        generator.setNamesPerFile(5);
+        generator.setNameCardinality(8);
+        generator.setDepth(3, 2);
+        generator.setDistribution(ValueDistribution.EXPONENTIAL, 20);
+        generator.setMaxMeasurements(10);
+        generator.setSeed(42);
+
+        final List<Aggregate> aggregates = generator.generate(3);
+        assertThat(aggregates).hasSize(5);
+
+        final Set<String> names = new HashSet<String>();
+        for (Aggregate aggregate : aggregates) {
+            names.add(aggregate.getName());
+            assertThat(aggregate.getName().matches("com\\.example\\.Service[0-9]+\\.operation[0-7]")).isTrue();
+            assertThat(aggregate.getMeasurements()).isGreaterThan(0).isLessThan(11);
+            assertThat(aggregate.getMin()).isLessThanOrEqualTo(aggregate.getMax());
+            assertThat(count(aggregate)).isEqualTo(7);
+        }
+        assertThat(names).hasSize(5);
+
+        assertThat(describe(generator.generate(3))).isEqualTo(describe(aggregates));
+        assertThat(describe(generator.generate(4))).isNotEqualTo(describe(aggregates));
+    }
+
+    /**
+     * A constant distribution should give every measurement the mean time.
+     */
+    @Test
+    public void testGenerateConstant() {
+        final TimingGenerator generator = new TimingGenerator();
+        generator.setDistribution(ValueDistribution.CONSTANT, 4);
+        for (Aggregate aggregate : generator.generate(0)) {
+            assertThat(aggregate.getMin()).isEqualTo(4.0);
+            assertThat(aggregate.getMax()).isEqualTo(4.0);
+            assertThat(aggregate.getTotal()).isEqualTo(4.0 * aggregate.getMeasurements());
+        }
+    }
+
+    /**
+     * A file cannot have more names than there are.
+     */
+    @Test
+    public void testGenerateTooManyNames() {
+        final TimingGenerator generator = new TimingGenerator();
+        generator.setNamesPerFile(11);
+        generator.setNameCardinality(10);
+
+        expected.expect(IllegalStateException.class);
+        expected.expectMessage("Each file cannot have more names than there are: 11 > 10");
+        generator.generate(0);
+    }
+
+    /**
+     * The written files should be spread across subdirectories and be readable as XML timing files.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWrite() throws Exception {
+        final TimingGenerator generator = new TimingGenerator();
+        generator.setNamesPerFile(3);
+
+        final List<File> files = generator.write(folder.getRoot(), 5, 2, ".xml");
+        assertThat(files).hasSize(5);
+        assertThat(files.get(0).getParentFile().getName()).isEqualTo("group-0000");
+        assertThat(files.get(4).getParentFile().getName()).isEqualTo("group-0002");
+        assertThat(files.get(4).getName()).isEqualTo("synthetic-000004.xml");
+
+        final List<Aggregate> read = new ArrayList<Aggregate>();
+        final Reader reader = new InputStreamReader(new FileInputStream(files.get(1)), "UTF-8");
+        try {
+            new StaxAggregateReader().read(reader, new AggregateVisitor() {
+                public void visit(Aggregate aggregate) {
+                    read.add(aggregate);
+                }
+            });
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+        assertThat(describe(read)).isEqualTo(describe(generator.generate(1)));
+    }
+
+    /**
+     * Count an aggregate and the aggregates nested within it.
+     * 
+     * @param aggregate
+     *            The {@link Aggregate} to be counted.
+     * @return The number of aggregates, including the given one.
+     */
+    @SuppressWarnings("unchecked")
+    private int count(Aggregate aggregate) {
+        int count = 1;
+        if (aggregate.hasChilds())
+            for (Aggregate child : (Iterable<Aggregate>) aggregate.getChilds().values())
+                count += count(child);
+        return count;
+    }
+
+    /**
+     * Describe aggregates by their names and figures.
+     * 
+     * @param aggregates
+     *            A {@link List} of {@link Aggregate} objects to be described.
+     * @return A {@link List} of descriptions of the given aggregates, in the same order.
+     */
+    private List<String> describe(List<Aggregate> aggregates) {
+        final List<String> descriptions = new ArrayList<String>(aggregates.size());
+        for (Aggregate aggregate : aggregates)
+            descriptions.add(aggregate.getName() + ":" + aggregate.getMeasurements() + ":" + aggregate.getMin() + ":" + aggregate.getMax() + ":" + aggregate.getTotal());
+        return descriptions;
+    }
+}